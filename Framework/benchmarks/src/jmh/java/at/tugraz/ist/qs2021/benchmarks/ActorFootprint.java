@@ -0,0 +1,71 @@
+package at.tugraz.ist.qs2021.benchmarks;
+
+import at.tugraz.ist.qs2021.actorsystem.SimulatedActor;
+import at.tugraz.ist.qs2021.actorsystem.SimulatedActorSystem;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Measures the heap retained per idle actor, i.e. an actor spawned with the default settings of
+ * {@link SimulatedActorSystem}, which has never received a message. This includes the actor object
+ * itself and its entry in the system. Fails if the measured footprint exceeds the given budget.
+ * <p>
+ * Usage: {@code ActorFootprint [actors] [budget in bytes]}, see {@code ./gradlew :benchmarks:footprint}.
+ */
+public final class ActorFootprint {
+
+    private static final int DEFAULT_ACTORS = 1_000_000;
+    private static final int DEFAULT_BUDGET = 96;
+
+    private ActorFootprint() {
+    }
+
+    public static void main(String[] args) {
+        int actors = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_ACTORS;
+        int budget = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_BUDGET;
+
+        // warms up the classes used by spawn, so they do not show up in the measurement
+        measure(1000);
+        double bytesPerActor = measure(actors);
+
+        System.out.printf("%d idle actors: %.1f bytes per actor (budget %d bytes)%n", actors, bytesPerActor, budget);
+        if (bytesPerActor > budget) {
+            System.out.println("FAILED: footprint exceeds the budget");
+            System.exit(1);
+        }
+    }
+
+    /**
+     * @param actors number of actors to spawn
+     * @return The heap retained per actor in bytes.
+     */
+    private static double measure(int actors) {
+        SimulatedActorSystem system = new SimulatedActorSystem();
+        List<SimulatedActor> spawned = new ArrayList<>(actors);
+        long before = usedHeap();
+        for (int i = 0; i < actors; i++) {
+            SimulatedActor actor = new BenchmarkActors.Sink();
+            system.spawn(actor);
+            // the list only exists to keep the actors reachable in case the system does not,
+            // it is allocated up front and thus not part of the measurement
+            spawned.add(actor);
+        }
+        long after = usedHeap();
+        if (spawned.size() != system.getActors().size()) {
+            throw new IllegalStateException("not all actors are alive");
+        }
+        return (double) (after - before) / actors;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        long used = Long.MAX_VALUE;
+        // several collections, as a single System.gc() may leave garbage behind
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            used = Math.min(used, runtime.totalMemory() - runtime.freeMemory());
+        }
+        return used;
+    }
+}
@@ -0,0 +1,55 @@
+package at.tugraz.ist.qs2021.benchmarks;
+
+import at.tugraz.ist.qs2021.actorsystem.DisabledMessageLog;
+import at.tugraz.ist.qs2021.actorsystem.Message;
+import at.tugraz.ist.qs2021.actorsystem.SimulatedActor;
+import at.tugraz.ist.qs2021.actorsystem.SimulatedActorSystem;
+
+/**
+ * Actors and messages shared by the benchmarks.
+ */
+final class BenchmarkActors {
+
+    private BenchmarkActors() {
+    }
+
+    /**
+     * @return A system, which does not log messages, so that benchmarks measure a steady state.
+     */
+    static SimulatedActorSystem newSystem() {
+        SimulatedActorSystem system = new SimulatedActorSystem();
+        system.setMessageLogFactory(() -> DisabledMessageLog.INSTANCE);
+        return system;
+    }
+
+    /**
+     * Message, which is processed without delay.
+     */
+    static final class Ping implements Message {
+        static final Ping INSTANCE = new Ping();
+
+        @Override
+        public int getDuration() {
+            return 0;
+        }
+    }
+
+    /**
+     * Actor discarding all messages.
+     */
+    static class Sink extends SimulatedActor {
+        @Override
+        public void receive(Message message) {
+        }
+    }
+
+    /**
+     * Actor sending every message it receives back to itself, so it never becomes idle.
+     */
+    static class Echo extends SimulatedActor {
+        @Override
+        public void receive(Message message) {
+            tell(message);
+        }
+    }
+}
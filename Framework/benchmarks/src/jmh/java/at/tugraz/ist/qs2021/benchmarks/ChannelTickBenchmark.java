@@ -0,0 +1,50 @@
+package at.tugraz.ist.qs2021.benchmarks;
+
+import at.tugraz.ist.qs2021.actorsystem.CommunicationChannel;
+import at.tugraz.ist.qs2021.actorsystem.DeterministicChannel;
+import at.tugraz.ist.qs2021.actorsystem.Message;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of {@link CommunicationChannel#tick()} depending on the number of messages in transit.
+ * Every operation sends {@code burst} messages and delivers the {@code burst} messages sent
+ * {@code depth / burst} ticks earlier, so {@code depth} messages stay in transit.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ChannelTickBenchmark {
+
+    @Param({"1", "64", "1024", "16384"})
+    private int depth;
+
+    @Param({"1", "64"})
+    private int burst;
+
+    private CommunicationChannel channel;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        int delay = Math.max(1, depth / burst);
+        channel = new DeterministicChannel(delay);
+        for (int i = 0; i < delay; i++) {
+            sendBurst();
+            channel.tick();
+        }
+    }
+
+    @Benchmark
+    public List<Message> sendAndTick() {
+        sendBurst();
+        return channel.tick();
+    }
+
+    private void sendBurst() {
+        for (int i = 0; i < burst; i++) {
+            channel.send(BenchmarkActors.Ping.INSTANCE);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package at.tugraz.ist.qs2021.benchmarks;
+
+import at.tugraz.ist.qs2021.actorsystem.SimulatedActor;
+import at.tugraz.ist.qs2021.actorsystem.SimulatedActorSystem;
+import at.tugraz.ist.qs2021.messageboard.UnknownClientException;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of spawning and stopping actors in a system, which already contains {@code population} actors.
+ * The short-lived actors either stay idle or receive one message before they are stopped.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SpawnStopBenchmark {
+
+    @Param({"0", "1024", "65536"})
+    private int population;
+
+    private SimulatedActorSystem system;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        system = BenchmarkActors.newSystem();
+        for (int i = 0; i < population; i++) {
+            system.spawn(new BenchmarkActors.Sink());
+        }
+    }
+
+    @Benchmark
+    public SimulatedActor spawnAndStop() {
+        SimulatedActor actor = new BenchmarkActors.Sink();
+        system.spawn(actor);
+        system.stop(actor);
+        return actor;
+    }
+
+    @Benchmark
+    public SimulatedActor spawnTellAndStop() throws UnknownClientException {
+        SimulatedActor actor = new BenchmarkActors.Sink();
+        system.spawn(actor);
+        actor.tell(BenchmarkActors.Ping.INSTANCE);
+        system.runFor(3);
+        system.stop(actor);
+        return actor;
+    }
+}
@@ -0,0 +1,44 @@
+package at.tugraz.ist.qs2021.benchmarks;
+
+import at.tugraz.ist.qs2021.actorsystem.SimulatedActorSystem;
+import at.tugraz.ist.qs2021.messageboard.UnknownClientException;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of {@link SimulatedActorSystem#tick()} depending on the number of actors.
+ * In the busy variant every actor has work in every tick, in the idle variant
+ * only one actor out of {@code actors} has.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SystemTickBenchmark {
+
+    @Param({"16", "256", "4096"})
+    private int actors;
+
+    @Param({"true", "false"})
+    private boolean busy;
+
+    private SimulatedActorSystem system;
+
+    @Setup(Level.Trial)
+    public void setUp() throws UnknownClientException {
+        system = BenchmarkActors.newSystem();
+        for (int i = 0; i < actors; i++) {
+            BenchmarkActors.Echo actor = new BenchmarkActors.Echo();
+            system.spawn(actor);
+            if (busy || i == 0) {
+                actor.tell(BenchmarkActors.Ping.INSTANCE);
+            }
+        }
+        system.runFor(10);
+    }
+
+    @Benchmark
+    public void tick() throws UnknownClientException {
+        system.tick();
+    }
+}
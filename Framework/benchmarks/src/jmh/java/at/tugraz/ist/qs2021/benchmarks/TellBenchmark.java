@@ -0,0 +1,73 @@
+package at.tugraz.ist.qs2021.benchmarks;
+
+import at.tugraz.ist.qs2021.actorsystem.Message;
+import at.tugraz.ist.qs2021.actorsystem.SimulatedActor;
+import at.tugraz.ist.qs2021.actorsystem.SimulatedActorSystem;
+import at.tugraz.ist.qs2021.messageboard.UnknownClientException;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of {@link SimulatedActor#tell} per message. Every operation sends one message to each
+ * of {@link #RECEIVERS} actors, either from outside the system or from an actor during a tick,
+ * and runs the system until the messages are processed, so nothing accumulates between operations.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TellBenchmark {
+
+    private static final int RECEIVERS = 1024;
+
+    private SimulatedActorSystem system;
+    private SimulatedActor[] receivers;
+    private SimulatedActor sender;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        system = BenchmarkActors.newSystem();
+        receivers = new SimulatedActor[RECEIVERS];
+        for (int i = 0; i < RECEIVERS; i++) {
+            receivers[i] = new BenchmarkActors.Sink();
+            system.spawn(receivers[i]);
+        }
+        sender = new Broadcaster(receivers);
+        system.spawn(sender);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RECEIVERS)
+    public void tellFromOutside() throws UnknownClientException {
+        for (SimulatedActor receiver : receivers) {
+            receiver.tell(BenchmarkActors.Ping.INSTANCE);
+        }
+        // one tick in transit, one to take it from the mailbox and one to receive it
+        system.runFor(3);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RECEIVERS)
+    public void tellFromActor() throws UnknownClientException {
+        sender.tell(BenchmarkActors.Ping.INSTANCE);
+        system.runFor(6);
+    }
+
+    /**
+     * Sends every message it receives to all receivers.
+     */
+    private static class Broadcaster extends SimulatedActor {
+        private final SimulatedActor[] receivers;
+
+        Broadcaster(SimulatedActor[] receivers) {
+            this.receivers = receivers;
+        }
+
+        @Override
+        public void receive(Message message) {
+            for (SimulatedActor receiver : receivers) {
+                receiver.tell(message);
+            }
+        }
+    }
+}
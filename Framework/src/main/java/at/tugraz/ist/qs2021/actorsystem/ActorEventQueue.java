@@ -0,0 +1,141 @@
+package at.tugraz.ist.qs2021.actorsystem;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Priority queue of actors ordered by the tick of their next event and their id.
+ * <p>
+ * It is a binary min-heap stored in an array, every actor knows its position in the heap,
+ * so it can be removed or moved without searching. Apart from growing the array, no
+ * objects are allocated.
+ */
+final class ActorEventQueue {
+    private SimulatedActor[] heap = new SimulatedActor[16];
+    private int size = 0;
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return The actor with the earliest event, null if the queue is empty.
+     */
+    SimulatedActor first() {
+        return size == 0 ? null : heap[0];
+    }
+
+    /**
+     * Adds an actor, which must not be contained yet.
+     *
+     * @param actor the actor, its eventTick must be set
+     */
+    void add(SimulatedActor actor) {
+        if (size == heap.length) {
+            heap = Arrays.copyOf(heap, size * 2);
+        }
+        actor.eventIndex = size;
+        heap[size++] = actor;
+        siftUp(actor.eventIndex);
+    }
+
+    /**
+     * Removes an actor, if it is contained.
+     *
+     * @param actor the actor
+     */
+    void remove(SimulatedActor actor) {
+        int index = actor.eventIndex;
+        if (index < 0) {
+            return;
+        }
+        actor.eventIndex = -1;
+        size--;
+        if (index == size) {
+            heap[size] = null;
+            return;
+        }
+        SimulatedActor last = heap[size];
+        heap[size] = null;
+        heap[index] = last;
+        last.eventIndex = index;
+        siftDown(index);
+        siftUp(last.eventIndex);
+    }
+
+    /**
+     * Removes the actor with the earliest event.
+     *
+     * @return the removed actor, null if the queue is empty
+     */
+    SimulatedActor pollFirst() {
+        SimulatedActor first = first();
+        if (first != null) {
+            remove(first);
+        }
+        return first;
+    }
+
+    /**
+     * Adds all actors with an event at or before the given tick to the list, in no particular order.
+     *
+     * @param tick the tick
+     * @param due  the list to add to
+     */
+    void collectDue(int tick, List<SimulatedActor> due) {
+        collectDue(0, tick, due);
+    }
+
+    private void collectDue(int index, int tick, List<SimulatedActor> due) {
+        if (index >= size || heap[index].eventTick > tick) {
+            return;
+        }
+        due.add(heap[index]);
+        collectDue(2 * index + 1, tick, due);
+        collectDue(2 * index + 2, tick, due);
+    }
+
+    private void siftUp(int index) {
+        SimulatedActor actor = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (!before(actor, heap[parent])) {
+                break;
+            }
+            place(heap[parent], index);
+            index = parent;
+        }
+        place(actor, index);
+    }
+
+    private void siftDown(int index) {
+        SimulatedActor actor = heap[index];
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && before(heap[child + 1], heap[child])) {
+                child++;
+            }
+            if (!before(heap[child], actor)) {
+                break;
+            }
+            place(heap[child], index);
+            index = child;
+        }
+        place(actor, index);
+    }
+
+    private void place(SimulatedActor actor, int index) {
+        heap[index] = actor;
+        actor.eventIndex = index;
+    }
+
+    private static boolean before(SimulatedActor a, SimulatedActor b) {
+        if (a.eventTick != b.eventTick) {
+            return a.eventTick < b.eventTick;
+        }
+        return a.getId() < b.getId();
+    }
+}
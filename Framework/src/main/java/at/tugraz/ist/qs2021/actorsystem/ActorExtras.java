@@ -0,0 +1,53 @@
+package at.tugraz.ist.qs2021.actorsystem;
+
+import java.util.HashMap;
+
+/**
+ * State of a {@link SimulatedActor}, which most actors never use, e.g. scheduled messages,
+ * metrics or handlers. It is created when the first of these features is used, so an idle
+ * actor only needs a single reference for all of them.
+ */
+final class ActorExtras {
+
+    /**
+     * Messages being processed if the actor has a capacity of more than one, see {@link SimulatedActor#setCapacity(int)}.
+     */
+    ProcessingSlots slots = null;
+
+    /**
+     * Messages scheduled for the actor, created when the first one is scheduled.
+     */
+    TimerChannel timers = null;
+
+    /**
+     * Metrics of the actor, null if it does not record metrics.
+     */
+    ActorMetrics metrics = null;
+
+    /**
+     * Records the latencies of messages sent to the actor, null if they are not tracked.
+     */
+    LatencyTracker latencyTracker = null;
+
+    /**
+     * Envelope of the active message, if its latencies are tracked.
+     */
+    TimedMessage activeEnvelope = null;
+
+    /**
+     * Records the messages the actor receives, null if they are not recorded.
+     */
+    MessageTraceRecorder traceRecorder = null;
+
+    /**
+     * Handlers registered via {@link SimulatedActor#registerHandler(Class, IMessageHandler)} by message class,
+     * null if no handler has been registered.
+     */
+    HashMap<Class<?>, IMessageHandler<Message>> handlers = null;
+
+    /**
+     * Handlers of message classes without own handler, which have been looked up in
+     * the superclasses. Created for the first such message.
+     */
+    HashMap<Class<?>, IMessageHandler<Message>> inheritedHandlers = null;
+}
@@ -0,0 +1,184 @@
+package at.tugraz.ist.qs2021.actorsystem;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Runtime metrics of an actor, respectively of all actors of a class, see
+ * {@link SimulatedActorSystem#setMetricsEnabled(boolean)}.
+ * <p>
+ * Every tick of an actor is either busy or idle. It is busy if the actor is processing
+ * a message, including the tick in which it takes the message from the mailbox and the
+ * tick in which it receives it. Scheduled messages are received without occupying the actor.
+ */
+public final class ActorMetrics {
+    private int actors;
+    private int mailboxDepth;
+    private int mailboxHighWater;
+    private long mailboxOverflows;
+    private long droppedMessages;
+    private int messagesInTransit;
+    private long busyTicks;
+    private long idleTicks;
+    private final Map<Class<?>, Long> receivedByType;
+
+    ActorMetrics() {
+        this.actors = 1;
+        this.receivedByType = new HashMap<>();
+    }
+
+    private ActorMetrics(ActorMetrics metrics, int actors) {
+        this.actors = actors;
+        this.mailboxDepth = metrics.mailboxDepth;
+        this.mailboxHighWater = metrics.mailboxHighWater;
+        this.mailboxOverflows = metrics.mailboxOverflows;
+        this.droppedMessages = metrics.droppedMessages;
+        this.messagesInTransit = metrics.messagesInTransit;
+        this.busyTicks = metrics.busyTicks;
+        this.idleTicks = metrics.idleTicks;
+        this.receivedByType = new HashMap<>(metrics.receivedByType);
+    }
+
+    void recordMailboxDepth(int depth) {
+        if (depth > mailboxHighWater) {
+            mailboxHighWater = depth;
+        }
+    }
+
+    void recordTicks(boolean busy, int ticks) {
+        if (busy) {
+            busyTicks += ticks;
+        } else {
+            idleTicks += ticks;
+        }
+    }
+
+    void recordReceive(Message message) {
+        receivedByType.merge(message.getClass(), 1L, Long::sum);
+    }
+
+    /**
+     * Copies the counters of the given actor and adds its current queue lengths.
+     *
+     * @param actor an actor recording metrics
+     * @return the snapshot
+     */
+    static ActorMetrics snapshot(SimulatedActor actor) {
+        ActorMetrics snapshot = new ActorMetrics(actor.metrics(), 1);
+        snapshot.mailboxDepth = actor.mailbox == null ? 0 : actor.mailbox.size();
+        if (actor.mailbox instanceof BoundedMailbox) {
+            BoundedMailbox mailbox = (BoundedMailbox) actor.mailbox;
+            snapshot.mailboxOverflows = mailbox.getOverflows();
+            snapshot.droppedMessages = mailbox.getDropped();
+        }
+        snapshot.messagesInTransit = actor.channel == null ? 0 : actor.channel.getMessagesInDelivery();
+        return snapshot;
+    }
+
+    /**
+     * Copies the counters of the given stopped actor without its queue lengths,
+     * as the messages left in them are never received.
+     *
+     * @param actor a stopped actor recording metrics, which has been brought up to date
+     * @return the metrics to retain
+     */
+    static ActorMetrics stopped(SimulatedActor actor) {
+        ActorMetrics stopped = snapshot(actor);
+        stopped.mailboxDepth = 0;
+        stopped.messagesInTransit = 0;
+        return stopped;
+    }
+
+    /**
+     * @param metrics metrics of another actor
+     * @return A new object summing up both, except for the mailbox high-water mark,
+     * which is the maximum of both.
+     */
+    ActorMetrics combine(ActorMetrics metrics) {
+        ActorMetrics combined = new ActorMetrics(this, actors + metrics.actors);
+        combined.mailboxDepth += metrics.mailboxDepth;
+        combined.mailboxHighWater = Math.max(mailboxHighWater, metrics.mailboxHighWater);
+        combined.mailboxOverflows += metrics.mailboxOverflows;
+        combined.droppedMessages += metrics.droppedMessages;
+        combined.messagesInTransit += metrics.messagesInTransit;
+        combined.busyTicks += metrics.busyTicks;
+        combined.idleTicks += metrics.idleTicks;
+        metrics.receivedByType.forEach((type, count) -> combined.receivedByType.merge(type, count, Long::sum));
+        return combined;
+    }
+
+    /**
+     * @return Number of actors these metrics cover.
+     */
+    public int getActors() {
+        return actors;
+    }
+
+    /**
+     * @return Number of messages waiting in the mailbox when the snapshot was taken.
+     */
+    public int getMailboxDepth() {
+        return mailboxDepth;
+    }
+
+    /**
+     * @return Maximum number of messages waiting in the mailbox at any time.
+     */
+    public int getMailboxHighWater() {
+        return mailboxHighWater;
+    }
+
+    /**
+     * @return Number of messages, which arrived while a {@link BoundedMailbox} was full.
+     */
+    public long getMailboxOverflows() {
+        return mailboxOverflows;
+    }
+
+    /**
+     * @return Number of messages a {@link BoundedMailbox} dropped or rejected.
+     */
+    public long getDroppedMessages() {
+        return droppedMessages;
+    }
+
+    /**
+     * @return Number of messages in the communication channel when the snapshot was taken.
+     */
+    public int getMessagesInTransit() {
+        return messagesInTransit;
+    }
+
+    /**
+     * @return Number of ticks spent processing messages.
+     */
+    public long getBusyTicks() {
+        return busyTicks;
+    }
+
+    /**
+     * @return Number of ticks without a message to process.
+     */
+    public long getIdleTicks() {
+        return idleTicks;
+    }
+
+    /**
+     * @return Number of messages received, by message class.
+     */
+    public Map<Class<?>, Long> getReceivedByType() {
+        return Collections.unmodifiableMap(receivedByType);
+    }
+
+    /**
+     * @return Number of messages received in total.
+     */
+    public long getReceived() {
+        long received = 0;
+        for (long count : receivedByType.values()) {
+            received += count;
+        }
+        return received;
+    }
+}
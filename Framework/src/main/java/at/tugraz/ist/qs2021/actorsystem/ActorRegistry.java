@@ -0,0 +1,166 @@
+package at.tugraz.ist.qs2021.actorsystem;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * The actors of a system in id order, which is the order they were spawned in.
+ * <p>
+ * Actors are appended to an array and every actor knows its position in it, so adding
+ * and removing take constant time. Removed actors leave a gap, which is closed when
+ * there are more gaps than actors or when the list is accessed by index. The id of every
+ * slot is kept in a second array, including the ids of removed actors, so the ids are sorted
+ * without gaps and an actor is looked up by a binary search in logarithmic time.
+ * <p>
+ * The list reflects all changes, but cannot be modified via the list interface. Like the
+ * iterators of {@link java.util.ArrayList}, its iterators fail if actors are added or removed
+ * during the iteration, or if an access by index closes gaps.
+ */
+final class ActorRegistry extends AbstractList<SimulatedActor> {
+
+    /**
+     * Number of gaps tolerated regardless of the number of actors.
+     */
+    private static final int MIN_GAPS_TO_COMPACT = 16;
+
+    private SimulatedActor[] slots = new SimulatedActor[16];
+
+    /**
+     * Id of the actor in the corresponding slot, respectively of the actor removed from it.
+     */
+    private long[] ids = new long[16];
+
+    /**
+     * Number of slots used, including gaps.
+     */
+    private int end = 0;
+    private int size = 0;
+
+    /**
+     * Adds an actor, which must have a higher id than all actors added before.
+     *
+     * @param actor the actor
+     */
+    void register(SimulatedActor actor) {
+        if (end == slots.length) {
+            compactOrGrow();
+        }
+        actor.registryIndex = end;
+        ids[end] = actor.getId();
+        slots[end++] = actor;
+        size++;
+        modCount++;
+    }
+
+    /**
+     * Removes an actor.
+     *
+     * @param actor the actor
+     * @return True if the actor was contained.
+     */
+    boolean unregister(SimulatedActor actor) {
+        int index = actor.registryIndex;
+        if (index < 0 || index >= end || slots[index] != actor) {
+            return false;
+        }
+        slots[index] = null;
+        actor.registryIndex = -1;
+        size--;
+        modCount++;
+        int gaps = end - size;
+        if (gaps > MIN_GAPS_TO_COMPACT && gaps > size) {
+            compact();
+        }
+        return true;
+    }
+
+    /**
+     * @param id an actor id
+     * @return The actor with the given id, null if there is none.
+     */
+    SimulatedActor lookup(long id) {
+        int index = Arrays.binarySearch(ids, 0, end, id);
+        // null if the actor has been removed
+        return index < 0 ? null : slots[index];
+    }
+
+    @Override
+    public SimulatedActor get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        if (end != size) {
+            compact();
+        }
+        return slots[index];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Iterator<SimulatedActor> iterator() {
+        return new Iterator<SimulatedActor>() {
+            private int next = skipGaps(0);
+            private final int expectedModCount = modCount;
+
+            @Override
+            public boolean hasNext() {
+                return next < end;
+            }
+
+            @Override
+            public SimulatedActor next() {
+                if (modCount != expectedModCount) {
+                    throw new ConcurrentModificationException();
+                }
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                SimulatedActor actor = slots[next];
+                next = skipGaps(next + 1);
+                return actor;
+            }
+        };
+    }
+
+    private int skipGaps(int index) {
+        while (index < end && slots[index] == null) {
+            index++;
+        }
+        return index;
+    }
+
+    private void compactOrGrow() {
+        if (end - size > MIN_GAPS_TO_COMPACT) {
+            compact();
+        } else {
+            slots = Arrays.copyOf(slots, slots.length * 2);
+            ids = Arrays.copyOf(ids, slots.length);
+        }
+    }
+
+    /**
+     * Closes all gaps. It moves actors to other slots, so it counts as a modification,
+     * even if it is triggered by reading the list.
+     */
+    private void compact() {
+        modCount++;
+        int used = 0;
+        for (int i = 0; i < end; i++) {
+            SimulatedActor actor = slots[i];
+            if (actor != null) {
+                actor.registryIndex = used;
+                ids[used] = ids[i];
+                slots[used++] = actor;
+            }
+        }
+        Arrays.fill(slots, used, end, null);
+        end = used;
+    }
+}
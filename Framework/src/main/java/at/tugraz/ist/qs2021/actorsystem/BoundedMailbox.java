@@ -0,0 +1,135 @@
+package at.tugraz.ist.qs2021.actorsystem;
+
+import java.util.ArrayDeque;
+
+/**
+ * Mailbox holding at most a fixed number of messages, which applies an {@link OverflowPolicy}
+ * to messages arriving while it is full. Actors use it by setting their <c>mailbox</c>
+ * in their constructor, e.g. {@code this.mailbox = new BoundedMailbox(16, OverflowPolicy.REJECT)}.
+ * <p>
+ * The simulated systems notify the actor of every overflow after the policy has been applied,
+ * see {@link SimulatedActor#mailboxOverflow(Message, OverflowPolicy)}. The ConcurrentActorSystem
+ * only applies the policy, as messages are added by the threads of the senders.
+ * <p>
+ * Messages are added and removed while holding the lock of the mailbox, so it is slower than
+ * {@link MpscArrayMailbox} when many threads send to the same actor.
+ */
+public class BoundedMailbox implements IMailbox {
+    private final ArrayDeque<Message> messages;
+    private final int capacity;
+    private final OverflowPolicy policy;
+
+    /**
+     * Number of messages, which arrived while the mailbox was full.
+     */
+    private long overflows = 0;
+
+    /**
+     * Number of messages dropped or rejected.
+     */
+    private long dropped = 0;
+
+    /**
+     * Constructs a BoundedMailbox.
+     *
+     * @param capacity Maximum number of waiting messages, except for {@link OverflowPolicy#BACKPRESSURE}.
+     * @param policy   What to do with messages arriving while the mailbox is full.
+     */
+    public BoundedMailbox(int capacity, OverflowPolicy policy) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        if (policy == null) {
+            throw new NullPointerException("policy must not be null");
+        }
+        this.messages = new ArrayDeque<>(Math.min(capacity, MpscArrayMailbox.DEFAULT_INITIAL_CAPACITY));
+        this.capacity = capacity;
+        this.policy = policy;
+    }
+
+    @Override
+    public boolean offer(Message message) {
+        return offer(message, null);
+    }
+
+    /**
+     * Adds the message or applies the overflow policy, if the mailbox is full.
+     *
+     * @param message the message
+     * @param owner   the actor notified of an overflow, null if none is notified
+     * @return True if the message was added.
+     */
+    boolean offer(Message message, SimulatedActor owner) {
+        if (message == null) {
+            throw new NullPointerException("message must not be null");
+        }
+        Message affected;
+        boolean added;
+        synchronized (this) {
+            if (messages.size() < capacity) {
+                messages.addLast(message);
+                return true;
+            }
+            overflows++;
+            switch (policy) {
+                case DROP_OLDEST:
+                    affected = messages.pollFirst();
+                    messages.addLast(message);
+                    added = true;
+                    dropped++;
+                    break;
+                case BACKPRESSURE:
+                    affected = message;
+                    messages.addLast(message);
+                    added = true;
+                    break;
+                default:
+                    affected = message;
+                    added = false;
+                    dropped++;
+                    break;
+            }
+        }
+        if (owner != null) {
+            owner.mailboxOverflow(TimedMessage.unwrap(affected), policy);
+        }
+        return added;
+    }
+
+    @Override
+    public synchronized Message poll() {
+        return messages.pollFirst();
+    }
+
+    @Override
+    public synchronized boolean isEmpty() {
+        return messages.isEmpty();
+    }
+
+    @Override
+    public synchronized int size() {
+        return messages.size();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public OverflowPolicy getPolicy() {
+        return policy;
+    }
+
+    /**
+     * @return Number of messages, which arrived while the mailbox was full.
+     */
+    public synchronized long getOverflows() {
+        return overflows;
+    }
+
+    /**
+     * @return Number of messages lost due to overflows, i.e. all overflows except for {@link OverflowPolicy#BACKPRESSURE}.
+     */
+    public synchronized long getDropped() {
+        return dropped;
+    }
+}
@@ -1,41 +1,254 @@
 package at.tugraz.ist.qs2021.actorsystem;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 /**
  * Abstract CommunicationChannel class implementing the Tick method,
  * which is common to all concrete implementations of communication channels.
+ * <p>
+ * Messages in transit are kept in a hashed timing wheel: every message is stored
+ * in the slot of the tick at which it arrives, so {@link #tick()} only touches the
+ * messages it actually delivers. The wheel grows whenever a message is sent with a
+ * delay not fitting into it, hence each slot only ever holds messages for a single
+ * arrival tick. Messages arriving at the same tick are delivered in the order they
+ * were added.
+ * <p>
+ * The messages of a slot form a linked list, which is stored in parallel arrays
+ * (message and index of the next entry) together with a free list of unused entries.
+ * The arrays only grow, so once they are large enough for the messages in transit,
+ * sending and ticking do not allocate any objects. Channels start with shared empty
+ * arrays, which are only replaced when the first message is added, so channels never
+ * used for sending are cheap.
  */
 public abstract class CommunicationChannel implements ICommunicationChannel {
 
-    private List<MessageInDelivery> messagesInDelivery = new ArrayList<>();
+    /**
+     * Initial number of slots of the timing wheel, must be a power of two.
+     */
+    private static final int INITIAL_WHEEL_SIZE = 4;
+
+    /**
+     * Initial number of entries for messages in transit.
+     */
+    private static final int INITIAL_CAPACITY = 4;
+
+    /**
+     * Marks the end of a list of entries.
+     */
+    private static final int NONE = -1;
+
+    /**
+     * Shared by all channels, to which no message has been added so far.
+     */
+    private static final int[] EMPTY_INDICES = new int[0];
+    private static final Message[] EMPTY_MESSAGES = new Message[0];
+
+    /**
+     * Number of calls to {@link #tick()} so far, arrival ticks are expressed on this clock.
+     */
+    private int currentTick = 0;
+
+    /**
+     * First and last entry of the messages arriving at tick t, which are stored
+     * in slot (t & (slotHeads.length - 1)) of the timing wheel.
+     */
+    private int[] slotHeads = EMPTY_INDICES;
+    private int[] slotTails = EMPTY_INDICES;
+
+    /**
+     * Arrival tick of the messages currently stored in the corresponding slot.
+     */
+    private int[] slotTicks = EMPTY_INDICES;
+
+    /**
+     * Message of each entry, null for free entries.
+     */
+    private Message[] entryMessages = EMPTY_MESSAGES;
+
+    /**
+     * Next entry in the same slot, respectively the next free entry.
+     */
+    private int[] entryNext = EMPTY_INDICES;
+
+    /**
+     * First free entry.
+     */
+    private int freeEntry = NONE;
+
+    /**
+     * Number of entries used so far, entries above are free but not in the free list.
+     */
+    private int usedEntries = 0;
 
     /**
-     * Adds the given message to the list.
+     * Number of messages currently in transit.
+     */
+    private int messagesInDelivery = 0;
+
+    /**
+     * List returned by {@link #tick()}, reused for every tick, created by the first delivery.
+     */
+    private List<Message> delivered = null;
+
+    /**
+     * Adds the given message to the messages in transit.
      *
      * @param messageInDelivery The object to add to the list.
      */
     protected void addMessageInDelivery(MessageInDelivery messageInDelivery) {
-        this.messagesInDelivery.add(messageInDelivery);
+        addMessage(messageInDelivery.getRemainingTicks(), messageInDelivery.getMessage());
     }
 
+    /**
+     * Adds the given message to the messages in transit. It is returned by
+     * the (remainingTicks + 1)-th call to {@link #tick()} from now on.
+     *
+     * @param remainingTicks Number of ticks the message needs to be delivered.
+     * @param message        The message.
+     */
+    protected void addMessage(int remainingTicks, Message message) {
+        if (remainingTicks < 0) {
+            throw new IllegalArgumentException("remainingTicks must not be negative");
+        }
+        int offset = remainingTicks + 1;
+        if (offset > slotHeads.length) {
+            grow(offset);
+        }
+        int arrival = currentTick + offset;
+        int slot = arrival & (slotHeads.length - 1);
+        int entry = allocateEntry();
+        entryMessages[entry] = message;
+        entryNext[entry] = NONE;
+        if (slotHeads[slot] == NONE) {
+            slotHeads[slot] = entry;
+            slotTicks[slot] = arrival;
+        } else {
+            entryNext[slotTails[slot]] = entry;
+        }
+        slotTails[slot] = entry;
+        messagesInDelivery++;
+    }
+
+    /**
+     * The returned list is reused, it is only valid until the next call of this method.
+     */
     @Override
     public List<Message> tick() {
-        List<Message> messagesDelivered = new ArrayList<>();
-        List<MessageInDelivery> newMessagesInDelivery = new ArrayList<>();
-
-        for (MessageInDelivery messageInDelivery : messagesInDelivery) {
-            if (messageInDelivery.tick()) {
-                // message arrived at destination
-                messagesDelivered.add(messageInDelivery.getMessage());
-            } else {
-                // add message with decremented remainingTicks again
-                newMessagesInDelivery.add(messageInDelivery);
+        currentTick++;
+        if (messagesInDelivery == 0) {
+            return Collections.emptyList();
+        }
+        int slot = currentTick & (slotHeads.length - 1);
+        int entry = slotHeads[slot];
+        if (entry == NONE) {
+            return Collections.emptyList();
+        }
+        if (delivered == null) {
+            delivered = new ArrayList<>();
+        } else {
+            delivered.clear();
+        }
+        while (entry != NONE) {
+            delivered.add(entryMessages[entry]);
+            int next = entryNext[entry];
+            freeEntry(entry);
+            entry = next;
+        }
+        slotHeads[slot] = NONE;
+        slotTails[slot] = NONE;
+        messagesInDelivery -= delivered.size();
+        return delivered;
+    }
+
+    /**
+     * @return The number of ticks every message sent via this channel spends in transit, in addition
+     * to the tick it arrives in, or -1 if it differs from message to message.
+     */
+    public int getFixedDelay() {
+        return -1;
+    }
+
+    /**
+     * @return Number of messages currently in transit.
+     */
+    public int getMessagesInDelivery() {
+        return messagesInDelivery;
+    }
+
+    @Override
+    public int ticksUntilNextDelivery() {
+        if (messagesInDelivery == 0) {
+            return Integer.MAX_VALUE;
+        }
+        for (int offset = 1; offset <= slotHeads.length; offset++) {
+            if (slotHeads[(currentTick + offset) & (slotHeads.length - 1)] != NONE) {
+                return offset;
+            }
+        }
+        return Integer.MAX_VALUE;
+    }
+
+    @Override
+    public void skipTicks(int ticks) {
+        if (ticks >= ticksUntilNextDelivery()) {
+            throw new IllegalArgumentException("cannot skip over the delivery of a message");
+        }
+        currentTick += ticks;
+    }
+
+    private int allocateEntry() {
+        if (freeEntry != NONE) {
+            int entry = freeEntry;
+            freeEntry = entryNext[entry];
+            return entry;
+        }
+        if (usedEntries == entryMessages.length) {
+            int capacity = Math.max(INITIAL_CAPACITY, usedEntries * 2);
+            entryMessages = Arrays.copyOf(entryMessages, capacity);
+            entryNext = Arrays.copyOf(entryNext, capacity);
+        }
+        return usedEntries++;
+    }
+
+    private void freeEntry(int entry) {
+        entryMessages[entry] = null;
+        entryNext[entry] = freeEntry;
+        freeEntry = entry;
+    }
+
+    /**
+     * Enlarges the wheel such that messages arriving up to minSize ticks
+     * in the future get a slot of their own.
+     *
+     * @param minSize the minimum number of slots
+     */
+    private void grow(int minSize) {
+        int size = Math.max(slotHeads.length, INITIAL_WHEEL_SIZE);
+        while (size < minSize) {
+            size <<= 1;
+        }
+        int[] newHeads = newIndexArray(size);
+        int[] newTails = newIndexArray(size);
+        int[] newTicks = new int[size];
+        for (int i = 0; i < slotHeads.length; i++) {
+            if (slotHeads[i] != NONE) {
+                int slot = slotTicks[i] & (size - 1);
+                newHeads[slot] = slotHeads[i];
+                newTails[slot] = slotTails[i];
+                newTicks[slot] = slotTicks[i];
             }
         }
+        slotHeads = newHeads;
+        slotTails = newTails;
+        slotTicks = newTicks;
+    }
 
-        this.messagesInDelivery = newMessagesInDelivery;
-        return messagesDelivered;
+    private static int[] newIndexArray(int size) {
+        int[] array = new int[size];
+        Arrays.fill(array, NONE);
+        return array;
     }
 }
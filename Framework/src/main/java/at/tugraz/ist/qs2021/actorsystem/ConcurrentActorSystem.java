@@ -0,0 +1,506 @@
+package at.tugraz.ist.qs2021.actorsystem;
+
+import at.tugraz.ist.qs2021.messageboard.UnknownClientException;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Predicate;
+
+/**
+ * Implementation of {@link ISimulatedActorSystem} running actors concurrently in real time.
+ * <p>
+ * {@link SimulatedActor#tell(Message)} only adds the message to the mailbox of the actor,
+ * which accepts messages from multiple threads, see {@link IMailbox}. Messages are received one after another, either by a task scheduled on a
+ * thread pool whenever the mailbox becomes non-empty, or by a virtual thread per actor
+ * (requires JDK 21 or newer). They are added to the message log of the actor when it receives them,
+ * not when they are sent, so senders do not contend for the log. Message durations and communication channels are not simulated,
+ * every message is received as soon as a thread is available.
+ * <p>
+ * Time is measured in ticks of a fixed wall-clock duration. Actors overriding
+ * {@link SimulatedActor#tick()} are ticked once per tick between the messages they receive,
+ * scheduled messages are added to the mailbox when they are due. As {@link SimulatedActor#tick()}
+ * takes messages from the mailbox of the actor, actors overriding it get a separate queue instead. runFor and runUntil block the calling thread while the actors run
+ * and rethrow the first exception thrown by an actor in the meantime.
+ * <p>
+ * It extends {@link SimulatedActorSystem}, so actors expecting a simulated system, like the
+ * message board actors, run unchanged.
+ */
+public class ConcurrentActorSystem extends SimulatedActorSystem {
+
+    /**
+     * Default duration of one tick in milliseconds.
+     */
+    public static final long DEFAULT_TICK_MILLIS = 10;
+
+    /**
+     * Maximum number of messages received by a pooled actor before it yields its thread.
+     */
+    private static final int BATCH_SIZE = 64;
+
+    /**
+     * Enqueued into the mailbox of actors overriding tick() once per tick.
+     */
+    private static final Message TICK = new Message() {
+        @Override
+        public int getDuration() {
+            return 0;
+        }
+
+        @Override
+        public String toString() {
+            return "Tick";
+        }
+    };
+
+    private final long tickNanos;
+    private final long startNanos = System.nanoTime();
+    private final boolean virtualThreadPerActor;
+
+    /**
+     * Executes the actors if no virtual threads are used.
+     */
+    private final ExecutorService executor;
+
+    /**
+     * Enqueues ticks for actors overriding tick().
+     */
+    private final ScheduledExecutorService ticker;
+
+    private final AtomicLong currentActorId = new AtomicLong();
+    private final Map<Long, SimulatedActor> actors = new ConcurrentSkipListMap<>();
+    private final Map<SimulatedActor, Cell> cells = new ConcurrentHashMap<>();
+    private final Map<SimulatedActor, Cell> tickedCells = new ConcurrentHashMap<>();
+
+    /**
+     * Number of scheduled messages, which have not been added to a mailbox yet.
+     */
+    private final AtomicInteger pendingTimers = new AtomicInteger();
+
+    /**
+     * First exception thrown by an actor, which has not been rethrown yet.
+     */
+    private final AtomicReference<Exception> failure = new AtomicReference<>();
+
+    /**
+     * Constructs a ConcurrentActorSystem with a thread pool of one thread per processor
+     * and ticks of {@link #DEFAULT_TICK_MILLIS} milliseconds.
+     */
+    public ConcurrentActorSystem() {
+        this(DEFAULT_TICK_MILLIS, false);
+    }
+
+    /**
+     * Constructs a ConcurrentActorSystem.
+     *
+     * @param tickMillis            duration of one tick in milliseconds
+     * @param virtualThreadPerActor true to run every actor on a virtual thread of its own,
+     *                              false to use a thread pool of one thread per processor
+     * @throws UnsupportedOperationException if virtual threads are requested, but not supported
+     */
+    public ConcurrentActorSystem(long tickMillis, boolean virtualThreadPerActor) {
+        if (tickMillis <= 0) {
+            throw new IllegalArgumentException("tickMillis must be positive");
+        }
+        if (virtualThreadPerActor && !isVirtualThreadSupported()) {
+            throw new UnsupportedOperationException("virtual threads require JDK 21 or newer");
+        }
+        this.tickNanos = TimeUnit.MILLISECONDS.toNanos(tickMillis);
+        this.virtualThreadPerActor = virtualThreadPerActor;
+        this.executor = virtualThreadPerActor ? null
+                : Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), ConcurrentActorSystem::newDaemonThread);
+        this.ticker = Executors.newSingleThreadScheduledExecutor(ConcurrentActorSystem::newDaemonThread);
+        this.ticker.scheduleAtFixedRate(this::enqueueTicks, tickNanos, tickNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @return True if the JVM supports virtual threads.
+     */
+    public static boolean isVirtualThreadSupported() {
+        try {
+            Thread.class.getMethod("startVirtualThread", Runnable.class);
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public List<SimulatedActor> getActors() {
+        return new ArrayList<>(actors.values());
+    }
+
+    @Override
+    public SimulatedActor lookup(long id) {
+        return actors.get(id);
+    }
+
+    @Override
+    public int getCurrentTime() {
+        return (int) ((System.nanoTime() - startNanos) / tickNanos);
+    }
+
+    @Override
+    public void spawn(SimulatedActor actor) {
+        int now = getCurrentTime();
+        actor.setId(currentActorId.getAndIncrement());
+        actor.system = this;
+        initMessageLog(actor);
+        // the log is written by the thread receiving the messages, but may be read by any thread,
+        // so it is not created lazily
+        actor.messageLog();
+        actor.syncedTick = now;
+        actor.stopTick = Integer.MAX_VALUE;
+        Cell cell = new Cell(actor);
+        cells.put(actor, cell);
+        actors.put(actor.getId(), actor);
+        // messages sent during start up are only received afterwards
+        actor.atStartUp();
+        actor.setTimeSinceSystemStart(now);
+        if (actor.overridesTick()) {
+            tickedCells.put(actor, cell);
+        }
+        cell.start();
+    }
+
+    @Override
+    public void stop(SimulatedActor actor) {
+        Cell cell = cells.remove(actor);
+        if (cell == null) {
+            return;
+        }
+        actors.remove(actor.getId());
+        tickedCells.remove(actor);
+        actor.stopTick = getCurrentTime();
+        cell.stop();
+    }
+
+    /**
+     * The message is enqueued into the mailbox after the delay and received in turn,
+     * unless it has been cancelled in the meantime.
+     */
+    @Override
+    public ScheduledMessage schedule(SimulatedActor actor, int delay, Message message) {
+        if (delay < 0) {
+            throw new IllegalArgumentException("delay must not be negative");
+        }
+        ScheduledMessage scheduled = new ScheduledMessage(message);
+        pendingTimers.incrementAndGet();
+        ticker.schedule(() -> {
+            Cell cell = cells.get(actor);
+            if (cell != null && !scheduled.isCancelled()) {
+                cell.enqueue(scheduled);
+            }
+            // only after the message is enqueued, so the system does not look quiescent in between
+            pendingTimers.decrementAndGet();
+        }, (delay + 1) * tickNanos, TimeUnit.NANOSECONDS);
+        return scheduled;
+    }
+
+    @Override
+    public void runFor(int numberOfTicks) throws UnknownClientException {
+        if (numberOfTicks > 0) {
+            runUntil(getCurrentTime() + numberOfTicks - 1);
+        }
+    }
+
+    @Override
+    public void runUntil(int endTime) throws UnknownClientException {
+        long wakeUp = startNanos + (endTime + 1L) * tickNanos;
+        try {
+            for (long remaining = wakeUp - System.nanoTime(); remaining > 0; remaining = wakeUp - System.nanoTime()) {
+                TimeUnit.NANOSECONDS.sleep(remaining);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        rethrowFailure();
+    }
+
+    @Override
+    public void tick() throws UnknownClientException {
+        runFor(1);
+    }
+
+    /**
+     * The condition is checked before the first tick and at the end of every tick, while the actors
+     * keep running concurrently. The first exception thrown by an actor in the meantime is rethrown.
+     */
+    @Override
+    public boolean runUntil(Predicate<? super SimulatedActorSystem> condition, int maxTicks) throws UnknownClientException {
+        int endTime = (int) Math.min((long) getCurrentTime() + Math.max(0, maxTicks), Integer.MAX_VALUE);
+        while (!condition.test(this)) {
+            int now = getCurrentTime();
+            if (now >= endTime) {
+                return false;
+            }
+            runUntil(now);
+        }
+        return true;
+    }
+
+    /**
+     * Blocks the calling thread until the future is completed, while the actors keep running concurrently.
+     * The first exception thrown by an actor in the meantime is rethrown.
+     *
+     * @throws IllegalStateException if the system becomes quiescent, see {@link #isQuiescent()},
+     *                               before the future is completed, or the calling thread is interrupted
+     */
+    @Override
+    public <T> T runUntilComplete(CompletableFuture<T> future) throws UnknownClientException {
+        while (!future.isDone()) {
+            // replies complete the future before the replying actor counts its message as processed
+            if (isQuiescent() && !future.isDone()) {
+                throw new IllegalStateException("All actors are idle, but the future is not completed");
+            }
+            try {
+                future.get(tickNanos, TimeUnit.NANOSECONDS);
+            } catch (TimeoutException | ExecutionException e) {
+                // checked by the loop, an exceptional result is thrown by join()
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for the future", e);
+            }
+            rethrowFailure();
+        }
+        return future.join();
+    }
+
+    /**
+     * Quiescent means, that every message sent to a running actor has been received, including
+     * scheduled messages, which are not due yet, and that no actor overrides {@link SimulatedActor#tick()}.
+     * Like in the simulated systems, the system can only become busy again by a message sent from outside.
+     */
+    @Override
+    public boolean isQuiescent() {
+        if (!tickedCells.isEmpty() || pendingTimers.get() > 0) {
+            return false;
+        }
+        // an actor sends messages while receiving, i.e. before it counts the message as processed,
+        // so if no counter changes between both passes, no message was in flight during the first one
+        long enqueued = 0;
+        for (Cell cell : cells.values()) {
+            long cellEnqueued = cell.enqueued.get();
+            if (cell.processed.get() != cellEnqueued) {
+                return false;
+            }
+            enqueued += cellEnqueued;
+        }
+        long enqueuedAfterwards = 0;
+        for (Cell cell : cells.values()) {
+            enqueuedAfterwards += cell.enqueued.get();
+        }
+        return enqueued == enqueuedAfterwards && pendingTimers.get() == 0;
+    }
+
+    /**
+     * Stops all threads of this system. Actors do not receive any messages afterwards.
+     */
+    public void shutdown() {
+        ticker.shutdownNow();
+        for (SimulatedActor actor : getActors()) {
+            stop(actor);
+        }
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    @Override
+    void send(SimulatedActor actor, Message message) {
+        List<Message> messages = message instanceof MessageBatch
+                ? ((MessageBatch) message).messages : Collections.singletonList(message);
+        Cell cell = cells.get(actor);
+        if (cell != null) {
+            cell.enqueue(messages);
+        }
+    }
+
+    @Override
+    int progressOf(SimulatedActor actor) {
+        return getCurrentTime();
+    }
+
+    private void enqueueTicks() {
+        for (Cell cell : tickedCells.values()) {
+            cell.enqueue(TICK);
+        }
+    }
+
+    private void rethrowFailure() throws UnknownClientException {
+        Exception e = failure.getAndSet(null);
+        if (e instanceof UnknownClientException) {
+            throw (UnknownClientException) e;
+        } else if (e != null) {
+            throw (RuntimeException) e;
+        }
+    }
+
+    private static Thread newDaemonThread(Runnable task) {
+        Thread thread = new Thread(task);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    private static void startVirtualThread(Runnable task) {
+        try {
+            Method start = Thread.class.getMethod("startVirtualThread", Runnable.class);
+            start.invoke(null, task);
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new UnsupportedOperationException("virtual threads are not supported", e);
+        } catch (InvocationTargetException e) {
+            throw new UnsupportedOperationException("virtual threads are not supported", e.getCause());
+        }
+    }
+
+    /**
+     * Mailbox and scheduling state of an actor.
+     */
+    private final class Cell implements Runnable {
+        private final SimulatedActor actor;
+
+        /**
+         * Messages to be processed, including ticks and scheduled messages. It is the mailbox
+         * of the actor, unless the actor overrides tick(), which would receive from it itself.
+         */
+        private final IMailbox mailbox;
+
+        /**
+         * Set while the actor is scheduled on the pool or starting up,
+         * guarantees that the actor receives only one message at a time.
+         */
+        private final AtomicBoolean scheduled = new AtomicBoolean(true);
+        private volatile boolean stopped = false;
+
+        /**
+         * Set while the thread of the actor waits for messages.
+         */
+        private volatile boolean waiting = false;
+        private volatile Thread thread;
+
+        /**
+         * Number of messages added to the mailbox respectively received so far, see {@link #isQuiescent()}.
+         */
+        private final AtomicLong enqueued = new AtomicLong();
+        private final AtomicLong processed = new AtomicLong();
+
+        private Cell(SimulatedActor actor) {
+            this.actor = actor;
+            this.mailbox = actor.overridesTick() ? new MpscArrayMailbox() : actor.mailbox();
+        }
+
+        private void start() {
+            if (virtualThreadPerActor) {
+                startVirtualThread(this::receiveUntilStopped);
+            } else {
+                scheduled.set(false);
+                scheduleIfNecessary();
+            }
+        }
+
+        private void stop() {
+            stopped = true;
+            if (thread != null) {
+                LockSupport.unpark(thread);
+            }
+        }
+
+        private void enqueue(Message message) {
+            enqueue(Collections.singletonList(message));
+        }
+
+        private void enqueue(List<Message> messages) {
+            enqueued.addAndGet(messages.size());
+            for (Message message : messages) {
+                mailbox.offer(message);
+            }
+            if (!virtualThreadPerActor) {
+                scheduleIfNecessary();
+            } else if (waiting) {
+                LockSupport.unpark(thread);
+            }
+        }
+
+        private void scheduleIfNecessary() {
+            if (!mailbox.isEmpty() && !stopped && scheduled.compareAndSet(false, true)) {
+                executor.execute(this);
+            }
+        }
+
+        /**
+         * Receives a batch of messages on a pool thread.
+         */
+        @Override
+        public void run() {
+            for (int i = 0; i < BATCH_SIZE && !stopped; i++) {
+                Message message = mailbox.poll();
+                if (message == null) {
+                    break;
+                }
+                process(message);
+            }
+            scheduled.set(false);
+            scheduleIfNecessary();
+        }
+
+        /**
+         * Receives messages on the thread of this actor.
+         */
+        private void receiveUntilStopped() {
+            thread = Thread.currentThread();
+            while (!stopped) {
+                Message message = mailbox.poll();
+                if (message != null) {
+                    process(message);
+                    continue;
+                }
+                // producers unpark the thread if they see the flag, so check again after setting it
+                waiting = true;
+                if (mailbox.isEmpty() && !stopped) {
+                    LockSupport.park(this);
+                }
+                waiting = false;
+            }
+        }
+
+        private void process(Message message) {
+            try {
+                if (message == TICK) {
+                    actor.tick();
+                    // tick() counts the time itself, which is otherwise derived from the clock
+                    actor.syncedTick++;
+                } else if (message instanceof ScheduledMessage) {
+                    ScheduledMessage scheduled = (ScheduledMessage) message;
+                    if (!scheduled.isCancelled()) {
+                        actor.receive(scheduled.getMessage());
+                    }
+                } else {
+                    // logged by the only thread receiving messages of the actor, so tell needs no lock
+                    actor.messageLog().add(actor, message);
+                    actor.receive(message);
+                }
+            } catch (UnknownClientException | RuntimeException e) {
+                failure.compareAndSet(null, e);
+            } finally {
+                processed.incrementAndGet();
+            }
+        }
+    }
+}
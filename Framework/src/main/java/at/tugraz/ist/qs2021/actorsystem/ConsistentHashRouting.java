@@ -0,0 +1,106 @@
+package at.tugraz.ist.qs2021.actorsystem;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.ToLongFunction;
+
+/**
+ * Routes messages with the same key to the same routee using a hash ring, so that adding or
+ * removing a routee only moves the keys of about one routee's share. Every routee is placed on
+ * the ring several times, at points derived from its id, so routees must have been spawned
+ * before they are added to the router.
+ */
+public class ConsistentHashRouting implements IRoutingStrategy {
+
+    /**
+     * Default number of points per routee on the ring.
+     */
+    public static final int DEFAULT_VIRTUAL_NODES = 64;
+
+    private final ToLongFunction<Message> key;
+    private final int virtualNodes;
+
+    /**
+     * Points on the ring in ascending order.
+     */
+    private long[] points = new long[0];
+
+    /**
+     * Index of the routee owning the point at the same index in <c>points</c>.
+     */
+    private int[] owners = new int[0];
+
+    /**
+     * Constructs a ConsistentHashRouting with {@link #DEFAULT_VIRTUAL_NODES} points per routee.
+     *
+     * @param key extracts the key from a message, e.g. {@code m -> ((ClientMessage) m).communicationId}
+     */
+    public ConsistentHashRouting(ToLongFunction<Message> key) {
+        this(key, DEFAULT_VIRTUAL_NODES);
+    }
+
+    /**
+     * Constructs a ConsistentHashRouting.
+     *
+     * @param key          extracts the key from a message
+     * @param virtualNodes number of points per routee on the ring, more points balance the keys better
+     */
+    public ConsistentHashRouting(ToLongFunction<Message> key, int virtualNodes) {
+        if (virtualNodes <= 0) {
+            throw new IllegalArgumentException("virtualNodes must be positive");
+        }
+        this.key = key;
+        this.virtualNodes = virtualNodes;
+    }
+
+    @Override
+    public void routeesChanged(List<? extends SimulatedActor> routees) {
+        int size = routees.size() * virtualNodes;
+        long[] ring = new long[size];
+        Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            ring[i] = hash(routees.get(i / virtualNodes).getId() * 0x9E3779B97F4A7C15L + i % virtualNodes);
+            order[i] = i;
+        }
+        // stable, so equal points, which are very unlikely, keep the order of the routees
+        Arrays.sort(order, Comparator.comparingLong(i -> ring[i]));
+        points = new long[size];
+        owners = new int[size];
+        for (int i = 0; i < size; i++) {
+            points[i] = ring[order[i]];
+            owners[i] = order[i] / virtualNodes;
+        }
+    }
+
+    @Override
+    public int select(Message message, List<? extends SimulatedActor> routees) {
+        if (points.length != routees.size() * virtualNodes) {
+            routeesChanged(routees);
+        }
+        int position = Arrays.binarySearch(points, hash(key.applyAsLong(message)));
+        if (position < 0) {
+            // first point after the hash, wrapping around at the end of the ring
+            position = -position - 1;
+            if (position == points.length) {
+                position = 0;
+            }
+        }
+        return owners[position];
+    }
+
+    /**
+     * Spreads the bits of a value, see the finalizer of MurmurHash3.
+     *
+     * @param value the value
+     * @return The hash.
+     */
+    private static long hash(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb93fe53a87c3L;
+        value ^= value >>> 33;
+        return value;
+    }
+}
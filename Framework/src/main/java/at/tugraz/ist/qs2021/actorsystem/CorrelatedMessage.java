@@ -0,0 +1,19 @@
+package at.tugraz.ist.qs2021.actorsystem;
+
+/**
+ * Message belonging to a conversation between actors, e.g. a client session,
+ * which is identified by a correlation id. Used by tools following messages through
+ * the system, like {@link MessageTraceRecorder}.
+ */
+public interface CorrelatedMessage extends Message {
+
+    /**
+     * Correlation id of messages not belonging to a conversation.
+     */
+    long NO_CORRELATION = -1;
+
+    /**
+     * @return The id of the conversation this message belongs to, {@link #NO_CORRELATION} if unknown.
+     */
+    long getCorrelationId();
+}
@@ -0,0 +1,138 @@
+package at.tugraz.ist.qs2021.actorsystem;
+
+import at.tugraz.ist.qs2021.messageboard.UnknownClientException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A call of {@link SimulatedActor#receive(Message)}, which is executed ahead of time,
+ * e.g. on another thread. All messages sent, actors spawned and actors stopped by the
+ * receiving actor, as well as the messages it schedules, are recorded and only take effect, when {@link #commit()} is called.
+ */
+final class DeferredReceive {
+
+    /**
+     * The deferred receive executed by the current thread, if any.
+     */
+    private static final ThreadLocal<DeferredReceive> CURRENT = new ThreadLocal<>();
+
+    private static final int TELL = 0;
+    private static final int SPAWN = 1;
+    private static final int STOP = 2;
+    private static final int SCHEDULE = 3;
+
+    private final SimulatedActor actor;
+    private final Message message;
+
+    /**
+     * Effects recorded so far, in the order they happened.
+     */
+    private final List<Effect> effects = new ArrayList<>();
+
+    /**
+     * The exception thrown by the receive, if any.
+     */
+    private Exception failure = null;
+
+    /**
+     * Constructs a DeferredReceive object.
+     *
+     * @param actor   the receiving actor
+     * @param message the message to receive
+     */
+    DeferredReceive(SimulatedActor actor, Message message) {
+        this.actor = actor;
+        this.message = message;
+    }
+
+    /**
+     * @return The deferred receive executed by the current thread, null if there is none.
+     */
+    static DeferredReceive current() {
+        return CURRENT.get();
+    }
+
+    SimulatedActor getActor() {
+        return actor;
+    }
+
+    Message getMessage() {
+        return message;
+    }
+
+    /**
+     * Calls receive and records its effects.
+     */
+    void run() {
+        CURRENT.set(this);
+        try {
+            actor.receive(message);
+        } catch (UnknownClientException | RuntimeException e) {
+            failure = e;
+        } finally {
+            CURRENT.remove();
+        }
+    }
+
+    void tell(SimulatedActor target, Message message) {
+        record(TELL, target, message, null, 0);
+    }
+
+    void spawn(SimulatedActorSystem system, SimulatedActor target) {
+        record(SPAWN, target, null, system, 0);
+    }
+
+    void stop(SimulatedActorSystem system, SimulatedActor target) {
+        record(STOP, target, null, system, 0);
+    }
+
+    void schedule(SimulatedActorSystem system, SimulatedActor target, int delay, ScheduledMessage scheduled) {
+        record(SCHEDULE, target, scheduled, system, delay);
+    }
+
+    private void record(int kind, SimulatedActor target, Message message, SimulatedActorSystem system, int delay) {
+        effects.add(new Effect(kind, target, message, system, delay));
+    }
+
+    /**
+     * Applies the recorded effects in the order they were recorded and rethrows
+     * the exception thrown by the receive, as if it was executed just now.
+     *
+     * @throws UnknownClientException if the receive threw it
+     */
+    void commit() throws UnknownClientException {
+        for (Effect effect : effects) {
+            if (effect.kind == TELL) {
+                effect.target.deliver(effect.message);
+            } else if (effect.kind == SPAWN) {
+                effect.system.spawn(effect.target);
+            } else if (effect.kind == STOP) {
+                effect.system.stop(effect.target);
+            } else {
+                effect.system.schedule(effect.target, effect.delay, (ScheduledMessage) effect.message);
+            }
+        }
+        if (failure instanceof UnknownClientException) {
+            throw (UnknownClientException) failure;
+        } else if (failure != null) {
+            throw (RuntimeException) failure;
+        }
+    }
+
+    private static final class Effect {
+        private final int kind;
+        private final SimulatedActor target;
+        private final Message message;
+        private final SimulatedActorSystem system;
+        private final int delay;
+
+        private Effect(int kind, SimulatedActor target, Message message, SimulatedActorSystem system, int delay) {
+            this.kind = kind;
+            this.target = target;
+            this.message = message;
+            this.system = system;
+            this.delay = delay;
+        }
+    }
+}
@@ -21,6 +21,11 @@ public class DeterministicChannel extends CommunicationChannel {
 
     @Override
     public void send(Message message) {
-        addMessageInDelivery(new MessageInDelivery(delay, message));
+        addMessage(delay, message);
+    }
+
+    @Override
+    public int getFixedDelay() {
+        return delay;
     }
 }
@@ -0,0 +1,28 @@
+package at.tugraz.ist.qs2021.actorsystem;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Message log discarding all messages.
+ */
+public class DisabledMessageLog implements IMessageLog {
+
+    /**
+     * The log is stateless, so all actors can share this instance.
+     */
+    public static final DisabledMessageLog INSTANCE = new DisabledMessageLog();
+
+    @Override
+    public void add(SimulatedActor receiver, Message message) {
+    }
+
+    @Override
+    public void addAll(SimulatedActor receiver, List<? extends Message> messages) {
+    }
+
+    @Override
+    public List<Message> getMessages() {
+        return Collections.emptyList();
+    }
+}
@@ -28,6 +28,32 @@ public interface ICommunicationChannel {
      * because they reached their destinations.
      *
      * @return All messages having zero ticks left (upon entering the method).
+     * The list may be reused by the channel, so it must be processed before the next call.
      */
     List<Message> tick();
+
+    /**
+     * Number of calls to {@link ICommunicationChannel#tick()} it takes until the next message
+     * arrives, i.e. 1 if the next call returns at least one message.
+     * The default implementation conservatively assumes, that the next call may return a message,
+     * so no tick can be skipped.
+     *
+     * @return Ticks until the next delivery or {@link Integer#MAX_VALUE} if no message is in transit.
+     */
+    default int ticksUntilNextDelivery() {
+        return 1;
+    }
+
+    /**
+     * Signals that the given number of time units have passed, during which no message arrives.
+     * This is equivalent to calling {@link ICommunicationChannel#tick()} that many times,
+     * but does not touch the messages in transit.
+     *
+     * The default implementation does nothing, which is sufficient for the default
+     * {@link #ticksUntilNextDelivery()}, as no tick can be skipped then.
+     *
+     * @param ticks Number of ticks to skip, must be smaller than {@link #ticksUntilNextDelivery()}.
+     */
+    default void skipTicks(int ticks) {
+    }
 }
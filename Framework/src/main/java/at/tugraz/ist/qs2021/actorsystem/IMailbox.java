@@ -0,0 +1,38 @@
+package at.tugraz.ist.qs2021.actorsystem;
+
+/**
+ * Interface for mailboxes of actors.
+ * <p>
+ * A mailbox holds the messages, which have been delivered to an actor,
+ * but have not been processed yet. Messages may be added by any number of
+ * threads concurrently, but only the actor owning the mailbox takes them out.
+ */
+public interface IMailbox {
+
+    /**
+     * Adds a message to the end of the mailbox. May be called by multiple threads concurrently.
+     *
+     * @param message The message to add.
+     * @return True if the message was added.
+     */
+    boolean offer(Message message);
+
+    /**
+     * Removes the message at the front of the mailbox.
+     * Must only be called by a single thread at a time, the consumer.
+     *
+     * @return The oldest message or null if the mailbox is empty.
+     */
+    Message poll();
+
+    /**
+     * @return True if no message is waiting in the mailbox.
+     */
+    boolean isEmpty();
+
+    /**
+     * @return Number of messages waiting in the mailbox, only exact if called by the consumer
+     * while no messages are added concurrently.
+     */
+    int size();
+}
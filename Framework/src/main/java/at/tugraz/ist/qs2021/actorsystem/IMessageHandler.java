@@ -0,0 +1,21 @@
+package at.tugraz.ist.qs2021.actorsystem;
+
+import at.tugraz.ist.qs2021.messageboard.UnknownClientException;
+
+/**
+ * Handles the messages of one class received by an actor,
+ * see {@link SimulatedActor#registerHandler(Class, IMessageHandler)}.
+ *
+ * @param <M> the class of the handled messages
+ */
+@FunctionalInterface
+public interface IMessageHandler<M extends Message> {
+
+    /**
+     * Processes a received message.
+     *
+     * @param message Non-null message received
+     * @throws UnknownClientException if the message refers to an unknown client
+     */
+    void handle(M message) throws UnknownClientException;
+}
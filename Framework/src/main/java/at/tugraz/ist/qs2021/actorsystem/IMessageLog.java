@@ -0,0 +1,38 @@
+package at.tugraz.ist.qs2021.actorsystem;
+
+import java.util.List;
+
+/**
+ * Interface for message logs of actors.
+ * <p>
+ * A message log records the messages sent to an actor, it is used to alleviate
+ * debugging and testing. Implementations decide which messages are kept, e.g.
+ * all of them, only the most recent ones or none at all.
+ */
+public interface IMessageLog {
+
+    /**
+     * Records a message sent to an actor.
+     *
+     * @param receiver The actor the message is sent to.
+     * @param message  The message.
+     */
+    void add(SimulatedActor receiver, Message message);
+
+    /**
+     * Records several messages sent to an actor at once, in the given order.
+     *
+     * @param receiver The actor the messages are sent to.
+     * @param messages The messages.
+     */
+    default void addAll(SimulatedActor receiver, List<? extends Message> messages) {
+        for (Message message : messages) {
+            add(receiver, message);
+        }
+    }
+
+    /**
+     * @return The messages retained by this log, the oldest first.
+     */
+    List<Message> getMessages();
+}
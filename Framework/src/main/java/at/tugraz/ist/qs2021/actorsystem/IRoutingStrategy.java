@@ -0,0 +1,31 @@
+package at.tugraz.ist.qs2021.actorsystem;
+
+import java.util.List;
+
+/**
+ * Interface for strategies choosing the actor a message is forwarded to, see {@link Router}.
+ * <p>
+ * Strategies may keep state, e.g. the position of a round-robin, so every router needs its own instance.
+ * They are called for every routed message and should not allocate.
+ */
+public interface IRoutingStrategy {
+
+    /**
+     * Chooses the routee for a message.
+     *
+     * @param message the message to route
+     * @param routees the actors to choose from, not empty
+     * @return The index of the chosen routee in routees.
+     */
+    int select(Message message, List<? extends SimulatedActor> routees);
+
+    /**
+     * Called whenever routees are added or removed, so strategies may update derived data.
+     * Does nothing by default.
+     *
+     * @param routees the current routees
+     */
+    default void routeesChanged(List<? extends SimulatedActor> routees) {
+
+    }
+}
@@ -36,7 +36,7 @@ public interface ISimulatedActor {
 
     /**
      * @return All messages sent to this actor, this includes messages in transit,
-     * already processed messages and messages in the <c>messageBox</c>.
+     * already processed messages and messages in the <c>mailbox</c>.
      * It is used to alleviate debugging and testing.
      */
     List<Message> getMessageLog();
@@ -78,6 +78,17 @@ public interface ISimulatedActor {
      */
     void tell(Message message);
 
+    /**
+     * Sends several messages to the actor represented by <c>this</c> in one call.
+     * The messages arrive together and are added to the <c>mailbox</c> in the given order,
+     * as if they were sent one after another by {@link ISimulatedActor#tell(Message)}.
+     * The communication channel handles them as a single message, so a channel dropping
+     * or delaying it does so for all of them. Every message is logged.
+     *
+     * @param messages Non-null messages to be sent.
+     */
+    void tellAll(List<? extends Message> messages);
+
     /**
      * Method to signal to the actor that one time-unit has passed.
      * If the actor is currently busy, the busyFor-time shall be decreased,
@@ -86,7 +97,7 @@ public interface ISimulatedActor {
      * triggered using a call to {@link ISimulatedActor#receive(Message)}.
      * <p>
      * If the actor can process a new message, it shall take a new message from
-     * the <c>messageBox</c> and set the <c>busyFor</c>-time appropriately.
+     * the <c>mailbox</c> and set the <c>busyFor</c>-time appropriately.
      */
     void tick() throws UnknownClientException;
 
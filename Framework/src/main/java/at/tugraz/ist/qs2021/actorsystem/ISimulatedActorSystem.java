@@ -20,6 +20,13 @@ public interface ISimulatedActorSystem {
      */
     List<SimulatedActor> getActors();
 
+    /**
+     * @param id The id of an actor.
+     * @return The actor with the given id, which has been started but not stopped,
+     * null if there is no such actor.
+     */
+    SimulatedActor lookup(long id);
+
     /**
      * @return The number of ticks passed since this object was created.
      */
@@ -41,6 +48,8 @@ public interface ISimulatedActorSystem {
     /**
      * Runs the system for the number of ticks (time units) passed as parameter.
      * The system is run by calling {@link ISimulatedActor#tick()} on all active actors.
+     * Implementations may jump over ticks in which no actor does anything, as long as
+     * this is not observable.
      *
      * @param numberOfTicks defines how long the system should be run including tick at endTime
      */
@@ -65,6 +74,20 @@ public interface ISimulatedActorSystem {
      */
     void stop(SimulatedActor actor);
 
+    /**
+     * Schedules a message, which the actor passed as parameter receives after the given delay,
+     * e.g. for a timeout. Like a message sent via a channel with that delay, it is due in the
+     * (delay + 1)-th tick of the actor from now on. It is not added to the mailbox, but received
+     * at the end of that tick, even if the actor is busy. Waiting for a scheduled message costs
+     * nothing, the actor does not need to be ticked in the meantime.
+     *
+     * @param actor   The actor receiving the message, usually the one scheduling it.
+     * @param delay   Number of ticks until the message is due, must not be negative.
+     * @param message The message.
+     * @return Handle for cancelling the delivery.
+     */
+    ScheduledMessage schedule(SimulatedActor actor, int delay, Message message);
+
     /**
      * Helper method used to iterate all actors and calling {@link ISimulatedActor#tick()} on it.
      */
@@ -0,0 +1,24 @@
+package at.tugraz.ist.qs2021.actorsystem;
+
+/**
+ * Stages a message passes from {@link SimulatedActor#tell(Message)} until it is received.
+ */
+public enum LatencyStage {
+    /**
+     * From sending until it arrives in the mailbox.
+     */
+    CHANNEL,
+    /**
+     * From arriving in the mailbox until the actor starts processing it.
+     */
+    MAILBOX,
+    /**
+     * From starting processing until the call of {@link SimulatedActor#receive(Message)},
+     * i.e. the duration of the message.
+     */
+    PROCESSING,
+    /**
+     * From sending until the call of {@link SimulatedActor#receive(Message)}.
+     */
+    TOTAL
+}
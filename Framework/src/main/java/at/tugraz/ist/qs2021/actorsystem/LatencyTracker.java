@@ -0,0 +1,70 @@
+package at.tugraz.ist.qs2021.actorsystem;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Collects latency histograms per receiving actor class and message class, see
+ * {@link SimulatedActorSystem#setLatencyTracker(LatencyTracker)}.
+ * <p>
+ * As histograms are kept per hop, a request travelling through several actors is decomposed
+ * into the stages of every hop, e.g. a Like passes the channel, mailbox and processing stages
+ * at the Worker, its AddLike those at the MessageStore and the OperationAck those at the
+ * WorkerHelper and at the client.
+ * <p>
+ * Latencies are recorded by the thread ticking the actors, this class is not thread-safe.
+ */
+public final class LatencyTracker {
+    private final Map<Class<?>, Map<Class<?>, MessageLatencies>> latencies = new LinkedHashMap<>();
+
+    /**
+     * @param receiverClass class of the receiving actors
+     * @param messageClass  class of the messages
+     * @return The latencies recorded so far, null if no such message has been received.
+     */
+    public MessageLatencies get(Class<?> receiverClass, Class<?> messageClass) {
+        Map<Class<?>, MessageLatencies> byMessage = latencies.get(receiverClass);
+        return byMessage == null ? null : byMessage.get(messageClass);
+    }
+
+    /**
+     * @return All latencies, by receiver class and message class, in order of the first record.
+     */
+    public Map<Class<?>, Map<Class<?>, MessageLatencies>> getAll() {
+        return latencies;
+    }
+
+    void record(SimulatedActor receiver, Message message, LatencyStage stage, long ticks, long nanos) {
+        latencies.computeIfAbsent(receiver.getClass(), c -> new LinkedHashMap<>())
+                .computeIfAbsent(message.getClass(), c -> new MessageLatencies())
+                .record(stage, ticks, nanos);
+    }
+
+    /**
+     * @return A table with p50, p99 and p999 in ticks and microseconds per receiver class,
+     * message class and stage.
+     */
+    public String format() {
+        StringBuilder table = new StringBuilder();
+        table.append(String.format("%-16s %-20s %-10s %8s %6s %6s %6s %10s %10s %10s%n",
+                "receiver", "message", "stage", "count", "p50", "p99", "p999", "p50 us", "p99 us", "p999 us"));
+        for (Map.Entry<Class<?>, Map<Class<?>, MessageLatencies>> receiver : latencies.entrySet()) {
+            for (Map.Entry<Class<?>, MessageLatencies> message : receiver.getValue().entrySet()) {
+                for (LatencyStage stage : LatencyStage.values()) {
+                    LatencyHistogram ticks = message.getValue().getTicks(stage);
+                    LatencyHistogram nanos = message.getValue().getNanos(stage);
+                    table.append(String.format("%-16s %-20s %-10s %8d %6d %6d %6d %10.1f %10.1f %10.1f%n",
+                            receiver.getKey().getSimpleName(), message.getKey().getSimpleName(), stage, ticks.getCount(),
+                            ticks.getPercentile(50), ticks.getPercentile(99), ticks.getPercentile(99.9),
+                            nanos.getPercentile(50) / 1e3, nanos.getPercentile(99) / 1e3, nanos.getPercentile(99.9) / 1e3));
+                }
+            }
+        }
+        return table.toString();
+    }
+
+    @Override
+    public String toString() {
+        return format();
+    }
+}
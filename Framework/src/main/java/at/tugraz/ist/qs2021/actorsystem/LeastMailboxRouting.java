@@ -0,0 +1,27 @@
+package at.tugraz.ist.qs2021.actorsystem;
+
+import java.util.List;
+
+/**
+ * Routes every message to the routee with the fewest pending messages, i.e. messages in transit,
+ * waiting in the mailbox or being processed. Ties are broken in favour of the first such routee.
+ * <p>
+ * As it reads the state of the routees, the results are only reproducible in {@link SimulatedActorSystem},
+ * not in {@link ParallelSimulatedActorSystem}, where routees may be ticked while the router receives.
+ */
+public class LeastMailboxRouting implements IRoutingStrategy {
+
+    @Override
+    public int select(Message message, List<? extends SimulatedActor> routees) {
+        int selected = 0;
+        int least = Integer.MAX_VALUE;
+        for (int i = 0; i < routees.size(); i++) {
+            int pending = routees.get(i).pendingMessages();
+            if (pending < least) {
+                least = pending;
+                selected = i;
+            }
+        }
+        return selected;
+    }
+}
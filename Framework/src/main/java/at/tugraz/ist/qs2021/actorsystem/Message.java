@@ -16,4 +16,14 @@ public interface Message {
      * @return Number of ticks it takes to process this message.
      */
     int getDuration();
+
+    /**
+     * Priority class of the message, which determines the order in which a {@link PriorityMailbox}
+     * hands out messages. Other mailboxes ignore it.
+     *
+     * @return {@link MessagePriority#DATA} unless overridden.
+     */
+    default MessagePriority getPriority() {
+        return MessagePriority.DATA;
+    }
 }
@@ -0,0 +1,28 @@
+package at.tugraz.ist.qs2021.actorsystem;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Several messages sent to an actor at once, see {@link ISimulatedActor#tellAll(List)}.
+ * <p>
+ * The batch travels through the communication channel as a single message and is unpacked
+ * into the mailbox when it arrives, so it is never received itself.
+ */
+final class MessageBatch implements Message {
+    final List<Message> messages;
+
+    MessageBatch(List<? extends Message> messages) {
+        this.messages = new ArrayList<>(messages);
+    }
+
+    @Override
+    public int getDuration() {
+        return 0;
+    }
+
+    @Override
+    public String toString() {
+        return "MessageBatch" + messages;
+    }
+}
@@ -1,7 +1,7 @@
 package at.tugraz.ist.qs2021.actorsystem;
 
 public class MessageInDelivery {
-    private int remainingTicks;
+    private final int remainingTicks;
     private final Message message;
 
     /**
@@ -20,17 +20,9 @@ public class MessageInDelivery {
     }
 
     /**
-     * Check if message already arrived at its destination.
-     * If not, reduce number of remaining ticks.
-     *
-     * @return True if message arrived at its destination, false if not.
+     * @return Number of ticks the message needs to arrive at its destination.
      */
-    boolean tick() {
-        if (this.remainingTicks == 0) {
-            return true;
-        } else {
-            this.remainingTicks--;
-            return false;
-        }
+    public int getRemainingTicks() {
+        return remainingTicks;
     }
 }
@@ -0,0 +1,38 @@
+package at.tugraz.ist.qs2021.actorsystem;
+
+/**
+ * Latency histograms of one message type received by one actor class, per {@link LatencyStage},
+ * in ticks and in wall-clock nanoseconds.
+ */
+public final class MessageLatencies {
+    private final LatencyHistogram[] ticks = new LatencyHistogram[LatencyStage.values().length];
+    private final LatencyHistogram[] nanos = new LatencyHistogram[LatencyStage.values().length];
+
+    MessageLatencies() {
+        for (int i = 0; i < ticks.length; i++) {
+            ticks[i] = new LatencyHistogram();
+            nanos[i] = new LatencyHistogram();
+        }
+    }
+
+    void record(LatencyStage stage, long ticks, long nanos) {
+        this.ticks[stage.ordinal()].record(ticks);
+        this.nanos[stage.ordinal()].record(nanos);
+    }
+
+    /**
+     * @param stage the stage
+     * @return Latencies of the stage in ticks.
+     */
+    public LatencyHistogram getTicks(LatencyStage stage) {
+        return ticks[stage.ordinal()];
+    }
+
+    /**
+     * @param stage the stage
+     * @return Latencies of the stage in nanoseconds.
+     */
+    public LatencyHistogram getNanos(LatencyStage stage) {
+        return nanos[stage.ordinal()];
+    }
+}
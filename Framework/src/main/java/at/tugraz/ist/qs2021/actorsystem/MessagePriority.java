@@ -0,0 +1,20 @@
+package at.tugraz.ist.qs2021.actorsystem;
+
+/**
+ * Priority classes of messages, from the highest to the lowest, see {@link Message#getPriority()}.
+ */
+public enum MessagePriority {
+    /**
+     * Messages controlling the actors themselves, e.g. stopping them.
+     */
+    CONTROL,
+    /**
+     * Messages opening a conversation. Messages closing one must not overtake
+     * the messages sent within it, so they belong to {@link #DATA}.
+     */
+    SESSION,
+    /**
+     * All other messages.
+     */
+    DATA
+}
@@ -0,0 +1,137 @@
+package at.tugraz.ist.qs2021.actorsystem;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads trace files written by {@link MessageTraceRecorder} and converts them to CSV
+ * or a human-readable timeline.
+ * <p>
+ * A file of a recorder, which was not closed, can be read up to the last flush,
+ * but the message classes are only known by their ids then. Files are mapped as a whole,
+ * so they must not be larger than 2 GB, i.e. about 60 million events.
+ * <p>
+ * Usage: {@code java at.tugraz.ist.qs2021.actorsystem.MessageTraceReader <trace file> [csv|timeline]}
+ */
+public class MessageTraceReader {
+    private final List<TraceRecord> records = new ArrayList<>();
+
+    /**
+     * Reads the whole file.
+     *
+     * @param path path of the trace file
+     * @throws IOException if the file cannot be read or is no trace file
+     */
+    public MessageTraceReader(Path path) throws IOException {
+        try (FileChannel file = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = file.map(FileChannel.MapMode.READ_ONLY, 0, file.size());
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            if (buffer.remaining() < MessageTraceRecorder.RECORD_SIZE || buffer.getInt(0) != MessageTraceRecorder.MAGIC) {
+                throw new IOException("not a trace file: " + path);
+            }
+            if (buffer.getInt(4) != MessageTraceRecorder.VERSION || buffer.getInt(8) != MessageTraceRecorder.RECORD_SIZE) {
+                throw new IOException("unsupported trace file version: " + path);
+            }
+            long count = buffer.getLong(16);
+            long typesOffset = buffer.getLong(24);
+            List<String> typeNames = typesOffset == 0 ? new ArrayList<>() : readTypeNames(buffer, (int) typesOffset);
+            for (long i = 0; i < count; i++) {
+                int position = (int) ((i + 1) * MessageTraceRecorder.RECORD_SIZE);
+                long sender = buffer.getLong(position);
+                long receiver = buffer.getLong(position + 8);
+                long correlation = buffer.getLong(position + 16);
+                int tick = buffer.getInt(position + 24);
+                short kind = buffer.getShort(position + 28);
+                short type = buffer.getShort(position + 30);
+                records.add(new TraceRecord(kind == MessageTraceRecorder.TELL ? TraceRecord.Kind.TELL : TraceRecord.Kind.RECEIVE,
+                        tick, sender, receiver, type < typeNames.size() ? typeNames.get(type) : "type#" + type, correlation));
+            }
+        }
+    }
+
+    private static List<String> readTypeNames(ByteBuffer buffer, int offset) {
+        List<String> names = new ArrayList<>();
+        ByteBuffer types = buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        types.position(offset);
+        int count = types.getInt();
+        for (int i = 0; i < count; i++) {
+            byte[] bytes = new byte[types.getShort()];
+            types.get(bytes);
+            names.add(new String(bytes, StandardCharsets.UTF_8));
+        }
+        return names;
+    }
+
+    /**
+     * @return All events in the order they were recorded.
+     */
+    public List<TraceRecord> getRecords() {
+        return records;
+    }
+
+    /**
+     * Writes one line per event with a header line.
+     *
+     * @param out where to write to
+     */
+    public void writeCsv(Writer out) {
+        PrintWriter writer = new PrintWriter(out);
+        writer.println("tick,kind,sender,receiver,message,correlation");
+        for (TraceRecord record : records) {
+            writer.println(record.getTick() + "," + record.getKind() + "," + record.getSenderId() + ","
+                    + record.getReceiverId() + "," + record.getMessageType() + "," + record.getCorrelationId());
+        }
+        writer.flush();
+    }
+
+    /**
+     * Writes the events grouped by tick, using the simple names of the message classes.
+     *
+     * @param out where to write to
+     */
+    public void writeTimeline(Writer out) {
+        PrintWriter writer = new PrintWriter(out);
+        int tick = Integer.MIN_VALUE;
+        for (TraceRecord record : records) {
+            if (record.getTick() != tick) {
+                tick = record.getTick();
+                writer.println("tick " + tick);
+            }
+            String type = record.getMessageType().substring(record.getMessageType().lastIndexOf('.') + 1);
+            String correlation = record.getCorrelationId() == CorrelatedMessage.NO_CORRELATION ? "" : " #" + record.getCorrelationId();
+            if (record.getKind() == TraceRecord.Kind.TELL) {
+                String sender = record.getSenderId() == ISimulatedActorSystem.NEW_ACTOR ? "external" : "actor " + record.getSenderId();
+                writer.println("  " + sender + " -> actor " + record.getReceiverId() + ": " + type + correlation);
+            } else {
+                writer.println("  actor " + record.getReceiverId() + " receives " + type + correlation);
+            }
+        }
+        writer.flush();
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1 || args.length > 2) {
+            System.err.println("usage: MessageTraceReader <trace file> [csv|timeline]");
+            System.exit(1);
+        }
+        MessageTraceReader reader = new MessageTraceReader(Paths.get(args[0]));
+        Writer out = new OutputStreamWriter(System.out, StandardCharsets.UTF_8);
+        if (args.length == 2 && args[1].equals("timeline")) {
+            reader.writeTimeline(out);
+        } else {
+            reader.writeCsv(out);
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package at.tugraz.ist.qs2021.actorsystem;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Records tell and receive events into a binary file, see
+ * {@link SimulatedActorSystem#setTraceRecorder(MessageTraceRecorder)}.
+ * <p>
+ * Every event is a record of {@link #RECORD_SIZE} bytes: ids of sender, receiver and
+ * correlation (see {@link CorrelatedMessage}), the tick, the kind of the event and the id
+ * of the message class. Records are written sequentially into a memory-mapped region of
+ * the file, which is advanced when it is full, so recording an event only costs a few
+ * stores into memory. The names of the message classes are appended, when the recorder
+ * is closed. {@link MessageTraceReader} reads the file.
+ * <p>
+ * The file starts with a header of {@link #RECORD_SIZE} bytes: magic number, version,
+ * record size, number of records and the offset of the message class names.
+ * <p>
+ * Recording is not thread-safe, events are recorded by the thread ticking the actors.
+ */
+public class MessageTraceRecorder implements Closeable {
+
+    static final int MAGIC = 0x51535452;
+    static final int VERSION = 1;
+    public static final int RECORD_SIZE = 32;
+
+    static final short TELL = 1;
+    static final short RECEIVE = 2;
+
+    /**
+     * Size of the regions mapped at once, a multiple of {@link #RECORD_SIZE}.
+     */
+    private static final long REGION_SIZE = 8L << 20;
+
+    private final FileChannel file;
+    private MappedByteBuffer region;
+    private long regionStart;
+    private long records = 0;
+    private final Map<Class<?>, Integer> typeIds = new HashMap<>();
+    private final List<String> typeNames = new ArrayList<>();
+
+    /**
+     * Class and id of the last message, messages of the same class often follow each other.
+     */
+    private Class<?> lastType = null;
+    private short lastTypeId = 0;
+    private boolean closed = false;
+
+    /**
+     * Creates the file, respectively truncates it, if it exists.
+     *
+     * @param path path of the trace file
+     * @throws IOException if the file cannot be created
+     */
+    public MessageTraceRecorder(Path path) throws IOException {
+        file = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        map(0);
+        // the header is written on flush and close, records start after it
+        region.position(RECORD_SIZE);
+    }
+
+    /**
+     * Records that a message is sent.
+     *
+     * @param senderId id of the sending actor, {@link ISimulatedActorSystem#NEW_ACTOR} if unknown
+     * @param receiver the receiving actor
+     * @param message  the message
+     * @param tick     current system time
+     */
+    void recordTell(long senderId, SimulatedActor receiver, Message message, int tick) {
+        record(TELL, senderId, receiver, message, tick);
+    }
+
+    /**
+     * Records that a message is received.
+     *
+     * @param receiver the receiving actor
+     * @param message  the message
+     * @param tick     current system time
+     */
+    void recordReceive(SimulatedActor receiver, Message message, int tick) {
+        record(RECEIVE, ISimulatedActorSystem.NEW_ACTOR, receiver, message, tick);
+    }
+
+    private void record(short kind, long senderId, SimulatedActor receiver, Message message, int tick) {
+        if (closed) {
+            return;
+        }
+        if (!region.hasRemaining()) {
+            map(regionStart + REGION_SIZE);
+        }
+        region.putLong(senderId);
+        region.putLong(receiver.getId());
+        region.putLong(message instanceof CorrelatedMessage
+                ? ((CorrelatedMessage) message).getCorrelationId() : CorrelatedMessage.NO_CORRELATION);
+        region.putInt(tick);
+        region.putShort(kind);
+        region.putShort(typeId(message));
+        records++;
+    }
+
+    private short typeId(Message message) {
+        if (message.getClass() == lastType) {
+            return lastTypeId;
+        }
+        Integer id = typeIds.get(message.getClass());
+        if (id == null) {
+            if (typeNames.size() > Short.MAX_VALUE) {
+                throw new IllegalStateException("too many message types");
+            }
+            id = typeNames.size();
+            typeIds.put(message.getClass(), id);
+            typeNames.add(message.getClass().getName());
+        }
+        lastType = message.getClass();
+        lastTypeId = id.shortValue();
+        return lastTypeId;
+    }
+
+    /**
+     * @return Number of events recorded so far.
+     */
+    public long getRecords() {
+        return records;
+    }
+
+    /**
+     * Writes the recorded events to the file and updates the header,
+     * so the file can be read while recording continues.
+     *
+     * @throws IOException if writing fails
+     */
+    public void flush() throws IOException {
+        region.force();
+        writeHeader(0);
+    }
+
+    /**
+     * Appends the names of the message classes and truncates the file after them.
+     *
+     * @throws IOException if writing fails
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        region.force();
+        long typesOffset = (records + 1) * RECORD_SIZE;
+        ByteBuffer types = encodeTypeNames();
+        file.write(types, typesOffset);
+        writeHeader(typesOffset);
+        file.truncate(typesOffset + types.capacity());
+        file.close();
+        region = null;
+    }
+
+    private void map(long start) {
+        try {
+            region = file.map(FileChannel.MapMode.READ_WRITE, start, REGION_SIZE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        region.order(ByteOrder.LITTLE_ENDIAN);
+        regionStart = start;
+    }
+
+    private void writeHeader(long typesOffset) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(RECORD_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC).putInt(VERSION).putInt(RECORD_SIZE).putInt(0);
+        header.putLong(records).putLong(typesOffset);
+        header.flip();
+        file.write(header, 0);
+    }
+
+    private ByteBuffer encodeTypeNames() {
+        List<byte[]> names = new ArrayList<>();
+        int size = Integer.BYTES;
+        for (String name : typeNames) {
+            byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+            names.add(bytes);
+            size += Short.BYTES + bytes.length;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(names.size());
+        for (byte[] bytes : names) {
+            buffer.putShort((short) bytes.length).put(bytes);
+        }
+        buffer.flip();
+        return buffer;
+    }
+}
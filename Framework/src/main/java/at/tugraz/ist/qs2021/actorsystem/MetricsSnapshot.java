@@ -0,0 +1,71 @@
+package at.tugraz.ist.qs2021.actorsystem;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Metrics of all actors of a system at a point in time, see {@link SimulatedActorSystem#getMetrics()}.
+ */
+public final class MetricsSnapshot {
+    private final int time;
+    private final Map<Long, ActorMetrics> byActor = new LinkedHashMap<>();
+    private final Map<Class<?>, ActorMetrics> byClass = new LinkedHashMap<>();
+
+    MetricsSnapshot(int time) {
+        this.time = time;
+    }
+
+    void add(SimulatedActor actor, ActorMetrics metrics) {
+        byActor.put(actor.getId(), metrics);
+        byClass.merge(actor.getClass(), metrics, ActorMetrics::combine);
+    }
+
+    void addStopped(Class<?> type, ActorMetrics metrics) {
+        byClass.merge(type, metrics, ActorMetrics::combine);
+    }
+
+    /**
+     * @return System time the snapshot was taken at.
+     */
+    public int getTime() {
+        return time;
+    }
+
+    /**
+     * @return Metrics of every live actor recording metrics, by actor id, in id order.
+     */
+    public Map<Long, ActorMetrics> getActors() {
+        return Collections.unmodifiableMap(byActor);
+    }
+
+    /**
+     * @return Metrics summed up over all actors of a class, including stopped ones, by actor class,
+     * in order of the first live actor of each class, followed by classes without live actors.
+     */
+    public Map<Class<?>, ActorMetrics> getActorClasses() {
+        return Collections.unmodifiableMap(byClass);
+    }
+
+    /**
+     * @return A table with one line per actor class.
+     */
+    public String format() {
+        StringBuilder table = new StringBuilder();
+        table.append(String.format("time %d%n", time));
+        table.append(String.format("%-24s %7s %8s %9s %9s %9s %10s %10s %9s%n",
+                "class", "actors", "mailbox", "max mbox", "overflow", "transit", "busy", "idle", "received"));
+        for (Map.Entry<Class<?>, ActorMetrics> entry : byClass.entrySet()) {
+            ActorMetrics metrics = entry.getValue();
+            table.append(String.format("%-24s %7d %8d %9d %9d %9d %10d %10d %9d%n", entry.getKey().getSimpleName(),
+                    metrics.getActors(), metrics.getMailboxDepth(), metrics.getMailboxHighWater(), metrics.getMailboxOverflows(),
+                    metrics.getMessagesInTransit(), metrics.getBusyTicks(), metrics.getIdleTicks(), metrics.getReceived()));
+        }
+        return table.toString();
+    }
+
+    @Override
+    public String toString() {
+        return format();
+    }
+}
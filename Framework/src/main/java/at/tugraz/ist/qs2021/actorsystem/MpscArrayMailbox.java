@@ -0,0 +1,172 @@
+package at.tugraz.ist.qs2021.actorsystem;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * Lock-free, unbounded mailbox for multiple producers and a single consumer.
+ * <p>
+ * Messages are stored in a linked list of arrays (chunks), so only one object
+ * is allocated per chunk instead of one node per message. Producers claim a slot
+ * of the last chunk by atomically incrementing its claim counter, and append a new
+ * chunk, which is twice as large up to {@link #MAX_CHUNK_SIZE}, if the last one is full.
+ * The consumer reads the slots in order and drops chunks it has passed. A chunk drained
+ * completely is reused from its start, so an actor whose mailbox regularly runs empty does
+ * not allocate at all.
+ */
+public class MpscArrayMailbox implements IMailbox {
+
+    /**
+     * Default size of the first chunk.
+     */
+    public static final int DEFAULT_INITIAL_CAPACITY = 8;
+
+    /**
+     * Maximum size of a chunk.
+     */
+    private static final int MAX_CHUNK_SIZE = 1024;
+
+    private static final VarHandle SLOTS = MethodHandles.arrayElementVarHandle(Message[].class);
+    private static final VarHandle CLAIMED;
+    private static final VarHandle NEXT;
+    private static final VarHandle TAIL;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            CLAIMED = lookup.findVarHandle(Chunk.class, "claimed", int.class);
+            NEXT = lookup.findVarHandle(Chunk.class, "next", Chunk.class);
+            TAIL = lookup.findVarHandle(MpscArrayMailbox.class, "tail", Chunk.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    /**
+     * Chunk the consumer reads from, only accessed by the consumer.
+     */
+    private Chunk head;
+
+    /**
+     * Index of the next slot the consumer reads in the head chunk.
+     */
+    private int headIndex = 0;
+
+    /**
+     * Last chunk, producers add to it. May lag behind, if a producer has
+     * appended a chunk, but not updated the tail yet.
+     */
+    private volatile Chunk tail;
+
+    /**
+     * Constructs a MpscArrayMailbox with a first chunk of {@link #DEFAULT_INITIAL_CAPACITY} slots.
+     */
+    public MpscArrayMailbox() {
+        this(DEFAULT_INITIAL_CAPACITY);
+    }
+
+    /**
+     * Constructs a MpscArrayMailbox.
+     *
+     * @param initialCapacity Number of slots of the first chunk.
+     */
+    public MpscArrayMailbox(int initialCapacity) {
+        if (initialCapacity <= 0) {
+            throw new IllegalArgumentException("initialCapacity must be positive");
+        }
+        head = new Chunk(Math.min(initialCapacity, MAX_CHUNK_SIZE));
+        tail = head;
+    }
+
+    @Override
+    public boolean offer(Message message) {
+        if (message == null) {
+            throw new NullPointerException("message must not be null");
+        }
+        while (true) {
+            Chunk last = tail;
+            int index = (int) CLAIMED.getAndAdd(last, 1);
+            if (index < last.slots.length) {
+                SLOTS.setRelease(last.slots, index, message);
+                return true;
+            }
+            // the chunk is full, append a new one holding the message or help with the one appended
+            Chunk next = last.next;
+            if (next == null) {
+                Chunk chunk = new Chunk(Math.min(last.slots.length * 2, MAX_CHUNK_SIZE));
+                chunk.slots[0] = message;
+                chunk.claimed = 1;
+                if (NEXT.compareAndSet(last, null, chunk)) {
+                    TAIL.compareAndSet(this, last, chunk);
+                    return true;
+                }
+                next = last.next;
+            }
+            TAIL.compareAndSet(this, last, next);
+        }
+    }
+
+    @Override
+    public Message poll() {
+        Chunk chunk = head;
+        if (headIndex == chunk.slots.length) {
+            Chunk next = (Chunk) NEXT.getAcquire(chunk);
+            if (next == null) {
+                return null;
+            }
+            head = next;
+            headIndex = 0;
+            chunk = next;
+        }
+        Message message = (Message) SLOTS.getAcquire(chunk.slots, headIndex);
+        if (message == null) {
+            if ((int) CLAIMED.getVolatile(chunk) <= headIndex) {
+                return null;
+            }
+            // the slot is claimed, but the producer has not stored the message yet
+            do {
+                Thread.onSpinWait();
+                message = (Message) SLOTS.getAcquire(chunk.slots, headIndex);
+            } while (message == null);
+        }
+        chunk.slots[headIndex++] = null;
+        // reuse the chunk from its start, if it has been drained and no producer claimed a slot meanwhile
+        if (CLAIMED.compareAndSet(chunk, headIndex, 0)) {
+            headIndex = 0;
+        }
+        return message;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        Chunk chunk = head;
+        if (headIndex == chunk.slots.length) {
+            return NEXT.getAcquire(chunk) == null;
+        }
+        return (int) CLAIMED.getVolatile(chunk) <= headIndex;
+    }
+
+    @Override
+    public int size() {
+        long size = -headIndex;
+        for (Chunk chunk = head; chunk != null; chunk = (Chunk) NEXT.getAcquire(chunk)) {
+            size += Math.min((int) CLAIMED.getVolatile(chunk), chunk.slots.length);
+        }
+        return (int) Math.min(size, Integer.MAX_VALUE);
+    }
+
+    private static final class Chunk {
+        private final Message[] slots;
+
+        /**
+         * Number of slots claimed by producers, may exceed the length of slots.
+         */
+        private volatile int claimed = 0;
+
+        private volatile Chunk next = null;
+
+        private Chunk(int size) {
+            slots = new Message[size];
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package at.tugraz.ist.qs2021.actorsystem;
+
+/**
+ * What a {@link BoundedMailbox} does with a message arriving while it is full.
+ * In every case the owner of the mailbox is notified via
+ * {@link SimulatedActor#mailboxOverflow(Message, OverflowPolicy)}.
+ */
+public enum OverflowPolicy {
+    /**
+     * The arriving message is dropped.
+     */
+    DROP_NEWEST,
+    /**
+     * The oldest waiting message is dropped to make room for the arriving one.
+     */
+    DROP_OLDEST,
+    /**
+     * The arriving message is dropped, the owner is expected to send a failure reply.
+     */
+    REJECT,
+    /**
+     * The arriving message is kept, so the mailbox grows beyond its capacity,
+     * the owner is expected to signal its sender to slow down.
+     */
+    BACKPRESSURE
+}
@@ -0,0 +1,175 @@
+package at.tugraz.ist.qs2021.actorsystem;
+
+import at.tugraz.ist.qs2021.messageboard.UnknownClientException;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Implementation of {@link ISimulatedActorSystem}, which executes the
+ * {@link SimulatedActor#receive(Message)} calls of one tick in parallel on a {@link ForkJoinPool}.
+ * <p>
+ * Every tick consists of two phases. First all actors, which finish processing a message in
+ * this tick, receive it in parallel. The messages they send and the actors they spawn or stop
+ * are buffered. Then the actors are ticked in id order like in {@link SimulatedActorSystem}
+ * and the buffered effects of each receive are committed in its turn. As a message delivered
+ * in a tick is never received in the same tick, the results are identical to the ones of
+ * {@link SimulatedActorSystem}, provided that receive only changes the state of the receiving
+ * actor and interacts with other actors via tell, spawn, stop and schedule only.
+ * <p>
+ * Actors overriding {@link SimulatedActor#tick()} are ticked sequentially in the second phase,
+ * as are scheduled messages, e.g. timeouts.
+ * <p>
+ * If an actor throws, the receives of actors with a higher id have already been executed
+ * in the first phase. Their effects are committed when the tick is repeated, but an actor
+ * stopped in the meantime has still received its message.
+ */
+public class ParallelSimulatedActorSystem extends SimulatedActorSystem {
+
+    private final ForkJoinPool pool;
+
+    /**
+     * Receives of the tick in progress, which have not been committed yet.
+     */
+    private final Map<SimulatedActor, DeferredReceive> receives = new HashMap<>();
+
+    /**
+     * Receives, which were executed in a tick aborted by an exception before
+     * they were committed. They are committed when the tick is repeated.
+     */
+    private final Map<SimulatedActor, DeferredReceive> abortedReceives = new HashMap<>();
+
+    private final List<SimulatedActor> due = new ArrayList<>();
+    private final List<DeferredReceive> toRun = new ArrayList<>();
+
+    /**
+     * Constructs a ParallelSimulatedActorSystem using the common pool.
+     */
+    public ParallelSimulatedActorSystem() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructs a ParallelSimulatedActorSystem.
+     *
+     * @param pool the pool executing the receives
+     */
+    public ParallelSimulatedActorSystem(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    @Override
+    public void spawn(SimulatedActor actor) {
+        DeferredReceive deferred = DeferredReceive.current();
+        if (deferred != null) {
+            deferred.spawn(this, actor);
+        } else {
+            super.spawn(actor);
+        }
+    }
+
+    @Override
+    public void stop(SimulatedActor actor) {
+        DeferredReceive deferred = DeferredReceive.current();
+        if (deferred != null) {
+            deferred.stop(this, actor);
+        } else {
+            super.stop(actor);
+        }
+    }
+
+    @Override
+    void schedule(SimulatedActor actor, int delay, ScheduledMessage scheduled) {
+        DeferredReceive deferred = DeferredReceive.current();
+        if (deferred != null) {
+            deferred.schedule(this, actor, delay, scheduled);
+        } else {
+            super.schedule(actor, delay, scheduled);
+        }
+    }
+
+    @Override
+    void prepareTick() {
+        due.clear();
+        collectDueActors(due);
+        for (SimulatedActor actor : due) {
+            if (actor.overridesTick()) {
+                continue;
+            }
+            sync(actor, getCurrentTime());
+            if (!actor.isReceiveDue()) {
+                continue;
+            }
+            Message message = actor.startReceive();
+            DeferredReceive receive = abortedReceives.get(actor);
+            if (receive == null || receive.getMessage() != message) {
+                receive = new DeferredReceive(actor, message);
+                toRun.add(receive);
+            }
+            receives.put(actor, receive);
+        }
+        abortedReceives.clear();
+        if (toRun.size() == 1) {
+            toRun.get(0).run();
+        } else if (!toRun.isEmpty()) {
+            pool.invoke(new ReceiveTask(0, toRun.size(), Math.max(1, toRun.size() / (4 * pool.getParallelism()))));
+        }
+        toRun.clear();
+    }
+
+    @Override
+    void tickActor(SimulatedActor actor) throws UnknownClientException {
+        DeferredReceive receive = receives.remove(actor);
+        if (receive == null) {
+            actor.tick();
+        } else {
+            actor.finishReceive();
+            receive.commit();
+            actor.fireTimers();
+        }
+    }
+
+    @Override
+    void abortTick() {
+        // receives which were not committed have to be revoked, so the actors are ticked again
+        for (DeferredReceive receive : receives.values()) {
+            receive.getActor().cancelReceive();
+            abortedReceives.put(receive.getActor(), receive);
+        }
+        receives.clear();
+        super.abortTick();
+    }
+
+    /**
+     * Runs a range of the receives to run.
+     */
+    private final class ReceiveTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+        private final int batchSize;
+
+        private ReceiveTask(int from, int to, int batchSize) {
+            this.from = from;
+            this.to = to;
+            this.batchSize = batchSize;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= batchSize) {
+                for (int i = from; i < to; i++) {
+                    toRun.get(i).run();
+                }
+            } else {
+                int middle = (from + to) >>> 1;
+                invokeAll(new ReceiveTask(from, middle, batchSize), new ReceiveTask(middle, to, batchSize));
+            }
+        }
+    }
+}
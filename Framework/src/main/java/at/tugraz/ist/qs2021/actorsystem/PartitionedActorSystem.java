@@ -0,0 +1,445 @@
+package at.tugraz.ist.qs2021.actorsystem;
+
+import at.tugraz.ist.qs2021.messageboard.UnknownClientException;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Runs actors on several partitions, which are {@link SimulatedActorSystem}s executed in parallel,
+ * each on a thread of its own. Actors are spawned into a partition via {@link #getPartition(int)}
+ * and actors spawned by them stay in the partition of their parent.
+ * <p>
+ * The partitions are synchronised conservatively: they run independently for a window of
+ * <c>lookahead</c> ticks and wait for each other at a barrier at its end. Messages sent to
+ * an actor of another partition are buffered until the barrier and then added to the channel
+ * of the receiver, so they arrive in the same tick as in a single system. This requires the
+ * receiver to have a channel with a fixed delay of at least <c>lookahead</c> ticks, e.g. a
+ * {@link DeterministicChannel} of delay 1 for a lookahead of 1. A message arriving too early
+ * makes the run fail with an {@link IllegalStateException}. Windows without any event are skipped.
+ * <p>
+ * Messages sent within a partition, which arrive after the end of the window, are buffered as well.
+ * At the barrier all buffered messages are added in the order they were sent, i.e. by tick and
+ * position of the sender in the tick, so messages arriving at the same tick are taken from the
+ * channel in the same order as in a single system. Hence the results are the same for any number
+ * of partitions, and equal to a {@link SimulatedActorSystem} running the same actors, provided that
+ * <ul>
+ * <li>actors interact with actors of other partitions via tell only,</li>
+ * <li>actors spawned while running do not send messages to other partitions, as their ids are
+ * assigned per partition and therefore do not reflect the global order of their creation.</li>
+ * </ul>
+ * Buffered messages appear in the message log of the receiver at the barrier. Latency tracking
+ * and trace recording are not supported by partitions.
+ * <p>
+ * If an actor throws, its partition stops at the failing tick, the other ones complete the window,
+ * and runFor and runUntil rethrow the exception. The system cannot be run afterwards.
+ */
+public class PartitionedActorSystem implements AutoCloseable {
+
+    /**
+     * Partition executed by the current thread, null outside of runs.
+     */
+    private static final ThreadLocal<Partition> CURRENT = new ThreadLocal<>();
+
+    private static final Comparator<BufferedMessage> SEND_ORDER = Comparator
+            .comparingInt((BufferedMessage m) -> m.sendTick)
+            .thenComparingLong(m -> m.position)
+            .thenComparingInt(m -> m.sender.index)
+            .thenComparingLong(m -> m.sequence);
+
+    private final Partition[] partitions;
+    private final int lookahead;
+    private final ExecutorService threads;
+
+    private int currentTime = 0;
+
+    /**
+     * Id of the next actor spawned outside of a window.
+     */
+    private long nextActorId = 0;
+
+    /**
+     * First tick after the window in progress and last tick of the run in progress.
+     */
+    private int windowEnd = 0;
+    private int endTime = 0;
+
+    /**
+     * Set by the barrier action when the run in progress ends.
+     */
+    private boolean finished = false;
+
+    /**
+     * First exception thrown by a partition, which ends the run.
+     */
+    private Exception failure = null;
+
+    private final List<BufferedMessage> buffered = new ArrayList<>();
+
+    /**
+     * Constructs a PartitionedActorSystem.
+     *
+     * @param numberOfPartitions number of partitions, each executed by a thread of its own
+     * @param lookahead          number of ticks the partitions run between two barriers, at most
+     *                           the smallest delay of the channels of actors receiving messages
+     *                           from other partitions
+     */
+    public PartitionedActorSystem(int numberOfPartitions, int lookahead) {
+        if (numberOfPartitions <= 0) {
+            throw new IllegalArgumentException("numberOfPartitions must be positive");
+        }
+        if (lookahead <= 0) {
+            throw new IllegalArgumentException("lookahead must be positive");
+        }
+        this.partitions = new Partition[numberOfPartitions];
+        for (int i = 0; i < numberOfPartitions; i++) {
+            partitions[i] = new Partition(this, i);
+        }
+        this.lookahead = lookahead;
+        this.threads = Executors.newFixedThreadPool(numberOfPartitions, runnable -> {
+            Thread thread = new Thread(runnable, "partition");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * @param index index of the partition
+     * @return The partition, which is used to spawn actors into it and to pass it to actors
+     * spawning other actors. It must not be run on its own.
+     */
+    public SimulatedActorSystem getPartition(int index) {
+        return partitions[index];
+    }
+
+    public int getNumberOfPartitions() {
+        return partitions.length;
+    }
+
+    public int getLookahead() {
+        return lookahead;
+    }
+
+    public int getCurrentTime() {
+        return currentTime;
+    }
+
+    /**
+     * @return All actors of all partitions, partition by partition.
+     */
+    public List<SimulatedActor> getActors() {
+        List<SimulatedActor> actors = new ArrayList<>();
+        for (Partition partition : partitions) {
+            actors.addAll(partition.getActors());
+        }
+        return actors;
+    }
+
+    /**
+     * @param id an actor id
+     * @return The actor of any partition with the given id, null if there is none.
+     */
+    public SimulatedActor lookup(long id) {
+        for (Partition partition : partitions) {
+            SimulatedActor actor = partition.lookup(id);
+            if (actor != null) {
+                return actor;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Runs all partitions for the given number of ticks.
+     *
+     * @param numberOfTicks number of ticks to run
+     * @throws UnknownClientException if an actor throws
+     */
+    public void runFor(int numberOfTicks) throws UnknownClientException {
+        if (numberOfTicks > 0) {
+            runUntil(currentTime + numberOfTicks - 1);
+        }
+    }
+
+    /**
+     * Runs all partitions until the given tick has been executed.
+     *
+     * @param endTime the last tick to execute
+     * @throws UnknownClientException if an actor throws
+     */
+    public void runUntil(int endTime) throws UnknownClientException {
+        if (failure != null) {
+            throw new IllegalStateException("a previous run failed", failure);
+        }
+        if (currentTime > endTime) {
+            return;
+        }
+        this.endTime = endTime;
+        this.finished = false;
+        planWindow();
+        CyclicBarrier barrier = new CyclicBarrier(partitions.length, this::exchange);
+        List<Future<?>> runs = new ArrayList<>(partitions.length);
+        for (Partition partition : partitions) {
+            runs.add(threads.submit(() -> partition.runWindows(barrier)));
+        }
+        try {
+            for (Future<?> run : runs) {
+                run.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while waiting for the partitions", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("a partition failed", e.getCause());
+        }
+        if (failure instanceof UnknownClientException) {
+            throw (UnknownClientException) failure;
+        } else if (failure != null) {
+            throw (RuntimeException) failure;
+        }
+    }
+
+    /**
+     * Shuts down the threads of the partitions.
+     */
+    @Override
+    public void close() {
+        threads.shutdown();
+    }
+
+    /**
+     * Determines the next window, which starts at the next event or barrier, and
+     * hands out the ids for actors spawned within it.
+     */
+    private void planWindow() {
+        int nextEvent = Integer.MAX_VALUE;
+        for (Partition partition : partitions) {
+            nextEvent = Math.min(nextEvent, partition.nextEventTick());
+        }
+        int windowStart = Math.max(currentTime, (int) Math.min(nextEvent, (long) endTime + 1));
+        windowEnd = (int) Math.min((long) windowStart + lookahead, (long) endTime + 1);
+        for (Partition partition : partitions) {
+            // ids interleave, so they are unique and increasing within every partition
+            partition.nextId = nextActorId + partition.index;
+            partition.spawnedInWindow = false;
+        }
+    }
+
+    /**
+     * Barrier action, which delivers the buffered messages and plans the next window.
+     * It is executed by the last partition arriving at the barrier.
+     */
+    private void exchange() {
+        try {
+            for (Partition partition : partitions) {
+                if (partition.failure != null && failure == null) {
+                    failure = partition.failure;
+                }
+                buffered.addAll(partition.outbox);
+                partition.outbox.clear();
+                if (partition.spawnedInWindow) {
+                    nextActorId = Math.max(nextActorId, partition.nextId);
+                }
+            }
+            if (failure != null) {
+                finished = true;
+                return;
+            }
+            buffered.sort(SEND_ORDER);
+            for (BufferedMessage message : buffered) {
+                message.deliver(windowEnd);
+            }
+            currentTime = windowEnd;
+            if (currentTime > endTime) {
+                finished = true;
+            } else {
+                planWindow();
+            }
+        } catch (RuntimeException e) {
+            failure = e;
+            finished = true;
+        } finally {
+            buffered.clear();
+        }
+    }
+
+    /**
+     * Message waiting for the next barrier.
+     */
+    private static final class BufferedMessage {
+        private final Partition sender;
+        private final int sendTick;
+        private final long position;
+        private final long sequence;
+        private final SimulatedActor receiver;
+        private final Message message;
+
+        /**
+         * Tick in which the message arrives, -1 if it is computed at the barrier.
+         */
+        private final int arrivalTick;
+
+        private BufferedMessage(Partition sender, long sequence, SimulatedActor receiver, Message message, int arrivalTick) {
+            this.sender = sender;
+            this.sendTick = sender.getCurrentTime();
+            this.position = sender.executionPosition();
+            this.sequence = sequence;
+            this.receiver = receiver;
+            this.message = message;
+            this.arrivalTick = arrivalTick;
+        }
+
+        private void deliver(int barrier) {
+            int arrival = arrivalTick;
+            if (arrival < 0) {
+                int delay = receiver.channel().getFixedDelay();
+                if (delay < 0) {
+                    throw new IllegalStateException("actor " + receiver.getId()
+                            + " receives messages from other partitions, so its channel needs a fixed delay");
+                }
+                // a single system would add the message to the channel of the receiver
+                // in the next tick, if the receiver has already been ticked
+                int progress = receiver.getId() <= position ? sendTick + 1 : sendTick;
+                arrival = progress + delay;
+                if (arrival < barrier) {
+                    throw new IllegalStateException("message from another partition arrives at actor " + receiver.getId()
+                            + " in tick " + arrival + " before the barrier at " + barrier + ", the lookahead is too large");
+                }
+            }
+            receiver.system.deliverAt(receiver, message, arrival);
+        }
+    }
+
+    /**
+     * A partition, which takes part in the windows of its owner.
+     */
+    private static final class Partition extends SimulatedActorSystem {
+        private final PartitionedActorSystem owner;
+        private final int index;
+        private final List<BufferedMessage> outbox = new ArrayList<>();
+        private long sequence = 0;
+        private long nextId = 0;
+        private boolean spawnedInWindow = false;
+        private Exception failure = null;
+
+        private Partition(PartitionedActorSystem owner, int index) {
+            this.owner = owner;
+            this.index = index;
+        }
+
+        private void runWindows(CyclicBarrier barrier) {
+            CURRENT.set(this);
+            try {
+                while (!owner.finished) {
+                    if (failure == null) {
+                        try {
+                            runUntil(owner.windowEnd - 1);
+                        } catch (UnknownClientException | RuntimeException e) {
+                            failure = e;
+                        }
+                    }
+                    barrier.await();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("interrupted at the barrier", e);
+            } catch (BrokenBarrierException e) {
+                throw new IllegalStateException("barrier broken", e);
+            } finally {
+                CURRENT.remove();
+            }
+        }
+
+        @Override
+        void send(SimulatedActor actor, Message message) {
+            Partition current = CURRENT.get();
+            if (current == null) {
+                super.send(actor, message);
+            } else if (current != this) {
+                current.outbox.add(new BufferedMessage(current, current.sequence++, actor, message, -1));
+            } else {
+                int delay = actor.channel().getFixedDelay();
+                int progress = progressOf(actor);
+                if (delay >= 0 && (long) progress + delay >= owner.windowEnd) {
+                    outbox.add(new BufferedMessage(this, sequence++, actor, message, progress + delay));
+                } else {
+                    super.send(actor, message);
+                }
+            }
+        }
+
+        @Override
+        public void spawn(SimulatedActor actor) {
+            checkCurrent();
+            super.spawn(actor);
+        }
+
+        @Override
+        public void stop(SimulatedActor actor) {
+            checkCurrent();
+            super.stop(actor);
+        }
+
+        @Override
+        void schedule(SimulatedActor actor, int delay, ScheduledMessage scheduled) {
+            checkCurrent();
+            super.schedule(actor, delay, scheduled);
+        }
+
+        @Override
+        public void runUntil(int endTime) throws UnknownClientException {
+            if (CURRENT.get() != this) {
+                throw new IllegalStateException("partitions are run by their PartitionedActorSystem");
+            }
+            super.runUntil(endTime);
+        }
+
+        @Override
+        public void tick() throws UnknownClientException {
+            if (CURRENT.get() != this) {
+                throw new IllegalStateException("partitions are run by their PartitionedActorSystem");
+            }
+            super.tick();
+        }
+
+        @Override
+        public void setLatencyTracker(LatencyTracker latencyTracker) {
+            throw new UnsupportedOperationException("partitions do not track latencies");
+        }
+
+        @Override
+        public void setTraceRecorder(MessageTraceRecorder traceRecorder) {
+            throw new UnsupportedOperationException("partitions do not record traces");
+        }
+
+        @Override
+        long newActorId() {
+            if (CURRENT.get() == null) {
+                return owner.nextActorId++;
+            }
+            long id = nextId;
+            nextId += owner.partitions.length;
+            spawnedInWindow = true;
+            return id;
+        }
+
+        @Override
+        long nextActorIdBound() {
+            return CURRENT.get() == null ? owner.nextActorId : nextId;
+        }
+
+        private void checkCurrent() {
+            Partition current = CURRENT.get();
+            if (current != null && current != this) {
+                throw new IllegalStateException("actors can only spawn, stop and schedule within their own partition");
+            }
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package at.tugraz.ist.qs2021.actorsystem;
+
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Picks two routees at random and routes every message to the one with fewer pending messages,
+ * see {@link LeastMailboxRouting}. It balances load nearly as well, but only looks at two routees.
+ * <p>
+ * The random choices are reproducible for a given seed, but as it reads the state of the routees,
+ * results are only reproducible in {@link SimulatedActorSystem}.
+ */
+public class PowerOfTwoChoicesRouting implements IRoutingStrategy {
+
+    private final Random random;
+
+    /**
+     * Constructs a PowerOfTwoChoicesRouting.
+     *
+     * @param seed seed of the random choices
+     */
+    public PowerOfTwoChoicesRouting(long seed) {
+        this.random = new Random(seed);
+    }
+
+    @Override
+    public int select(Message message, List<? extends SimulatedActor> routees) {
+        int size = routees.size();
+        if (size == 1) {
+            return 0;
+        }
+        int first = random.nextInt(size);
+        // the second choice differs from the first one
+        int second = (first + 1 + random.nextInt(size - 1)) % size;
+        return routees.get(second).pendingMessages() < routees.get(first).pendingMessages() ? second : first;
+    }
+}
@@ -0,0 +1,78 @@
+package at.tugraz.ist.qs2021.actorsystem;
+
+/**
+ * Mailbox handing out messages by their priority class, see {@link Message#getPriority()},
+ * and in the order they were added within the same class. So control messages do not wait
+ * behind a backlog of data messages.
+ * <p>
+ * It consists of one {@link MpscArrayMailbox} per priority class, hence adding and taking out
+ * messages take constant time and it may be used by multiple producers like the mailbox it is
+ * built from. A class only ever holding data messages costs one empty chunk per other class.
+ */
+public class PriorityMailbox implements IMailbox {
+    private static final MessagePriority[] PRIORITIES = MessagePriority.values();
+
+    /**
+     * Queue of each priority class, indexed by the ordinal of the class.
+     */
+    private final MpscArrayMailbox[] queues = new MpscArrayMailbox[PRIORITIES.length];
+
+    /**
+     * Constructs a PriorityMailbox whose data queue starts with
+     * {@link MpscArrayMailbox#DEFAULT_INITIAL_CAPACITY} slots.
+     */
+    public PriorityMailbox() {
+        this(MpscArrayMailbox.DEFAULT_INITIAL_CAPACITY);
+    }
+
+    /**
+     * Constructs a PriorityMailbox.
+     *
+     * @param initialCapacity Number of slots the queue of data messages starts with,
+     *                        the other queues start small.
+     */
+    public PriorityMailbox(int initialCapacity) {
+        for (MessagePriority priority : PRIORITIES) {
+            queues[priority.ordinal()] = new MpscArrayMailbox(priority == MessagePriority.DATA ? initialCapacity : 1);
+        }
+    }
+
+    @Override
+    public boolean offer(Message message) {
+        if (message == null) {
+            throw new NullPointerException("message must not be null");
+        }
+        // envelopes of tracked messages have no priority of their own
+        return queues[TimedMessage.unwrap(message).getPriority().ordinal()].offer(message);
+    }
+
+    @Override
+    public Message poll() {
+        for (MpscArrayMailbox queue : queues) {
+            Message message = queue.poll();
+            if (message != null) {
+                return message;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        for (MpscArrayMailbox queue : queues) {
+            if (!queue.isEmpty()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int size() {
+        long size = 0;
+        for (MpscArrayMailbox queue : queues) {
+            size += queue.size();
+        }
+        return (int) Math.min(size, Integer.MAX_VALUE);
+    }
+}
@@ -0,0 +1,122 @@
+package at.tugraz.ist.qs2021.actorsystem;
+
+import java.util.Arrays;
+
+/**
+ * The messages an actor with a capacity of more than one processes concurrently,
+ * see {@link SimulatedActor#setCapacity(int)}.
+ * <p>
+ * Every slot holds a message and the remaining number of ticks it is busy with it.
+ * The occupied slots are kept in the order their messages were started, so messages
+ * finishing in the same tick are completed in that order.
+ */
+final class ProcessingSlots {
+
+    private final Message[] messages;
+    private final int[] busyFor;
+
+    /**
+     * Number of occupied slots, which are the first ones.
+     */
+    private int occupied = 0;
+
+    /**
+     * Messages completed by the last call of {@link #tick()}, in the first slots.
+     */
+    private final Message[] completed;
+    private int completedCount = 0;
+
+    /**
+     * @param capacity number of slots, at least one
+     */
+    ProcessingSlots(int capacity) {
+        messages = new Message[capacity];
+        busyFor = new int[capacity];
+        completed = new Message[capacity];
+    }
+
+    int capacity() {
+        return messages.length;
+    }
+
+    /**
+     * @return Number of messages being processed.
+     */
+    int occupied() {
+        return occupied;
+    }
+
+    /**
+     * Counts down the busy slots and removes the messages, which are finished, i.e. which
+     * were not busy anymore. They can be retrieved via {@link #completed(int)} afterwards.
+     *
+     * @return Number of slots, which were free before the tick, i.e. the number of messages,
+     * which can be started in this tick. Slots freed by the tick are only used in the next one.
+     */
+    int tick() {
+        Arrays.fill(completed, 0, completedCount, null);
+        completedCount = 0;
+        int free = messages.length - occupied;
+        int kept = 0;
+        for (int i = 0; i < occupied; i++) {
+            if (busyFor[i] > 0) {
+                messages[kept] = messages[i];
+                busyFor[kept] = busyFor[i] - 1;
+                kept++;
+            } else {
+                completed[completedCount++] = messages[i];
+            }
+        }
+        Arrays.fill(messages, kept, occupied, null);
+        occupied = kept;
+        return free;
+    }
+
+    /**
+     * @return Number of messages completed by the last tick.
+     */
+    int completedCount() {
+        return completedCount;
+    }
+
+    /**
+     * @param index index of a completed message, less than {@link #completedCount()}
+     * @return The message, in the order the messages were started.
+     */
+    Message completed(int index) {
+        return completed[index];
+    }
+
+    /**
+     * Starts processing a message in a free slot.
+     *
+     * @param message  the message
+     * @param duration number of ticks the slot is busy with it
+     */
+    void start(Message message, int duration) {
+        messages[occupied] = message;
+        busyFor[occupied] = duration;
+        occupied++;
+    }
+
+    /**
+     * @return Number of upcoming ticks, in which every occupied slot only counts down,
+     * {@link Integer#MAX_VALUE} if all slots are free.
+     */
+    int ticksUntilNextCompletion() {
+        int ticks = Integer.MAX_VALUE;
+        for (int i = 0; i < occupied; i++) {
+            ticks = Math.min(ticks, busyFor[i]);
+        }
+        return ticks;
+    }
+
+    /**
+     * @param ticks number of ticks, at most {@link #ticksUntilNextCompletion()}
+     */
+    void skipTicks(int ticks) {
+        for (int i = 0; i < occupied; i++) {
+            busyFor[i] -= ticks;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package at.tugraz.ist.qs2021.actorsystem;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Lightweight stand-in for a client actor, which turns replies into completed futures
+ * (ask pattern). It is never spawned, so it neither occupies an id nor is ticked.
+ * Instead, messages sent to it are handled immediately when they are sent.
+ * <p>
+ * Use it wherever an actor expects a client, e.g. in an InitCommunication message, ask
+ * with a {@link CorrelatedMessage} and wait for the reply with
+ * {@link SimulatedActorSystem#runUntilComplete(CompletableFuture)}:
+ * <pre>{@code
+ * Responder client = new Responder();
+ * InitAck ack = (InitAck) system.runUntilComplete(client.ask(dispatcher, new InitCommunication(client, 1)));
+ * Message reply = system.runUntilComplete(client.ask(ack.worker, new Publish(message, 1)));
+ * }</pre>
+ * A reply completes the oldest pending future with the same correlation id.
+ * Replies without pending future are kept, see {@link #getUnmatchedReplies()}.
+ */
+public class Responder extends SimulatedActor {
+
+    /**
+     * Futures waiting for a reply by correlation id, oldest first.
+     */
+    private final Map<Long, ArrayDeque<CompletableFuture<Message>>> pending = new HashMap<>();
+
+    private final List<Message> unmatchedReplies = new ArrayList<>();
+
+    /**
+     * Sends the message to the actor and returns a future completed by the reply.
+     *
+     * @param actor   the actor to ask
+     * @param message the request, whose correlation id the reply must have
+     * @return The future of the reply.
+     */
+    public CompletableFuture<Message> ask(SimulatedActor actor, CorrelatedMessage message) {
+        CompletableFuture<Message> future = new CompletableFuture<>();
+        synchronized (this) {
+            pending.computeIfAbsent(message.getCorrelationId(), id -> new ArrayDeque<>(1)).add(future);
+        }
+        actor.tell(message);
+        return future;
+    }
+
+    /**
+     * @return Number of futures waiting for a reply.
+     */
+    public synchronized int getPendingRequests() {
+        int count = 0;
+        for (ArrayDeque<CompletableFuture<Message>> futures : pending.values()) {
+            count += futures.size();
+        }
+        return count;
+    }
+
+    /**
+     * @return Replies, which did not match a pending future, in the order they were sent.
+     */
+    public synchronized List<Message> getUnmatchedReplies() {
+        return new ArrayList<>(unmatchedReplies);
+    }
+
+    /**
+     * Completes the future waiting for the reply, instead of sending it via a channel.
+     * Deferred sends of {@link ParallelSimulatedActorSystem} are committed via this method too,
+     * so replies complete in the same order as in {@link SimulatedActorSystem}.
+     *
+     * @param message the reply
+     */
+    @Override
+    void deliver(Message message) {
+        if (message instanceof MessageBatch) {
+            for (Message batched : ((MessageBatch) message).messages) {
+                deliver(batched);
+            }
+            return;
+        }
+        CompletableFuture<Message> future = null;
+        synchronized (this) {
+            ArrayDeque<CompletableFuture<Message>> futures = message instanceof CorrelatedMessage
+                    ? pending.get(((CorrelatedMessage) message).getCorrelationId()) : null;
+            if (futures != null) {
+                future = futures.poll();
+                if (futures.isEmpty()) {
+                    pending.remove(((CorrelatedMessage) message).getCorrelationId());
+                }
+            } else {
+                unmatchedReplies.add(message);
+            }
+        }
+        // completed outside the lock, as it runs dependent actions
+        if (future != null) {
+            future.complete(message);
+        }
+    }
+
+    /**
+     * Not called, as the responder is not spawned.
+     *
+     * @param message Non-null message received
+     */
+    @Override
+    public void receive(Message message) {
+
+    }
+}
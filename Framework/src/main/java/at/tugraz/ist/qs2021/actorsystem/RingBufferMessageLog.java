@@ -0,0 +1,47 @@
+package at.tugraz.ist.qs2021.actorsystem;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Message log keeping only the most recent messages in a ring buffer of fixed size.
+ */
+public class RingBufferMessageLog implements IMessageLog {
+    private final Message[] buffer;
+
+    /**
+     * Total number of messages added so far.
+     */
+    private long added = 0;
+
+    /**
+     * Constructs a RingBufferMessageLog.
+     *
+     * @param capacity Number of messages to keep.
+     */
+    public RingBufferMessageLog(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        this.buffer = new Message[capacity];
+    }
+
+    @Override
+    public void add(SimulatedActor receiver, Message message) {
+        buffer[(int) (added % buffer.length)] = message;
+        added++;
+    }
+
+    /**
+     * @return A copy of the most recent messages, the oldest first.
+     */
+    @Override
+    public List<Message> getMessages() {
+        int size = (int) Math.min(added, buffer.length);
+        List<Message> messages = new ArrayList<>(size);
+        for (long i = added - size; i < added; i++) {
+            messages.add(buffer[(int) (i % buffer.length)]);
+        }
+        return messages;
+    }
+}
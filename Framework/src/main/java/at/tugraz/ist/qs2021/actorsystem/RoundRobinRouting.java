@@ -0,0 +1,22 @@
+package at.tugraz.ist.qs2021.actorsystem;
+
+import java.util.List;
+
+/**
+ * Routes the messages to the routees one after another.
+ */
+public class RoundRobinRouting implements IRoutingStrategy {
+
+    /**
+     * Index of the routee, which receives the next message.
+     */
+    private int next = 0;
+
+    @Override
+    public int select(Message message, List<? extends SimulatedActor> routees) {
+        if (next >= routees.size()) {
+            next = 0;
+        }
+        return next++;
+    }
+}
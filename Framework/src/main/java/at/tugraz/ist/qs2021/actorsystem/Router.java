@@ -0,0 +1,92 @@
+package at.tugraz.ist.qs2021.actorsystem;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Actor forwarding every message it receives to one of its routees,
+ * which is chosen by a {@link IRoutingStrategy}, e.g. a {@link RoundRobinRouting}.
+ * Messages received while there are no routees are dropped.
+ */
+public class Router extends SimulatedActor {
+
+    private final IRoutingStrategy strategy;
+
+    private final List<SimulatedActor> routees;
+
+    /**
+     * Read-only view of <c>routees</c> passed to the strategy.
+     */
+    private final List<SimulatedActor> routeesView;
+
+    /**
+     * Constructs a Router without routees.
+     *
+     * @param strategy the strategy, which must not be shared with other routers
+     */
+    public Router(IRoutingStrategy strategy) {
+        this.strategy = strategy;
+        this.routees = new ArrayList<>();
+        this.routeesView = Collections.unmodifiableList(routees);
+    }
+
+    /**
+     * Constructs a Router.
+     *
+     * @param strategy the strategy, which must not be shared with other routers
+     * @param routees  the initial routees
+     */
+    public Router(IRoutingStrategy strategy, List<? extends SimulatedActor> routees) {
+        this(strategy);
+        this.routees.addAll(routees);
+        strategy.routeesChanged(routeesView);
+    }
+
+    /**
+     * Adds a routee, which receives messages from now on.
+     *
+     * @param routee the routee
+     */
+    public void addRoutee(SimulatedActor routee) {
+        routees.add(routee);
+        strategy.routeesChanged(routeesView);
+    }
+
+    /**
+     * Removes a routee, which does not receive messages from now on.
+     *
+     * @param routee the routee
+     * @return True if it was a routee.
+     */
+    public boolean removeRoutee(SimulatedActor routee) {
+        boolean removed = routees.remove(routee);
+        if (removed) {
+            strategy.routeesChanged(routeesView);
+        }
+        return removed;
+    }
+
+    /**
+     * @return The routees in the order they were added.
+     */
+    public List<SimulatedActor> getRoutees() {
+        return routeesView;
+    }
+
+    public IRoutingStrategy getStrategy() {
+        return strategy;
+    }
+
+    /**
+     * Forwards the message to the routee chosen by the strategy.
+     *
+     * @param message Non-null message received
+     */
+    @Override
+    public void receive(Message message) {
+        if (!routees.isEmpty()) {
+            routees.get(strategy.select(message, routeesView)).tell(message);
+        }
+    }
+}
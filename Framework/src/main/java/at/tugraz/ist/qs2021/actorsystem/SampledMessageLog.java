@@ -0,0 +1,46 @@
+package at.tugraz.ist.qs2021.actorsystem;
+
+import java.util.List;
+
+/**
+ * Message log passing only every n-th message on to another log,
+ * starting with the first one. Sampling is deterministic, so simulations
+ * remain reproducible.
+ */
+public class SampledMessageLog implements IMessageLog {
+    private final int interval;
+    private final IMessageLog sample;
+
+    /**
+     * Number of messages to skip until the next one is sampled.
+     */
+    private int skip = 0;
+
+    /**
+     * Constructs a SampledMessageLog.
+     *
+     * @param interval Every interval-th message is logged.
+     * @param sample   The log receiving the sampled messages.
+     */
+    public SampledMessageLog(int interval, IMessageLog sample) {
+        if (interval <= 0) {
+            throw new IllegalArgumentException("interval must be positive");
+        }
+        this.interval = interval;
+        this.sample = sample;
+    }
+
+    @Override
+    public void add(SimulatedActor receiver, Message message) {
+        if (skip == 0) {
+            sample.add(receiver, message);
+            skip = interval;
+        }
+        skip--;
+    }
+
+    @Override
+    public List<Message> getMessages() {
+        return sample.getMessages();
+    }
+}
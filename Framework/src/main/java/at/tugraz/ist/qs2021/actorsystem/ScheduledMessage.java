@@ -0,0 +1,45 @@
+package at.tugraz.ist.qs2021.actorsystem;
+
+/**
+ * A message an actor receives after a delay, see {@link ISimulatedActorSystem#schedule(SimulatedActor, int, Message)}.
+ * It is used to cancel the delivery, e.g. once a timeout is no longer needed.
+ */
+public final class ScheduledMessage implements Message {
+    private final Message message;
+    private volatile boolean cancelled = false;
+
+    ScheduledMessage(Message message) {
+        this.message = message;
+    }
+
+    /**
+     * @return The message to be received.
+     */
+    public Message getMessage() {
+        return message;
+    }
+
+    /**
+     * Cancels the delivery, has no effect if the message has already been received.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * @return True if {@link #cancel()} has been called.
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    @Override
+    public int getDuration() {
+        return message.getDuration();
+    }
+
+    @Override
+    public String toString() {
+        return "ScheduledMessage(" + message + ")";
+    }
+}
@@ -2,20 +2,56 @@ package at.tugraz.ist.qs2021.actorsystem;
 
 import at.tugraz.ist.qs2021.messageboard.UnknownClientException;
 
-import java.util.ArrayList;
-import java.util.LinkedList;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Queue;
 
 public abstract class SimulatedActor implements ISimulatedActor {
 
+    /**
+     * Caches, whether actor classes override tick().
+     */
+    private static final ClassValue<Boolean> OVERRIDES_TICK = new ClassValue<Boolean>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            try {
+                return type.getMethod("tick").getDeclaringClass() != SimulatedActor.class;
+            } catch (NoSuchMethodException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    };
+
+    /**
+     * Caches, whether actor classes override tick(), but not ticksUntilNextEvent(),
+     * so they have to be ticked in every tick.
+     */
+    private static final ClassValue<Boolean> NEEDS_EVERY_TICK = new ClassValue<Boolean>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            if (!OVERRIDES_TICK.get(type)) {
+                return false;
+            }
+            for (Class<?> c = type; c != SimulatedActor.class; c = c.getSuperclass()) {
+                try {
+                    c.getDeclaredMethod("ticksUntilNextEvent");
+                    return false;
+                } catch (NoSuchMethodException e) {
+                    // not declared in this class
+                }
+            }
+            return true;
+        }
+    };
+
     /**
      * Channel, which simulates the communication channel built-up when
      * messages are sent to an actors. A more accurate approximation
      * of the real world would include one channel per communication/pair
      * of actors, but for the sake of simplicity we use only one per actor.
+     * Subclasses may set it in their constructor, otherwise a {@link DeterministicChannel}
+     * with a delay of one tick is created when the first message is sent, see {@link #channel()}.
      */
-    protected CommunicationChannel channel = new DeterministicChannel(1);
+    protected CommunicationChannel channel = null;
 
     /**
      * Unique id assigned to each actor
@@ -35,16 +71,20 @@ public abstract class SimulatedActor implements ISimulatedActor {
 
     /**
      * All messages, that have already been sent via <c>channel</c>,
-     * but have not been processed yet.
+     * but have not been processed yet. Subclasses may set it in their
+     * constructor, otherwise it is created when the first message arrives, see {@link #newMailbox()}.
+     * Actors, which never receive a message, thus do not need any memory for it.
      */
-    private final Queue<Message> messageBox = new LinkedList<>();
+    protected IMailbox mailbox = null;
 
     /**
      * All messages sent to this actor, this includes messages in transit,
-     * already processed messages and messages in the <c>messageBox</c>.
+     * already processed messages and messages in the <c>mailbox</c>.
      * It is used to alleviate debugging and testing.
+     * Subclasses may set it in their constructor, otherwise the system sets it
+     * when the actor is spawned, see {@link SimulatedActorSystem#setMessageLogFactory}.
      */
-    private final List<Message> messageLog = new ArrayList<>();
+    protected IMessageLog messageLog = null;
 
     /**
      * Time since the system was started.
@@ -56,6 +96,50 @@ public abstract class SimulatedActor implements ISimulatedActor {
      */
     int timeSinceSystemStart = -1;
 
+    /**
+     * The system this actor was spawned in, null before it is spawned.
+     */
+    SimulatedActorSystem system = null;
+
+    /**
+     * First tick of the system, which has not been applied to this actor yet.
+     * Ticks in which the actor is idle are applied lazily by the system.
+     */
+    int syncedTick = 0;
+
+    /**
+     * First tick of the system, in which this actor is not ticked anymore, because it was stopped.
+     */
+    int stopTick = Integer.MAX_VALUE;
+
+    /**
+     * Tick of the next event of this actor, {@link Integer#MAX_VALUE} if it is idle until it is sent a message.
+     * Maintained by the system.
+     */
+    int eventTick = Integer.MAX_VALUE;
+
+    /**
+     * Position of this actor in the event queue of the system, -1 if it has no upcoming event.
+     */
+    int eventIndex = -1;
+
+    /**
+     * Position of this actor in the registry of the system, -1 if it is not registered.
+     */
+    int registryIndex = -1;
+
+    /**
+     * Rarely used state, e.g. scheduled messages, metrics and message handlers,
+     * null until one of these features is used, see {@link #extras()}.
+     */
+    private ActorExtras extras = null;
+
+    /**
+     * Marks message classes, for which neither they nor their superclasses have a handler.
+     */
+    private static final IMessageHandler<Message> NO_HANDLER = message -> {
+    };
+
     @Override
     public long getId() {
         return this.id;
@@ -66,35 +150,249 @@ public abstract class SimulatedActor implements ISimulatedActor {
         this.id = id;
     }
 
+    /**
+     * @return The rarely used state of this actor, created on first use.
+     */
+    ActorExtras extras() {
+        if (extras == null) {
+            extras = new ActorExtras();
+        }
+        return extras;
+    }
+
+    /**
+     * @return Metrics of this actor, null if it does not record metrics.
+     */
+    ActorMetrics metrics() {
+        return extras == null ? null : extras.metrics;
+    }
+
+    /**
+     * @return Records the latencies of messages sent to this actor, null if they are not tracked.
+     */
+    LatencyTracker latencyTracker() {
+        return extras == null ? null : extras.latencyTracker;
+    }
+
+    /**
+     * @return Records the messages this actor receives, null if they are not recorded.
+     */
+    MessageTraceRecorder traceRecorder() {
+        return extras == null ? null : extras.traceRecorder;
+    }
+
+    /**
+     * @return Slots of an actor with a capacity of more than one, in which case
+     * <c>busyFor</c> and <c>activeMessage</c> are not used, otherwise null, see {@link #setCapacity(int)}.
+     */
+    private ProcessingSlots slots() {
+        return extras == null ? null : extras.slots;
+    }
+
+    /**
+     * @return The messages retained by the message log of this actor.
+     */
     @Override
     public List<Message> getMessageLog() {
-        return this.messageLog;
+        return messageLog().getMessages();
+    }
+
+    /**
+     * Replaces the message log of this actor.
+     *
+     * @param messageLog The log recording messages sent to this actor from now on.
+     */
+    public void setMessageLog(IMessageLog messageLog) {
+        this.messageLog = messageLog;
+    }
+
+    /**
+     * @return The channel, which is created on demand, see <c>channel</c>.
+     */
+    CommunicationChannel channel() {
+        if (channel == null) {
+            channel = new DeterministicChannel(1);
+        }
+        return channel;
+    }
+
+    /**
+     * Returns the mailbox, which is created on demand, see <c>mailbox</c>. It is only created
+     * by the thread delivering messages to the actor, respectively when the actor is registered
+     * in a {@link ConcurrentActorSystem}, so no synchronization is needed.
+     *
+     * @return The mailbox.
+     */
+    IMailbox mailbox() {
+        if (mailbox == null) {
+            mailbox = newMailbox();
+        }
+        return mailbox;
+    }
+
+    /**
+     * Creates the mailbox when the first message arrives, unless it has been set before.
+     * Subclasses may override it, e.g. to start with a larger capacity.
+     *
+     * @return A new {@link MpscArrayMailbox} by default.
+     */
+    protected IMailbox newMailbox() {
+        return new MpscArrayMailbox();
+    }
+
+    /**
+     * @return The message log, which is created on demand if the actor is used without a system
+     * or the system does not have a message log factory.
+     */
+    IMessageLog messageLog() {
+        if (messageLog == null) {
+            messageLog = new UnboundedMessageLog();
+        }
+        return messageLog;
     }
 
     @Override
     public int getTimeSinceSystemStart() {
-        return this.timeSinceSystemStart;
+        return this.timeSinceSystemStart + pendingTicks();
     }
 
     @Override
     public void setTimeSinceSystemStart(int timeSinceSystemStart) {
-        this.timeSinceSystemStart = timeSinceSystemStart;
+        this.timeSinceSystemStart = timeSinceSystemStart - pendingTicks();
     }
 
     @Override
     public void tell(Message message) {
-        channel.send(message);
-        messageLog.add(message);
+        DeferredReceive deferred = DeferredReceive.current();
+        if (deferred != null) {
+            deferred.tell(this, message);
+        } else {
+            deliver(message);
+        }
+    }
+
+    @Override
+    public void tellAll(List<? extends Message> messages) {
+        if (messages.size() == 1) {
+            tell(messages.get(0));
+        } else if (!messages.isEmpty()) {
+            tell(new MessageBatch(messages));
+        }
+    }
+
+    /**
+     * Sends the message to this actor without taking deferred receives into account.
+     *
+     * @param message the message
+     */
+    void deliver(Message message) {
+        if (system != null) {
+            system.send(this, message);
+        } else {
+            enqueue(message);
+        }
+    }
+
+    /**
+     * Sends the message via the channel of this actor and logs it.
+     *
+     * @param message the message
+     */
+    void enqueue(Message message) {
+        channel().send(latencyTracker() == null ? message : new TimedMessage(message, latencyClock(), System.nanoTime()));
+        log(message);
+    }
+
+    /**
+     * Adds the message to the channel of this actor, bypassing its delay, and logs it.
+     *
+     * @param message        the message
+     * @param remainingTicks number of ticks until it arrives, see {@link CommunicationChannel#addMessage(int, Message)}
+     */
+    void enqueue(Message message, int remainingTicks) {
+        channel().addMessage(remainingTicks, latencyTracker() == null ? message : new TimedMessage(message, latencyClock(), System.nanoTime()));
+        log(message);
+    }
+
+    private void log(Message message) {
+        if (message instanceof MessageBatch) {
+            messageLog().addAll(this, ((MessageBatch) message).messages);
+        } else {
+            messageLog().add(this, message);
+        }
+    }
+
+    /**
+     * @return Number of messages sent to this actor, which it has not finished processing yet,
+     * i.e. messages in transit, waiting in the mailbox or being processed. Used by load-based routing.
+     */
+    int pendingMessages() {
+        return (channel == null ? 0 : channel.getMessagesInDelivery()) + (mailbox == null ? 0 : mailbox.size())
+                + (activeMessage != null ? 1 : 0) + (slots() != null ? slots().occupied() : 0);
+    }
+
+    /**
+     * Sets the number of messages this actor processes concurrently, e.g. to model a server
+     * with several cores. Every message occupies one of these slots for its duration, so
+     * with a capacity of n up to n messages are taken from the mailbox at the same time.
+     * A slot freed by receiving a message is used again in the next tick. Messages finishing
+     * in the same tick are received one after another, in the order they were started.
+     * <p>
+     * The default capacity is one, i.e. a message is only started after the previous one
+     * has been received. The capacity does not apply to actors in a {@link ConcurrentActorSystem}.
+     * {@link ParallelSimulatedActorSystem} ticks actors with a capacity of more than one
+     * sequentially.
+     *
+     * @param capacity the number of slots, at least one
+     * @throws IllegalArgumentException if the capacity is less than one
+     * @throws IllegalStateException    if the actor is processing a message
+     */
+    public void setCapacity(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be at least one");
+        }
+        if (activeMessage != null || (slots() != null && slots().occupied() > 0)) {
+            throw new IllegalStateException("cannot change the capacity while processing messages");
+        }
+        if (capacity > 1 || extras != null) {
+            extras().slots = capacity == 1 ? null : new ProcessingSlots(capacity);
+        }
+    }
+
+    /**
+     * @return The number of messages this actor processes concurrently, see {@link #setCapacity(int)}.
+     */
+    public int getCapacity() {
+        return slots() == null ? 1 : slots().capacity();
+    }
+
+    /**
+     * @return Number of idle ticks the system has not applied to this actor yet.
+     */
+    private int pendingTicks() {
+        if (system == null) {
+            return 0;
+        }
+        return Math.max(0, Math.min(system.progressOf(this), stopTick) - syncedTick);
     }
 
     @Override
     public void tick() throws UnknownClientException {
         timeSinceSystemStart++;
-        List<Message> newlyDelivered = channel.tick();
-        messageBox.addAll(newlyDelivered);
+        deliverNewMessages();
 
+        ProcessingSlots slots = slots();
+        if (slots != null) {
+            tickSlots(slots);
+            return;
+        }
+        ActorMetrics metrics = metrics();
         if (busyFor > 0) {
             busyFor--;
+            if (metrics != null) {
+                metrics.recordTicks(true, 1);
+            }
+            fireTimers();
             return;
         }
 
@@ -106,16 +404,319 @@ public abstract class SimulatedActor implements ISimulatedActor {
         if (activeMessage != null) {
             messageToProcess = activeMessage;
             activeMessage = null;
-        } else if (!messageBox.isEmpty()) {
-            activeMessage = messageBox.remove();
+        } else if (mailbox != null && !mailbox.isEmpty()) {
+            activeMessage = mailbox.poll();
+            if (activeMessage instanceof TimedMessage) {
+                TimedMessage envelope = (TimedMessage) activeMessage;
+                extras().activeEnvelope = envelope;
+                started(envelope);
+                activeMessage = envelope.message;
+            }
             busyFor = activeMessage.getDuration();
         }
         // might throw an exception, but all the other code should still be executed,
         // but not in a finally block
         // so we use this variable for intermediately storing the message
+        if (metrics != null) {
+            metrics.recordTicks(messageToProcess != null || activeMessage != null, 1);
+            if (messageToProcess != null) {
+                metrics.recordReceive(messageToProcess);
+            }
+        }
         if (messageToProcess != null) {
+            receivedActiveEnvelope();
+            MessageTraceRecorder traceRecorder = traceRecorder();
+            if (traceRecorder != null) {
+                traceRecorder.recordReceive(this, messageToProcess, system.getCurrentTime());
+            }
             receive(messageToProcess);
         }
+        fireTimers();
+    }
+
+    /**
+     * Remainder of {@link #tick()} for an actor with more than one slot: counts down the slots,
+     * starts messages in the slots free at the beginning of the tick and receives the messages
+     * finished, in the order they were started.
+     *
+     * @param slots the slots of this actor
+     * @throws UnknownClientException if receive throws
+     */
+    private void tickSlots(ProcessingSlots slots) throws UnknownClientException {
+        boolean busy = slots.occupied() > 0;
+        int free = slots.tick();
+        for (; free > 0 && mailbox != null && !mailbox.isEmpty(); free--) {
+            Message message = mailbox.poll();
+            int duration;
+            if (message instanceof TimedMessage) {
+                started((TimedMessage) message);
+                duration = ((TimedMessage) message).message.getDuration();
+            } else {
+                duration = message.getDuration();
+            }
+            slots.start(message, duration);
+            busy = true;
+        }
+        ActorMetrics metrics = metrics();
+        MessageTraceRecorder traceRecorder = traceRecorder();
+        if (metrics != null) {
+            metrics.recordTicks(busy, 1);
+        }
+        for (int i = 0; i < slots.completedCount(); i++) {
+            Message message = slots.completed(i);
+            if (message instanceof TimedMessage) {
+                received((TimedMessage) message);
+                message = ((TimedMessage) message).message;
+            }
+            if (metrics != null) {
+                metrics.recordReceive(message);
+            }
+            if (traceRecorder != null) {
+                traceRecorder.recordReceive(this, message, system.getCurrentTime());
+            }
+            receive(message);
+        }
+        fireTimers();
+    }
+
+    /**
+     * Adds a scheduled message, see {@link ISimulatedActorSystem#schedule(SimulatedActor, int, Message)}.
+     *
+     * @param delay     number of ticks until the message is due
+     * @param scheduled the message
+     */
+    void addTimer(int delay, ScheduledMessage scheduled) {
+        ActorExtras extras = extras();
+        if (extras.timers == null) {
+            extras.timers = new TimerChannel();
+        }
+        extras.timers.addMessage(delay, scheduled);
+    }
+
+    /**
+     * Receives the scheduled messages due in this tick, which have not been cancelled.
+     * Last step of every tick.
+     *
+     * @throws UnknownClientException if receive throws
+     */
+    void fireTimers() throws UnknownClientException {
+        if (extras == null || extras.timers == null) {
+            return;
+        }
+        List<Message> due = extras.timers.tick();
+        for (int i = 0; i < due.size(); i++) {
+            ScheduledMessage scheduled = (ScheduledMessage) due.get(i);
+            if (!scheduled.isCancelled()) {
+                if (extras.metrics != null) {
+                    extras.metrics.recordReceive(scheduled.getMessage());
+                }
+                if (extras.traceRecorder != null) {
+                    extras.traceRecorder.recordReceive(this, scheduled.getMessage(), system.getCurrentTime());
+                }
+                receive(scheduled.getMessage());
+            }
+        }
+    }
+
+    /**
+     * @return True if the class of this actor adds logic to {@link #tick()}.
+     */
+    boolean overridesTick() {
+        return OVERRIDES_TICK.get(getClass());
+    }
+
+    /**
+     * @return True if the class of this actor overrides {@link #tick()}, but not {@link #ticksUntilNextEvent()},
+     * so the system cannot know in which ticks it does something and has to tick it in every tick.
+     */
+    boolean needsEveryTick() {
+        return NEEDS_EVERY_TICK.get(getClass());
+    }
+
+    /**
+     * @return True if {@link #tick()} calls {@link #receive(Message)}, assuming no other tick needs to be applied before.
+     */
+    boolean isReceiveDue() {
+        return slots() == null && busyFor == 0 && activeMessage != null;
+    }
+
+    /**
+     * Performs the part of {@link #tick()} preceding the call of {@link #receive(Message)},
+     * except for the delivery of new messages. The message stays active until
+     * {@link #finishReceive()} completes the tick, so the actor keeps its event in this tick.
+     * Only valid if {@link #isReceiveDue()}.
+     *
+     * @return the message to be received
+     */
+    Message startReceive() {
+        timeSinceSystemStart++;
+        return activeMessage;
+    }
+
+    /**
+     * Reverts {@link #startReceive()}, the effects of the receive itself are not reverted.
+     */
+    void cancelReceive() {
+        timeSinceSystemStart--;
+    }
+
+    /**
+     * Completes a tick started by {@link #startReceive()}, except for {@link #fireTimers()}.
+     */
+    void finishReceive() {
+        ActorMetrics metrics = metrics();
+        if (metrics != null) {
+            metrics.recordTicks(true, 1);
+            metrics.recordReceive(activeMessage);
+        }
+        receivedActiveEnvelope();
+        MessageTraceRecorder traceRecorder = traceRecorder();
+        if (traceRecorder != null) {
+            traceRecorder.recordReceive(this, activeMessage, system.getCurrentTime());
+        }
+        deliverNewMessages();
+        activeMessage = null;
+    }
+
+    private void deliverNewMessages() {
+        if (channel == null) {
+            return;
+        }
+        List<Message> newlyDelivered = channel.tick();
+        for (int i = 0; i < newlyDelivered.size(); i++) {
+            Message message = newlyDelivered.get(i);
+            TimedMessage timed = null;
+            if (message instanceof TimedMessage) {
+                timed = (TimedMessage) message;
+                message = timed.message;
+            }
+            if (message instanceof MessageBatch) {
+                for (Message batched : ((MessageBatch) message).messages) {
+                    addToMailbox(timed == null ? batched : arrived(new TimedMessage(batched, timed.sentTick, timed.sentNanos)));
+                }
+            } else {
+                addToMailbox(timed == null ? message : arrived(timed));
+            }
+        }
+        ActorMetrics metrics = metrics();
+        if (metrics != null && !newlyDelivered.isEmpty()) {
+            metrics.recordMailboxDepth(mailbox.size());
+        }
+    }
+
+    private void addToMailbox(Message message) {
+        IMailbox mailbox = mailbox();
+        if (mailbox instanceof BoundedMailbox) {
+            ((BoundedMailbox) mailbox).offer(message, this);
+        } else {
+            mailbox.offer(message);
+        }
+    }
+
+    /**
+     * @return Current tick of this actor for measuring latencies.
+     */
+    private int latencyClock() {
+        return system != null ? system.progressOf(this) : timeSinceSystemStart;
+    }
+
+    private TimedMessage arrived(TimedMessage timed) {
+        timed.arrivedTick = latencyClock();
+        timed.arrivedNanos = System.nanoTime();
+        latencyTracker().record(this, timed.message, LatencyStage.CHANNEL,
+                timed.arrivedTick - timed.sentTick, timed.arrivedNanos - timed.sentNanos);
+        return timed;
+    }
+
+    private void started(TimedMessage timed) {
+        timed.startedTick = latencyClock();
+        timed.startedNanos = System.nanoTime();
+        latencyTracker().record(this, timed.message, LatencyStage.MAILBOX,
+                timed.startedTick - timed.arrivedTick, timed.startedNanos - timed.arrivedNanos);
+    }
+
+    /**
+     * Records the latencies of the active message, if they are tracked.
+     */
+    private void receivedActiveEnvelope() {
+        if (extras != null && extras.activeEnvelope != null) {
+            received(extras.activeEnvelope);
+            extras.activeEnvelope = null;
+        }
+    }
+
+    private void received(TimedMessage timed) {
+        int tick = latencyClock();
+        long nanos = System.nanoTime();
+        latencyTracker().record(this, timed.message, LatencyStage.PROCESSING,
+                tick - timed.startedTick, nanos - timed.startedNanos);
+        latencyTracker().record(this, timed.message, LatencyStage.TOTAL, tick - timed.sentTick, nanos - timed.sentNanos);
+    }
+
+    /**
+     * Number of upcoming ticks in which this actor only counts down, i.e. in which no message
+     * arrives, no message processing is started and {@link #receive(Message)} is not called.
+     * The actor system only ticks actors with an upcoming event and applies
+     * the idle ticks in between via {@link #skipTicks(int)}.
+     * <p>
+     * Subclasses overriding {@link #tick()} with additional logic should also override
+     * this method and {@link #skipTicks(int)} accordingly. Otherwise this method returns 0,
+     * so they are ticked in every tick like without skipping.
+     *
+     * @return Number of ticks that can be skipped, {@link Integer#MAX_VALUE} if the actor
+     * will stay idle until it is sent a new message.
+     */
+    protected int ticksUntilNextEvent() {
+        if (needsEveryTick()) {
+            return 0;
+        }
+        int untilDelivery = channel == null ? Integer.MAX_VALUE : channel.ticksUntilNextDelivery();
+        int idleTicks = untilDelivery == Integer.MAX_VALUE ? Integer.MAX_VALUE : untilDelivery - 1;
+        int untilTimer = extras == null || extras.timers == null ? Integer.MAX_VALUE : extras.timers.ticksUntilNextDelivery();
+        if (untilTimer != Integer.MAX_VALUE) {
+            idleTicks = Math.min(idleTicks, untilTimer - 1);
+        }
+        ProcessingSlots slots = slots();
+        if (slots != null) {
+            if (slots.occupied() < slots.capacity() && mailbox != null && !mailbox.isEmpty()) {
+                return 0;
+            }
+            return Math.min(slots.ticksUntilNextCompletion(), idleTicks);
+        }
+        if (busyFor > 0) {
+            return Math.min(busyFor, idleTicks);
+        }
+        if (activeMessage != null || (mailbox != null && !mailbox.isEmpty())) {
+            return 0;
+        }
+        return idleTicks;
+    }
+
+    /**
+     * Has the same effect as calling {@link #tick()} the given number of times,
+     * which is only valid if nothing happens in the meantime.
+     *
+     * @param ticks Number of ticks to skip, at most {@link #ticksUntilNextEvent()}.
+     */
+    protected void skipTicks(int ticks) {
+        timeSinceSystemStart += ticks;
+        if (channel != null) {
+            channel.skipTicks(ticks);
+        }
+        if (extras != null) {
+            if (extras.metrics != null) {
+                extras.metrics.recordTicks(busyFor > 0 || (extras.slots != null && extras.slots.occupied() > 0), ticks);
+            }
+            if (extras.timers != null) {
+                extras.timers.skipTicks(ticks);
+            }
+            if (extras.slots != null) {
+                extras.slots.skipTicks(ticks);
+            }
+        }
+        if (busyFor > 0) {
+            busyFor -= ticks;
+        }
     }
 
     /**
@@ -125,4 +726,83 @@ public abstract class SimulatedActor implements ISimulatedActor {
     public void atStartUp() {
 
     }
+
+    /**
+     * Registers the handler for messages of the given class, replacing a handler registered before.
+     * Messages of subclasses are handled by it too, unless they have an own handler.
+     * Actors usually register their handlers in the constructor and call {@link #dispatch(Message)}
+     * in {@link #receive(Message)}, which looks up the handler by class instead of testing
+     * the message against one type after another.
+     *
+     * @param type    the message class
+     * @param handler the handler
+     * @param <M>     the message class
+     */
+    @SuppressWarnings("unchecked")
+    protected final <M extends Message> void registerHandler(Class<M> type, IMessageHandler<? super M> handler) {
+        ActorExtras extras = extras();
+        if (extras.handlers == null) {
+            extras.handlers = new HashMap<>();
+        }
+        extras.handlers.put(type, (IMessageHandler<Message>) handler);
+        extras.inheritedHandlers = null;
+    }
+
+    /**
+     * Passes the message to the handler registered for its class, see {@link #registerHandler(Class, IMessageHandler)}.
+     *
+     * @param message Non-null message received
+     * @return False if there is no handler for the message, which is ignored then.
+     * @throws UnknownClientException if thrown by the handler
+     */
+    protected final boolean dispatch(Message message) throws UnknownClientException {
+        IMessageHandler<Message> handler = extras == null || extras.handlers == null ? null : extras.handlers.get(message.getClass());
+        if (handler == null) {
+            handler = inheritedHandler(message.getClass());
+            if (handler == NO_HANDLER) {
+                return false;
+            }
+        }
+        handler.handle(message);
+        return true;
+    }
+
+    /**
+     * @param type a message class without own handler
+     * @return The handler of the closest superclass with a handler, {@link #NO_HANDLER} if there is none.
+     */
+    private IMessageHandler<Message> inheritedHandler(Class<?> type) {
+        ActorExtras extras = extras();
+        if (extras.inheritedHandlers == null) {
+            extras.inheritedHandlers = new HashMap<>();
+        }
+        IMessageHandler<Message> handler = extras.inheritedHandlers.get(type);
+        if (handler == null) {
+            handler = NO_HANDLER;
+            for (Class<?> superclass = type.getSuperclass(); superclass != null; superclass = superclass.getSuperclass()) {
+                IMessageHandler<Message> registered = extras.handlers == null ? null : extras.handlers.get(superclass);
+                if (registered != null) {
+                    handler = registered;
+                    break;
+                }
+            }
+            extras.inheritedHandlers.put(type, handler);
+        }
+        return handler;
+    }
+
+    /**
+     * Called when a message arrives while the mailbox is a full {@link BoundedMailbox},
+     * after the policy has been applied. Does nothing by default.
+     * <p>
+     * It is called within {@link #tick()}, so the actor may send messages, e.g. a failure reply
+     * for a rejected message or a signal to slow down to the sender.
+     *
+     * @param message the message affected, i.e. the one dropped for {@link OverflowPolicy#DROP_OLDEST}
+     *                and the arriving one otherwise
+     * @param policy  the policy of the mailbox
+     */
+    protected void mailboxOverflow(Message message, OverflowPolicy policy) {
+
+    }
 }
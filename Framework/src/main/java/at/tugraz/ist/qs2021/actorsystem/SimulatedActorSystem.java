@@ -3,10 +3,36 @@ package at.tugraz.ist.qs2021.actorsystem;
 import at.tugraz.ist.qs2021.messageboard.UnknownClientException;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
 
+/**
+ * Sequential implementation of {@link ISimulatedActorSystem}.
+ * <p>
+ * Instead of calling {@link ISimulatedActor#tick()} on every actor in every tick, the system
+ * only ticks actors which have something to do, i.e. a message arriving via their channel,
+ * a message waiting in their mailbox or a message whose processing finishes. These events
+ * are kept in a queue ordered by tick and actor id, so actors are still ticked in the order
+ * they were spawned in. All other ticks of an actor only count down its clocks, they are
+ * applied lazily via {@link SimulatedActor#skipTicks(int)} the next time the actor is ticked,
+ * sent a message or asked for its time.
+ * <p>
+ * Spawning and stopping an actor take constant time, looking it up by id logarithmic time,
+ * see {@link ActorRegistry}.
+ */
 public class SimulatedActorSystem implements ISimulatedActorSystem {
-    private final List<SimulatedActor> actors = new ArrayList<>();
+
+    /**
+     * Maximum number of ticks run by {@link #runUntil(Predicate)} and {@link #runUntilQuiescent()}.
+     */
+    public static final int DEFAULT_MAX_TICKS = 1_000_000;
+
+    private final ActorRegistry actors = new ActorRegistry();
     private int currentTime = 0;
 
     /**
@@ -14,51 +40,643 @@ public class SimulatedActorSystem implements ISimulatedActorSystem {
      */
     private long currentActorId = 0;
 
+    /**
+     * If set, runFor and runUntil jump over ticks in which no actor does anything
+     * instead of executing them one by one, see {@link SimulatedActor#ticksUntilNextEvent()}.
+     */
+    private boolean discreteEventMode = true;
+
+    /**
+     * Creates the message logs of spawned actors, which do not have one yet. If null,
+     * actors create an {@link UnboundedMessageLog} when the first message arrives.
+     */
+    private Supplier<IMessageLog> messageLogFactory = null;
+
+    /**
+     * If set, spawned actors record metrics.
+     */
+    private boolean metricsEnabled = false;
+
+    /**
+     * Receives a metrics snapshot every metricsInterval ticks, null if none is taken.
+     */
+    private Consumer<MetricsSnapshot> metricsListener = null;
+    private int metricsInterval = 0;
+    private long nextMetricsSnapshot = Long.MAX_VALUE;
+
+    /**
+     * Stopped actors recording metrics, whose metrics have not been added to stoppedMetrics yet,
+     * because they may still take part in the tick in progress.
+     */
+    private final List<SimulatedActor> stoppedWithMetrics = new ArrayList<>();
+
+    /**
+     * Metrics of all stopped actors by actor class, so they are still part of {@link #getMetrics()}.
+     */
+    private final Map<Class<?>, ActorMetrics> stoppedMetrics = new LinkedHashMap<>();
+
+    /**
+     * Records message latencies of spawned actors, null if they are not tracked.
+     */
+    private LatencyTracker latencyTracker = null;
+
+    /**
+     * Records tell and receive events of spawned actors, null if they are not recorded.
+     */
+    private MessageTraceRecorder traceRecorder = null;
+
+    /**
+     * Id of the actor currently executing, i.e. being ticked or started, which is the sender
+     * of all messages sent in the meantime. {@link #NEW_ACTOR} while no actor executes.
+     */
+    private long executingActorId = NEW_ACTOR;
+
+    /**
+     * Actors which have an upcoming event, ordered by the tick of the event and actor id.
+     */
+    private final ActorEventQueue events = new ActorEventQueue();
+
+    /**
+     * True while a tick is executed.
+     */
+    private boolean tickInProgress = false;
+
+    /**
+     * Id of the actor ticked last in the tick in progress, actors with a lower id
+     * have already been ticked in the current tick.
+     */
+    private long tickedUpToId = NEW_ACTOR;
+
+    /**
+     * First actor id assigned in the tick in progress.
+     */
+    private long firstIdOfTick = 0;
+
+    /**
+     * Actors stopped during the tick in progress.
+     */
+    private final List<SimulatedActor> stoppedDuringTick = new ArrayList<>();
+
     @Override
     public List<SimulatedActor> getActors() {
         return this.actors;
     }
 
+    @Override
+    public SimulatedActor lookup(long id) {
+        return actors.lookup(id);
+    }
+
     @Override
     public int getCurrentTime() {
         return this.currentTime;
     }
 
+    public boolean isDiscreteEventMode() {
+        return discreteEventMode;
+    }
+
+    /**
+     * Enables or disables skipping of idle ticks in runFor and runUntil.
+     * Observable behaviour is the same in both modes. Actors overriding {@link SimulatedActor#tick()}
+     * without overriding {@link SimulatedActor#ticksUntilNextEvent()} have an event in every tick,
+     * so no tick is skipped while such an actor is alive.
+     *
+     * @param discreteEventMode true to jump from event to event, false to execute every tick
+     */
+    public void setDiscreteEventMode(boolean discreteEventMode) {
+        this.discreteEventMode = discreteEventMode;
+    }
+
+    /**
+     * Sets the message log policy of this system, e.g. to save heap in long simulations.
+     * It applies to actors spawned afterwards, which do not have a message log yet.
+     *
+     * @param messageLogFactory creates a message log per actor, e.g. {@code () -> new RingBufferMessageLog(100)},
+     *                          or null to create an {@link UnboundedMessageLog} on demand
+     */
+    public void setMessageLogFactory(Supplier<IMessageLog> messageLogFactory) {
+        this.messageLogFactory = messageLogFactory;
+    }
+
+    /**
+     * Enables or disables recording of metrics, see {@link ActorMetrics}. It applies to actors
+     * spawned afterwards. Actors not recording metrics only pay for a null check.
+     *
+     * @param metricsEnabled true to record metrics
+     */
+    public void setMetricsEnabled(boolean metricsEnabled) {
+        this.metricsEnabled = metricsEnabled;
+    }
+
+    /**
+     * Passes a metrics snapshot to the given listener every interval ticks while the system
+     * runs via runFor or runUntil, e.g. to print {@link MetricsSnapshot#format()} periodically.
+     *
+     * @param interval number of ticks between two snapshots
+     * @param listener receives the snapshots, null to stop taking them
+     */
+    public void setMetricsListener(int interval, Consumer<MetricsSnapshot> listener) {
+        if (listener != null && interval <= 0) {
+            throw new IllegalArgumentException("interval must be positive");
+        }
+        this.metricsListener = listener;
+        this.metricsInterval = interval;
+        this.nextMetricsSnapshot = listener == null ? Long.MAX_VALUE : (long) currentTime + interval;
+    }
+
+    /**
+     * Enables tracking of message latencies for actors spawned afterwards. Messages sent to
+     * these actors are wrapped in an envelope, which records when they pass each
+     * {@link LatencyStage}.
+     *
+     * @param latencyTracker collects the latencies, null to disable tracking
+     */
+    public void setLatencyTracker(LatencyTracker latencyTracker) {
+        this.latencyTracker = latencyTracker;
+    }
+
+    public LatencyTracker getLatencyTracker() {
+        return latencyTracker;
+    }
+
+    /**
+     * Enables recording of the messages sent to and received by actors spawned afterwards.
+     * The recorder is not closed by the system.
+     *
+     * @param traceRecorder the recorder, null to disable recording
+     */
+    public void setTraceRecorder(MessageTraceRecorder traceRecorder) {
+        this.traceRecorder = traceRecorder;
+    }
+
+    /**
+     * @return The metrics of all actors recording metrics, brought up to date.
+     * The metrics by class include the actors stopped before.
+     */
+    public MetricsSnapshot getMetrics() {
+        retireStopped();
+        MetricsSnapshot snapshot = new MetricsSnapshot(currentTime);
+        for (SimulatedActor actor : actors) {
+            if (actor.metrics() != null) {
+                sync(actor, progressOf(actor));
+                snapshot.add(actor, ActorMetrics.snapshot(actor));
+            }
+        }
+        stoppedMetrics.forEach(snapshot::addStopped);
+        return snapshot;
+    }
+
+    /**
+     * Adds the metrics of the stopped actors, which have been ticked for the last time,
+     * to the metrics by class and releases them.
+     */
+    private void retireStopped() {
+        int kept = 0;
+        for (int i = 0; i < stoppedWithMetrics.size(); i++) {
+            SimulatedActor actor = stoppedWithMetrics.get(i);
+            if (actor.metrics() == null || actor.stopTick == Integer.MAX_VALUE) {
+                // retired when it was spawned again
+                continue;
+            }
+            if (actor.stopTick > currentTime) {
+                stoppedWithMetrics.set(kept++, actor);
+                continue;
+            }
+            sync(actor, actor.stopTick);
+            retire(actor);
+        }
+        stoppedWithMetrics.subList(kept, stoppedWithMetrics.size()).clear();
+    }
+
+    /**
+     * Moves the metrics of the given stopped actor, which is in sync, to the metrics by class.
+     *
+     * @param actor a stopped actor recording metrics
+     */
+    private void retire(SimulatedActor actor) {
+        stoppedMetrics.merge(actor.getClass(), ActorMetrics.stopped(actor), ActorMetrics::combine);
+        actor.extras().metrics = null;
+    }
+
+    /**
+     * Assigns a message log created by the factory to the actor, if it does not have one yet.
+     *
+     * @param actor an actor being spawned
+     */
+    void initMessageLog(SimulatedActor actor) {
+        if (actor.messageLog == null && messageLogFactory != null) {
+            actor.messageLog = messageLogFactory.get();
+        }
+    }
+
     @Override
     public void spawn(SimulatedActor actor) {
-        actors.add(actor);
-        actor.setId(currentActorId++);
-        actor.atStartUp();
+        if (actor.system == this) {
+            // spawned again after it was stopped
+            sync(actor, progressOf(actor));
+            unschedule(actor);
+            actors.unregister(actor);
+            if (actor.metrics() != null && actor.stopTick != Integer.MAX_VALUE) {
+                // its metrics start over, like those of a new actor
+                retire(actor);
+            }
+        }
+        actor.setId(newActorId());
+        actors.register(actor);
+        actor.system = this;
+        initMessageLog(actor);
+        // only actors using one of these features need the extras
+        if (metricsEnabled && actor.metrics() == null) {
+            actor.extras().metrics = new ActorMetrics();
+        }
+        if (latencyTracker != null && actor.latencyTracker() == null) {
+            actor.extras().latencyTracker = latencyTracker;
+        }
+        if (traceRecorder != null && actor.traceRecorder() == null) {
+            actor.extras().traceRecorder = traceRecorder;
+        }
+        // actors spawned during a tick are ticked for the first time in the next one
+        actor.syncedTick = tickInProgress ? currentTime + 1 : currentTime;
+        actor.stopTick = Integer.MAX_VALUE;
+        long spawningActorId = executingActorId;
+        executingActorId = actor.getId();
+        try {
+            actor.atStartUp();
+        } finally {
+            executingActorId = spawningActorId;
+        }
         actor.setTimeSinceSystemStart(currentTime);
+        reschedule(actor);
     }
 
     @Override
     public void runFor(int numberOfTicks) throws UnknownClientException {
-        for (int i = 0; i < numberOfTicks; i++) {
-            tick();
+        if (numberOfTicks > 0) {
+            runUntil(currentTime + numberOfTicks - 1);
         }
     }
 
     @Override
     public void runUntil(int endTime) throws UnknownClientException {
         while (currentTime <= endTime) {
-            tick();
+            // direct calls of tick() may have passed the time of the next snapshot
+            takeMetricsSnapshotIfDue();
+            int nextEvent = nextEventTick();
+            if (discreteEventMode && nextEvent > currentTime) {
+                currentTime = (int) Math.min(Math.min(nextEvent, (long) endTime + 1), nextMetricsSnapshot);
+            } else {
+                tick();
+            }
+            takeMetricsSnapshotIfDue();
+        }
+    }
+
+    /**
+     * Runs the system until the condition holds, for at most {@link #DEFAULT_MAX_TICKS} ticks,
+     * see {@link #runUntil(Predicate, int)}.
+     *
+     * @param condition the condition
+     * @return True if the condition holds, false if the ticks ran out before.
+     * @throws UnknownClientException if an actor throws it
+     */
+    public boolean runUntil(Predicate<? super SimulatedActorSystem> condition) throws UnknownClientException {
+        return runUntil(condition, DEFAULT_MAX_TICKS);
+    }
+
+    /**
+     * Runs the system until the condition holds, but for at most maxTicks ticks.
+     * The condition is checked before the first tick and after every tick, in which an actor
+     * has work to do. In discrete event mode, the ticks in between are skipped without checking it,
+     * so it should only depend on the state of the actors and not on the time alone.
+     *
+     * @param condition the condition
+     * @param maxTicks  the maximum number of ticks to run
+     * @return True if the condition holds, false if the ticks ran out before.
+     * @throws UnknownClientException if an actor throws it
+     */
+    public boolean runUntil(Predicate<? super SimulatedActorSystem> condition, int maxTicks) throws UnknownClientException {
+        int endTime = (int) Math.min((long) currentTime + Math.max(0, maxTicks), Integer.MAX_VALUE);
+        while (!condition.test(this)) {
+            if (currentTime >= endTime) {
+                return false;
+            }
+            runUntil(discreteEventMode ? Math.max(currentTime, Math.min(nextEventTick(), endTime - 1)) : currentTime);
+        }
+        return true;
+    }
+
+    /**
+     * Runs the system until it is quiescent, for at most {@link #DEFAULT_MAX_TICKS} ticks.
+     *
+     * @return True if the system is quiescent, false if the ticks ran out before.
+     * @throws UnknownClientException if an actor throws it
+     */
+    public boolean runUntilQuiescent() throws UnknownClientException {
+        return runUntilQuiescent(DEFAULT_MAX_TICKS);
+    }
+
+    /**
+     * Runs the system until it is quiescent, see {@link #isQuiescent()}, but for at most maxTicks ticks.
+     *
+     * @param maxTicks the maximum number of ticks to run
+     * @return True if the system is quiescent, false if the ticks ran out before.
+     * @throws UnknownClientException if an actor throws it
+     */
+    public boolean runUntilQuiescent(int maxTicks) throws UnknownClientException {
+        return runUntil(SimulatedActorSystem::isQuiescent, maxTicks);
+    }
+
+    /**
+     * @return True if no actor has work left, i.e. there are no messages in transit, waiting in
+     * mailboxes or being processed and no scheduled messages, including cancelled ones, which are not due yet.
+     * Nothing happens anymore, unless a message is sent from outside the system. Actors overriding
+     * {@link SimulatedActor#tick()} without overriding {@link SimulatedActor#ticksUntilNextEvent()}
+     * may do something in every tick, so the system is never quiescent while one of them is alive.
+     */
+    public boolean isQuiescent() {
+        return nextEventTick() == Integer.MAX_VALUE;
+    }
+
+    /**
+     * Runs the system until the future is completed, e.g. the reply to a request sent with
+     * {@link Responder#ask(SimulatedActor, CorrelatedMessage)}, jumping over ticks in which all actors are idle.
+     * The tick, in which the future is completed, is finished before returning.
+     *
+     * @param future the future
+     * @param <T>    the type of the result
+     * @return The result of the future.
+     * @throws UnknownClientException if an actor throws it
+     * @throws IllegalStateException  if all actors become idle before the future is completed
+     */
+    public <T> T runUntilComplete(CompletableFuture<T> future) throws UnknownClientException {
+        while (!future.isDone()) {
+            int nextEvent = nextEventTick();
+            if (nextEvent == Integer.MAX_VALUE) {
+                throw new IllegalStateException("All actors are idle, but the future is not completed");
+            }
+            runUntil(Math.max(currentTime, nextEvent));
+        }
+        return future.join();
+    }
+
+    private void takeMetricsSnapshotIfDue() {
+        if (currentTime >= nextMetricsSnapshot) {
+            nextMetricsSnapshot = (long) currentTime + metricsInterval;
+            metricsListener.accept(getMetrics());
         }
     }
 
     @Override
     public void stop(SimulatedActor actor) {
-        actors.remove(actor);
+        if (!actors.unregister(actor)) {
+            return;
+        }
+        if (actor.metrics() != null) {
+            stoppedWithMetrics.add(actor);
+        }
+        // an actor stopped during a tick still takes part in it, if it has not been ticked yet
+        actor.stopTick = tickInProgress ? currentTime + 1 : currentTime;
+        if (tickInProgress) {
+            stoppedDuringTick.add(actor);
+        }
+        if (actor.eventTick >= actor.stopTick) {
+            unschedule(actor);
+        }
+    }
+
+    @Override
+    public ScheduledMessage schedule(SimulatedActor actor, int delay, Message message) {
+        if (delay < 0) {
+            throw new IllegalArgumentException("delay must not be negative");
+        }
+        if (actor.system != this) {
+            throw new IllegalArgumentException("actor is not spawned in this system");
+        }
+        ScheduledMessage scheduled = new ScheduledMessage(message);
+        schedule(actor, delay, scheduled);
+        return scheduled;
     }
 
     @Override
     public void tick() throws UnknownClientException {
-        // need to copy list, because actors might be spawned or stopped
-        // during tick which modifies the actors-list
-        List<SimulatedActor> currentlyAliveActors = new ArrayList<>(actors);
-        for (SimulatedActor actor : currentlyAliveActors) {
-            actor.tick();
+        tickInProgress = true;
+        tickedUpToId = NEW_ACTOR;
+        firstIdOfTick = nextActorIdBound();
+        stoppedDuringTick.clear();
+        try {
+            prepareTick();
+            while (!events.isEmpty() && events.first().eventTick <= currentTime) {
+                SimulatedActor actor = events.pollFirst();
+                actor.eventTick = Integer.MAX_VALUE;
+                tickedUpToId = actor.getId();
+                sync(actor, currentTime);
+                actor.syncedTick = currentTime + 1;
+                executingActorId = actor.getId();
+                tickActor(actor);
+                executingActorId = NEW_ACTOR;
+                reschedule(actor);
+            }
+        } catch (UnknownClientException | RuntimeException e) {
+            abortTick();
+            throw e;
+        } finally {
+            tickInProgress = false;
+            executingActorId = NEW_ACTOR;
         }
         currentTime++;
+        if (!stoppedWithMetrics.isEmpty()) {
+            retireStopped();
+        }
+    }
+
+    /**
+     * @return Id of the actor ticked in the tick in progress, respectively {@link #NEW_ACTOR}
+     * between ticks. Messages sent to actors with a lower or equal id enter their channel in the next tick.
+     */
+    long executionPosition() {
+        return tickInProgress ? tickedUpToId : NEW_ACTOR;
+    }
+
+    /**
+     * @return A new id, which is larger than all ids assigned by this system before.
+     */
+    long newActorId() {
+        return currentActorId++;
+    }
+
+    /**
+     * @return A lower bound of the ids {@link #newActorId()} returns from now on.
+     */
+    long nextActorIdBound() {
+        return currentActorId;
+    }
+
+    /**
+     * @return The tick of the next event of any actor, {@link Integer#MAX_VALUE} if all actors are idle.
+     */
+    int nextEventTick() {
+        return events.isEmpty() ? Integer.MAX_VALUE : events.first().eventTick;
+    }
+
+    /**
+     * Adds a message sent earlier to the channel of the given actor, such that it arrives in the
+     * given tick, which must not have been executed yet. Must not be called during a tick.
+     *
+     * @param actor       the receiver
+     * @param message     the message
+     * @param arrivalTick the tick in which the actor takes the message from its channel
+     */
+    void deliverAt(SimulatedActor actor, Message message, int arrivalTick) {
+        sync(actor, currentTime);
+        actor.enqueue(message, arrivalTick - currentTime);
+        reschedule(actor);
+    }
+
+    /**
+     * Called at the beginning of every tick, before any actor is ticked.
+     *
+     * @throws UnknownClientException if it executes actor code, which throws
+     */
+    void prepareTick() throws UnknownClientException {
+    }
+
+    /**
+     * Ticks the given actor, which is in sync with the tick in progress.
+     *
+     * @param actor the actor whose turn it is
+     * @throws UnknownClientException if the actor throws
+     */
+    void tickActor(SimulatedActor actor) throws UnknownClientException {
+        actor.tick();
+    }
+
+    /**
+     * Adds all actors, which have an event in the tick in progress, to the given list.
+     *
+     * @param due the list to add to
+     */
+    void collectDueActors(List<SimulatedActor> due) {
+        events.collectDue(currentTime, due);
+    }
+
+    /**
+     * Sends a message to the given actor. The actor is brought up to date before,
+     * so the message enters its channel at the right point in time.
+     *
+     * @param actor   the receiver
+     * @param message the message
+     */
+    void send(SimulatedActor actor, Message message) {
+        if (actor.traceRecorder() != null) {
+            recordTell(actor, message);
+        }
+        sync(actor, progressOf(actor));
+        actor.enqueue(message);
+        reschedule(actor);
+    }
+
+    /**
+     * Adds a scheduled message to the given actor, which is brought up to date before like in
+     * {@link #send(SimulatedActor, Message)}.
+     *
+     * @param actor     the receiver
+     * @param delay     number of ticks until the message is due
+     * @param scheduled the message
+     */
+    void schedule(SimulatedActor actor, int delay, ScheduledMessage scheduled) {
+        sync(actor, progressOf(actor));
+        actor.addTimer(delay, scheduled);
+        reschedule(actor);
+    }
+
+    private void recordTell(SimulatedActor actor, Message message) {
+        MessageTraceRecorder recorder = actor.traceRecorder();
+        if (message instanceof MessageBatch) {
+            for (Message batched : ((MessageBatch) message).messages) {
+                recorder.recordTell(executingActorId, actor, batched, currentTime);
+            }
+        } else {
+            recorder.recordTell(executingActorId, actor, message, currentTime);
+        }
+    }
+
+    /**
+     * Number of ticks which have passed for the given actor, which includes the
+     * tick in progress if the actor has already been ticked in it.
+     *
+     * @param actor an actor of this system
+     * @return the tick the actor should be synchronised to
+     */
+    int progressOf(SimulatedActor actor) {
+        if (tickInProgress && actor.getId() <= tickedUpToId) {
+            return currentTime + 1;
+        }
+        return currentTime;
+    }
+
+    /**
+     * Applies all idle ticks of the actor before the given tick.
+     *
+     * @param actor an actor of this system
+     * @param tick  the first tick which shall not be applied yet
+     */
+    void sync(SimulatedActor actor, int tick) {
+        int pending = Math.min(tick, actor.stopTick) - actor.syncedTick;
+        if (pending > 0) {
+            actor.skipTicks(pending);
+            actor.syncedTick += pending;
+        }
+    }
+
+    /**
+     * Updates the tick of the next event of the given actor.
+     *
+     * @param actor an actor of this system, which is in sync
+     */
+    private void reschedule(SimulatedActor actor) {
+        int idleTicks = actor.ticksUntilNextEvent();
+        long next = idleTicks == Integer.MAX_VALUE ? Integer.MAX_VALUE : (long) actor.syncedTick + idleTicks;
+        int eventTick = next < actor.stopTick ? (int) next : Integer.MAX_VALUE;
+        if (eventTick != actor.eventTick) {
+            unschedule(actor);
+            actor.eventTick = eventTick;
+            if (eventTick != Integer.MAX_VALUE) {
+                events.add(actor);
+            }
+        }
+    }
+
+    private void unschedule(SimulatedActor actor) {
+        if (actor.eventTick != Integer.MAX_VALUE) {
+            events.remove(actor);
+            actor.eventTick = Integer.MAX_VALUE;
+        }
+    }
+
+    /**
+     * Restores a consistent state, if an actor throws during the tick in progress.
+     * The tick is not completed, so the next call to {@link #tick()} executes it again
+     * for all actors. Actors already ticked are therefore ticked twice, exactly like
+     * it would happen if every actor was ticked every time.
+     */
+    void abortTick() {
+        for (SimulatedActor actor : stoppedDuringTick) {
+            if (actor.getId() <= tickedUpToId) {
+                // has been ticked before it was stopped
+                sync(actor, currentTime + 1);
+            } else if (actor.getId() < firstIdOfTick) {
+                // was not reached in the tick, and will not take part in the repetition
+                actor.stopTick = currentTime;
+                unschedule(actor);
+            }
+        }
+        for (SimulatedActor actor : actors) {
+            if (actor.getId() <= tickedUpToId || actor.getId() >= firstIdOfTick) {
+                sync(actor, currentTime + 1);
+                actor.syncedTick = currentTime;
+                reschedule(actor);
+            }
+        }
     }
 }
@@ -0,0 +1,55 @@
+package at.tugraz.ist.qs2021.actorsystem;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.List;
+
+/**
+ * Message log writing every message to a sink, e.g. a file, instead of keeping it on the heap.
+ * <p>
+ * Every message is written as one line consisting of the id of the receiving actor, its
+ * time since system start and the string representation of the message, separated by tabs.
+ * The same writer may be shared by the logs of many actors. Flushing and closing it is up
+ * to the caller.
+ */
+public class StreamingMessageLog implements IMessageLog {
+    private final Writer sink;
+    private final IMessageLog retained;
+
+    /**
+     * Constructs a StreamingMessageLog, which does not retain any messages.
+     *
+     * @param sink The writer receiving the log lines.
+     */
+    public StreamingMessageLog(Writer sink) {
+        this(sink, DisabledMessageLog.INSTANCE);
+    }
+
+    /**
+     * Constructs a StreamingMessageLog.
+     *
+     * @param sink     The writer receiving the log lines.
+     * @param retained The log additionally receiving all messages, returned by {@link #getMessages()}.
+     */
+    public StreamingMessageLog(Writer sink, IMessageLog retained) {
+        this.sink = sink;
+        this.retained = retained;
+    }
+
+    @Override
+    public void add(SimulatedActor receiver, Message message) {
+        String line = receiver.getId() + "\t" + receiver.getTimeSinceSystemStart() + "\t" + message + System.lineSeparator();
+        try {
+            sink.write(line);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        retained.add(receiver, message);
+    }
+
+    @Override
+    public List<Message> getMessages() {
+        return retained.getMessages();
+    }
+}
@@ -0,0 +1,40 @@
+package at.tugraz.ist.qs2021.actorsystem;
+
+/**
+ * Envelope carrying a message through the channel and the mailbox of an actor tracking
+ * latencies, together with the points in time it passed. It is unwrapped before the
+ * actor starts processing the message.
+ */
+final class TimedMessage implements Message {
+    final Message message;
+    final int sentTick;
+    final long sentNanos;
+    int arrivedTick;
+    long arrivedNanos;
+    int startedTick;
+    long startedNanos;
+
+    TimedMessage(Message message, int sentTick, long sentNanos) {
+        this.message = message;
+        this.sentTick = sentTick;
+        this.sentNanos = sentNanos;
+    }
+
+    /**
+     * @param message a message taken from a mailbox
+     * @return The message itself, respectively the wrapped message, if it is an envelope.
+     */
+    static Message unwrap(Message message) {
+        return message instanceof TimedMessage ? ((TimedMessage) message).message : message;
+    }
+
+    @Override
+    public int getDuration() {
+        return message.getDuration();
+    }
+
+    @Override
+    public String toString() {
+        return message.toString();
+    }
+}
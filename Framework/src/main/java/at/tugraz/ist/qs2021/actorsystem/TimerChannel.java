@@ -0,0 +1,50 @@
+package at.tugraz.ist.qs2021.actorsystem;
+
+import java.util.List;
+
+/**
+ * Holds the scheduled messages of an actor until they are due. Like the messages
+ * on a communication channel, a message scheduled with a delay of n ticks is returned
+ * by the (n + 1)-th call to {@link #tick()}.
+ * <p>
+ * It keeps the messages in a {@link CommunicationChannel}, but only offers adding them
+ * with a delay, as scheduled messages cannot be sent without one.
+ */
+final class TimerChannel {
+
+    /**
+     * Messages waiting until they are due, always added with an explicit delay.
+     */
+    private final CommunicationChannel channel = new DeterministicChannel(0);
+
+    /**
+     * Adds a scheduled message.
+     *
+     * @param delay     number of ticks until the message is due
+     * @param scheduled the message
+     */
+    void addMessage(int delay, ScheduledMessage scheduled) {
+        channel.addMessage(delay, scheduled);
+    }
+
+    /**
+     * @return The messages due in this tick, see {@link CommunicationChannel#tick()}.
+     */
+    List<Message> tick() {
+        return channel.tick();
+    }
+
+    /**
+     * @return Number of ticks until the next message is due, see {@link ICommunicationChannel#ticksUntilNextDelivery()}.
+     */
+    int ticksUntilNextDelivery() {
+        return channel.ticksUntilNextDelivery();
+    }
+
+    /**
+     * @param ticks number of ticks, less than {@link #ticksUntilNextDelivery()}
+     */
+    void skipTicks(int ticks) {
+        channel.skipTicks(ticks);
+    }
+}
@@ -0,0 +1,79 @@
+package at.tugraz.ist.qs2021.actorsystem;
+
+/**
+ * A tell or receive event read from a trace file, see {@link MessageTraceReader}.
+ */
+public final class TraceRecord {
+
+    /**
+     * Kind of an event.
+     */
+    public enum Kind {
+        /**
+         * A message was sent to the receiver.
+         */
+        TELL,
+        /**
+         * The receiver received a message.
+         */
+        RECEIVE
+    }
+
+    private final Kind kind;
+    private final int tick;
+    private final long senderId;
+    private final long receiverId;
+    private final String messageType;
+    private final long correlationId;
+
+    TraceRecord(Kind kind, int tick, long senderId, long receiverId, String messageType, long correlationId) {
+        this.kind = kind;
+        this.tick = tick;
+        this.senderId = senderId;
+        this.receiverId = receiverId;
+        this.messageType = messageType;
+        this.correlationId = correlationId;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    /**
+     * @return System time of the event.
+     */
+    public int getTick() {
+        return tick;
+    }
+
+    /**
+     * @return Id of the actor sending the message, {@link ISimulatedActorSystem#NEW_ACTOR} if it was
+     * sent from outside of the actors or the sender is unknown, which is the case for receive events.
+     */
+    public long getSenderId() {
+        return senderId;
+    }
+
+    public long getReceiverId() {
+        return receiverId;
+    }
+
+    /**
+     * @return Name of the message class.
+     */
+    public String getMessageType() {
+        return messageType;
+    }
+
+    /**
+     * @return See {@link CorrelatedMessage#getCorrelationId()}.
+     */
+    public long getCorrelationId() {
+        return correlationId;
+    }
+
+    @Override
+    public String toString() {
+        return tick + " " + kind + " " + senderId + " -> " + receiverId + " " + messageType + " #" + correlationId;
+    }
+}
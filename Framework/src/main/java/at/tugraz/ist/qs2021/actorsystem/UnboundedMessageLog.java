@@ -0,0 +1,26 @@
+package at.tugraz.ist.qs2021.actorsystem;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Message log keeping every message, which is the default.
+ */
+public class UnboundedMessageLog implements IMessageLog {
+    private final List<Message> messages = new ArrayList<>();
+
+    @Override
+    public void add(SimulatedActor receiver, Message message) {
+        messages.add(message);
+    }
+
+    @Override
+    public void addAll(SimulatedActor receiver, List<? extends Message> messages) {
+        this.messages.addAll(messages);
+    }
+
+    @Override
+    public List<Message> getMessages() {
+        return messages;
+    }
+}
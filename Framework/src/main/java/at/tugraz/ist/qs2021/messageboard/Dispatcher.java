@@ -1,6 +1,10 @@
 package at.tugraz.ist.qs2021.messageboard;
 
+import at.tugraz.ist.qs2021.actorsystem.BoundedMailbox;
+import at.tugraz.ist.qs2021.actorsystem.IMailbox;
+import at.tugraz.ist.qs2021.actorsystem.IRoutingStrategy;
 import at.tugraz.ist.qs2021.actorsystem.Message;
+import at.tugraz.ist.qs2021.actorsystem.OverflowPolicy;
 import at.tugraz.ist.qs2021.actorsystem.SimulatedActor;
 import at.tugraz.ist.qs2021.actorsystem.SimulatedActorSystem;
 import at.tugraz.ist.qs2021.messageboard.clientmessages.InitCommunication;
@@ -10,7 +14,7 @@ import at.tugraz.ist.qs2021.messageboard.dispatchermessages.StopAck;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Random;
+import java.util.function.Supplier;
 
 /**
  * Dispatcher mode which can either be normal or stopping,
@@ -58,27 +62,72 @@ public class Dispatcher extends SimulatedActor {
      */
     protected MessageStore messageStore;
 
+    /**
+     * capacity of the mailboxes of the workers and the message store,
+     * {@link #UNBOUNDED} if they are not limited
+     */
+    private final int mailboxCapacity;
+
+    /**
+     * creates the mailboxes of the workers, null for their default mailbox
+     */
+    private final Supplier<IMailbox> workerMailboxes;
+
+    /**
+     * chooses the worker of a new communication
+     */
+    private final IRoutingStrategy routing;
+
+    public final static int UNBOUNDED = 0;
+
     public Dispatcher(SimulatedActorSystem system, int numberOfWorkers) {
+        this(system, numberOfWorkers, new DispatcherOptions());
+    }
+
+    /**
+     * Constructs a Dispatcher with the given options, e.g. bounded mailboxes,
+     * priority mailboxes for the workers or another routing strategy.
+     *
+     * @param system          the actor system used to spawn actors
+     * @param numberOfWorkers the number of workers
+     * @param options         the options, which are copied
+     */
+    public Dispatcher(SimulatedActorSystem system, int numberOfWorkers, DispatcherOptions options) {
         this.system = system;
         this.workers = new ArrayList<>(numberOfWorkers);
         this.numberOfWorkers = numberOfWorkers;
         this.mode = Mode.NORMAL;
         this.acksToCollect = new ArrayList<>();
+        this.mailboxCapacity = options.mailboxCapacity;
+        if (options.workerMailboxes != null || options.mailboxCapacity == UNBOUNDED) {
+            this.workerMailboxes = options.workerMailboxes;
+        } else {
+            int capacity = options.mailboxCapacity;
+            this.workerMailboxes = () -> new BoundedMailbox(capacity, OverflowPolicy.REJECT);
+        }
+        this.routing = options.routing != null ? options.routing : new CommunicationIdRouting();
+        registerHandler(Stop.class, this::processStop);
+        registerHandler(InitCommunication.class, this::processInitCommunication);
+        registerHandler(StopAck.class, this::processStopAck);
+    }
+
+    /**
+     * @return The message store, e.g. to give it a capacity of several messages processed concurrently,
+     * null before the dispatcher is spawned.
+     */
+    public MessageStore getMessageStore() {
+        return messageStore;
     }
 
     /**
      * Depending on messages sent and the mode, different actions are performed.
+     * The message is passed to the handler registered for its type in the constructor.
      *
      * @param message Non-null message received
      */
     @Override
-    public void receive(Message message) {
-        if (mode == Mode.NORMAL) {
-            normalOperation(message);
-        }
-        if (mode == Mode.STOPPING) {
-            stopping(message);
-        }
+    public void receive(Message message) throws UnknownClientException {
+        dispatch(message);
     }
 
     /**
@@ -86,65 +135,87 @@ public class Dispatcher extends SimulatedActor {
      */
     @Override
     public void atStartUp() {
-        messageStore = new MessageStore();
+        messageStore = new MessageStore(mailboxCapacity);
         for (int i = 0; i < numberOfWorkers; i++) {
-            Worker w = new Worker(this, messageStore, system);
+            Worker w = new Worker(this, messageStore, system, workerMailboxes == null ? null : workerMailboxes.get());
             system.spawn(w);
             workers.add(w);
         }
+        routing.routeesChanged(workers);
         system.spawn(messageStore);
     }
 
     /**
+     * In normal operation, a Stop message is broadcast to all workers and the mode
+     * is switched to STOPPING. In stopping mode it is ignored.
+     *
+     * @param stop the received message
+     */
+    private void processStop(Stop stop) {
+        if (mode == Mode.STOPPING) {
+            return;
+        }
+        for (Worker w : workers) {
+            acksToCollect.add(w.getId());
+            w.tell(new Stop());
+        }
+        mode = Mode.STOPPING;
+    }
+
+    /**
+     * In normal operation a InitCommunication-message is forwarded to one worker
+     * which is selected by the routing strategy. The default strategy selects the worker
+     * based on the communication id set in the message, see {@link CommunicationIdRouting}.
      * In stopping mode, InitCommunication always fail, which is signal
      * using an OperationFailed message sent to the client.
-     * In this mode, only StopAck-messages are expected and if all stop acknowledgements
-     * have been collected, the Dispatcher stop itself.
      *
-     * @param message received message
-     */
-    private void stopping(Message message) {
-        if (message instanceof InitCommunication) {
-            InitCommunication initM = ((InitCommunication) message);
-            initM.client.tell(new OperationFailed(initM.communicationId));
-        } else if (message instanceof StopAck) {
-            SimulatedActor actor = ((StopAck) message).sender;
-            acksToCollect.remove(actor.getId());
-            system.stop(actor);
-            if (acksToCollect.size() == 0) {
-                system.stop(messageStore);
-                system.stop(this);
-            }
+     * @param initC the received message
+     */
+    private void processInitCommunication(InitCommunication initC) {
+        if (mode == Mode.STOPPING) {
+            initC.client.tell(new OperationFailed(initC.communicationId));
+            return;
         }
+        Worker w = workers.get(routing.select(initC, workers));
+        w.tell(initC);
     }
 
     /**
-     * In normal operation messages are forwarded to workers.
-     * A InitCommunication-message is forwarded to one worker
-     * which is selected based on the communication id set in the message.
-     * The selection scheme is (if workers are numbered from 0 to n - 1)
-     * selected_worker_number = communication % n, where a % b is the non-negative
-     * remainder of the integer division a/b.
-     * If a Stop message is sent, it is broadcast to all workers and the mode
-     * is switched to STOPPING.
+     * In stopping mode, only StopAck-messages are expected and if all stop acknowledgements
+     * have been collected, the Dispatcher stop itself. In normal operation they are ignored.
      *
-     * @param message message received
-     */
-    private void normalOperation(Message message) {
-        if (message instanceof Stop) {
-            for (Worker w : workers) {
-                acksToCollect.add(w.getId());
-                w.tell(new Stop());
-            }
-            mode = Mode.STOPPING;
-        } else if (message instanceof InitCommunication) {
-            // decide upon id for now, maybe switch to login credentials TODO
-            InitCommunication initC = ((InitCommunication) message);
-            Random random = new Random(initC.communicationId);
-            int rnd = random.nextInt();
-            int index = (((rnd % workers.size()) + workers.size()) % workers.size());
-            Worker w = workers.get(index);
-            w.tell(message);
+     * @param stopAck the received message
+     */
+    private void processStopAck(StopAck stopAck) {
+        if (mode == Mode.NORMAL) {
+            return;
+        }
+        SimulatedActor actor = stopAck.sender;
+        acksToCollect.remove(actor.getId());
+        system.stop(actor);
+        if (acksToCollect.size() == 0) {
+            system.stop(messageStore);
+            system.stop(this);
+        }
+    }
+
+    /**
+     * Default routing of the dispatcher. The selection scheme is (if workers are numbered
+     * from 0 to n - 1) selected_worker_number = r % n, where r is the first value of
+     * {@code new Random(communicationId).nextInt()} and a % b is the non-negative remainder
+     * of the integer division a/b. The value is computed directly instead of creating a Random
+     * per communication.
+     */
+    static class CommunicationIdRouting implements IRoutingStrategy {
+        private static final long MULTIPLIER = 0x5DEECE66DL;
+        private static final long ADDEND = 0xBL;
+        private static final long MASK = (1L << 48) - 1;
+
+        @Override
+        public int select(Message message, List<? extends SimulatedActor> routees) {
+            long seed = (((InitCommunication) message).communicationId ^ MULTIPLIER) & MASK;
+            int rnd = (int) (((seed * MULTIPLIER + ADDEND) & MASK) >>> 16);
+            return ((rnd % routees.size()) + routees.size()) % routees.size();
         }
     }
 }
@@ -0,0 +1,74 @@
+package at.tugraz.ist.qs2021.messageboard;
+
+import at.tugraz.ist.qs2021.actorsystem.BoundedMailbox;
+import at.tugraz.ist.qs2021.actorsystem.IMailbox;
+import at.tugraz.ist.qs2021.actorsystem.IRoutingStrategy;
+import at.tugraz.ist.qs2021.actorsystem.OverflowPolicy;
+
+import java.util.function.Supplier;
+
+/**
+ * Optional settings of a {@link Dispatcher}, which can be combined freely, e.g.
+ * {@code new DispatcherOptions().mailboxCapacity(16).routing(new LeastMailboxRouting())}.
+ * The dispatcher copies them when it is constructed.
+ */
+public final class DispatcherOptions {
+
+    /**
+     * capacity of the mailboxes of the workers and the message store
+     */
+    int mailboxCapacity = Dispatcher.UNBOUNDED;
+
+    /**
+     * creates the mailboxes of the workers, null to derive them from the capacity
+     */
+    Supplier<IMailbox> workerMailboxes = null;
+
+    /**
+     * chooses the worker of a new communication, null for a {@link CommunicationIdRouting}
+     */
+    IRoutingStrategy routing = null;
+
+    /**
+     * Lets the workers and the message store reject messages arriving while their mailbox
+     * is full with an OperationFailed reply, so they shed load instead of queueing an unlimited
+     * number of messages. Workers use a {@link BoundedMailbox} with {@link OverflowPolicy#REJECT},
+     * unless {@link #workerMailboxes(Supplier)} is set.
+     *
+     * @param mailboxCapacity the capacity of the mailboxes, {@link Dispatcher#UNBOUNDED} for no limit
+     * @return this
+     * @throws IllegalArgumentException if the capacity is negative
+     */
+    public DispatcherOptions mailboxCapacity(int mailboxCapacity) {
+        if (mailboxCapacity < 0) {
+            throw new IllegalArgumentException("mailboxCapacity must not be negative");
+        }
+        this.mailboxCapacity = mailboxCapacity;
+        return this;
+    }
+
+    /**
+     * Lets the workers use mailboxes created by the given supplier, e.g. {@code PriorityMailbox::new}
+     * to let Stop and InitCommunication messages overtake waiting operations.
+     *
+     * @param workerMailboxes creates a new mailbox for every worker, null for the default one
+     * @return this
+     */
+    public DispatcherOptions workerMailboxes(Supplier<IMailbox> workerMailboxes) {
+        this.workerMailboxes = workerMailboxes;
+        return this;
+    }
+
+    /**
+     * Lets the dispatcher choose the worker of a new communication with the given strategy,
+     * e.g. a {@link at.tugraz.ist.qs2021.actorsystem.LeastMailboxRouting} so busy workers get fewer
+     * communications. By default, the worker is chosen based on the communication id.
+     *
+     * @param routing the strategy, which must not be shared with other dispatchers or routers
+     * @return this
+     */
+    public DispatcherOptions routing(IRoutingStrategy routing) {
+        this.routing = routing;
+        return this;
+    }
+}
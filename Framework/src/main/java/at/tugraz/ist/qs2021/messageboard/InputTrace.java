@@ -0,0 +1,325 @@
+package at.tugraz.ist.qs2021.messageboard;
+
+import at.tugraz.ist.qs2021.actorsystem.Message;
+import at.tugraz.ist.qs2021.actorsystem.SimulatedActor;
+import at.tugraz.ist.qs2021.actorsystem.SimulatedActorSystem;
+import at.tugraz.ist.qs2021.messageboard.clientmessages.*;
+import at.tugraz.ist.qs2021.messageboard.dispatchermessages.Stop;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Trace of the external inputs of a message board, i.e. the messages clients send to the
+ * dispatcher and to workers together with the tick at which they were sent, and the state of
+ * the message store at the end of the recorded run. It is replayed by {@link TraceReplay}.
+ * <p>
+ * Messages are recorded by their contents, not as objects, so later changes to them do not
+ * alter the trace and every replay creates fresh messages. The tick of a message is the time
+ * of its receiver when it was sent, which is the tick before which it has to be sent in a replay.
+ * <p>
+ * Traces are stored as text with one tab separated line per entry:
+ * <pre>
+ * workers &lt;number of workers&gt;
+ * input &lt;tick&gt; &lt;message class&gt; &lt;communication id&gt; &lt;fields...&gt;
+ * end &lt;tick&gt;
+ * state &lt;line of the store state&gt;
+ * </pre>
+ * Tabs, line breaks and backslashes within fields are escaped with a backslash.
+ */
+public class InputTrace {
+
+    /**
+     * A recorded input, which is the name of the message class followed by its fields.
+     */
+    public static final class Input {
+        private final int tick;
+        private final String[] fields;
+
+        private Input(int tick, String[] fields) {
+            this.tick = tick;
+            this.fields = fields;
+        }
+
+        /**
+         * @return The tick before which the message is sent.
+         */
+        public int getTick() {
+            return tick;
+        }
+
+        /**
+         * @return The simple name of the message class.
+         */
+        public String getType() {
+            return fields[0];
+        }
+
+        /**
+         * @return The communication id of the message, null for a Stop message.
+         */
+        public Long getCommunicationId() {
+            return fields.length > 1 ? Long.parseLong(fields[1]) : null;
+        }
+
+        /**
+         * Creates a new message with the recorded contents.
+         *
+         * @param client the client set in InitCommunication messages
+         * @return the message
+         */
+        public Message toMessage(SimulatedActor client) {
+            switch (fields[0]) {
+                case "Stop":
+                    return new Stop();
+                case "InitCommunication":
+                    return new InitCommunication(client, getCommunicationId());
+                case "Publish":
+                    return new Publish(new UserMessage(fields[2], fields[3]), getCommunicationId());
+                case "Like":
+                    return new Like(fields[2], getCommunicationId(), Long.parseLong(fields[3]));
+                case "Dislike":
+                    return new Dislike(fields[2], getCommunicationId(), Long.parseLong(fields[3]));
+                case "Report":
+                    return new Report(fields[2], getCommunicationId(), fields[3]);
+                case "RetrieveMessages":
+                    return new RetrieveMessages(fields[2], getCommunicationId());
+                case "SearchMessages":
+                    return new SearchMessages(fields[2], getCommunicationId());
+                case "FinishCommunication":
+                    return new FinishCommunication(getCommunicationId());
+                default:
+                    throw new IllegalStateException("unknown input type " + fields[0]);
+            }
+        }
+    }
+
+    private final int numberOfWorkers;
+    private final List<Input> inputs = new ArrayList<>();
+    private int endTick = -1;
+    private List<String> expectedState = null;
+
+    /**
+     * Constructs an empty trace.
+     *
+     * @param numberOfWorkers number of workers of the recorded dispatcher
+     */
+    public InputTrace(int numberOfWorkers) {
+        this.numberOfWorkers = numberOfWorkers;
+    }
+
+    /**
+     * Records the message at the current time of the receiver and sends it.
+     * Clients use this method instead of {@link SimulatedActor#tell(Message)} while recording.
+     *
+     * @param receiver the dispatcher or a worker
+     * @param message  a message sent by a client or a Stop message
+     */
+    public void tell(SimulatedActor receiver, Message message) {
+        add(receiver.getTimeSinceSystemStart(), message);
+        receiver.tell(message);
+    }
+
+    /**
+     * Records a message sent at the given tick.
+     *
+     * @param tick    the tick before which the message is sent in a replay
+     * @param message a message sent by a client or a Stop message
+     */
+    public void add(int tick, Message message) {
+        inputs.add(new Input(tick, encode(message)));
+    }
+
+    /**
+     * Records the state of the message store of the dispatcher and the current time of the system
+     * as end of the trace. Must not be called during a tick.
+     *
+     * @param system     the system of the recorded run
+     * @param dispatcher the dispatcher of the recorded run
+     */
+    public void finish(SimulatedActorSystem system, Dispatcher dispatcher) {
+        endTick = system.getCurrentTime();
+        expectedState = dispatcher.messageStore.describeState();
+    }
+
+    public int getNumberOfWorkers() {
+        return numberOfWorkers;
+    }
+
+    /**
+     * @return All inputs in the order they were recorded.
+     */
+    public List<Input> getInputs() {
+        return Collections.unmodifiableList(inputs);
+    }
+
+    /**
+     * @return The time at the end of the recorded run, -1 if it was not finished.
+     */
+    public int getEndTick() {
+        return endTick;
+    }
+
+    /**
+     * @return The state of the message store at the end of the recorded run, null if it was not finished.
+     */
+    public List<String> getExpectedState() {
+        return expectedState;
+    }
+
+    private static String[] encode(Message message) {
+        if (message instanceof Stop) {
+            return new String[]{"Stop"};
+        }
+        if (!(message instanceof ClientMessage)) {
+            throw new IllegalArgumentException("not an input of the message board: " + message);
+        }
+        String id = String.valueOf(((ClientMessage) message).communicationId);
+        if (message instanceof InitCommunication) {
+            return new String[]{"InitCommunication", id};
+        } else if (message instanceof FinishCommunication) {
+            return new String[]{"FinishCommunication", id};
+        } else if (message instanceof Publish) {
+            UserMessage userMessage = ((Publish) message).message;
+            return new String[]{"Publish", id, userMessage.getAuthor(), userMessage.getMessage()};
+        } else if (message instanceof Like) {
+            return new String[]{"Like", id, ((Like) message).clientName, String.valueOf(((Like) message).messageId)};
+        } else if (message instanceof Dislike) {
+            return new String[]{"Dislike", id, ((Dislike) message).clientName, String.valueOf(((Dislike) message).messageId)};
+        } else if (message instanceof Report) {
+            return new String[]{"Report", id, ((Report) message).clientName, ((Report) message).reportedClientName};
+        } else if (message instanceof RetrieveMessages) {
+            return new String[]{"RetrieveMessages", id, ((RetrieveMessages) message).author};
+        } else if (message instanceof SearchMessages) {
+            return new String[]{"SearchMessages", id, ((SearchMessages) message).searchText};
+        }
+        throw new IllegalArgumentException("not an input of the message board: " + message);
+    }
+
+    /**
+     * Writes the trace in the text format described above.
+     *
+     * @param out where to write to
+     */
+    public void write(Writer out) {
+        PrintWriter writer = new PrintWriter(out);
+        writer.println("workers\t" + numberOfWorkers);
+        for (Input input : inputs) {
+            StringBuilder line = new StringBuilder("input\t").append(input.tick);
+            for (String field : input.fields) {
+                line.append('\t').append(escape(field));
+            }
+            writer.println(line);
+        }
+        if (expectedState != null) {
+            writer.println("end\t" + endTick);
+            for (String line : expectedState) {
+                writer.println("state\t" + escape(line));
+            }
+        }
+        writer.flush();
+    }
+
+    /**
+     * Reads a trace written by {@link #write(Writer)}.
+     *
+     * @param in where to read from
+     * @return the trace
+     * @throws IOException if reading fails or the input is no trace
+     */
+    public static InputTrace read(Reader in) throws IOException {
+        BufferedReader reader = new BufferedReader(in);
+        String line = reader.readLine();
+        if (line == null || !line.startsWith("workers\t")) {
+            throw new IOException("not an input trace");
+        }
+        InputTrace trace;
+        try {
+            trace = new InputTrace(Integer.parseInt(line.substring("workers\t".length())));
+            int lineNumber = 1;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                String[] fields = line.split("\t", -1);
+                if (fields[0].equals("input") && fields.length >= 3) {
+                    String[] messageFields = new String[fields.length - 2];
+                    for (int i = 0; i < messageFields.length; i++) {
+                        messageFields[i] = unescape(fields[i + 2]);
+                    }
+                    trace.inputs.add(new Input(Integer.parseInt(fields[1]), messageFields));
+                } else if (fields[0].equals("end") && fields.length == 2) {
+                    trace.endTick = Integer.parseInt(fields[1]);
+                    trace.expectedState = new ArrayList<>();
+                } else if (fields[0].equals("state") && fields.length == 2 && trace.expectedState != null) {
+                    trace.expectedState.add(unescape(fields[1]));
+                } else {
+                    throw new IOException("malformed line " + lineNumber + ": " + Arrays.toString(fields));
+                }
+            }
+        } catch (NumberFormatException e) {
+            throw new IOException("malformed input trace", e);
+        }
+        return trace;
+    }
+
+    private static String escape(String field) {
+        StringBuilder escaped = new StringBuilder(field.length());
+        for (int i = 0; i < field.length(); i++) {
+            char c = field.charAt(i);
+            switch (c) {
+                case '\\':
+                    escaped.append("\\\\");
+                    break;
+                case '\t':
+                    escaped.append("\\t");
+                    break;
+                case '\n':
+                    escaped.append("\\n");
+                    break;
+                case '\r':
+                    escaped.append("\\r");
+                    break;
+                default:
+                    escaped.append(c);
+            }
+        }
+        return escaped.toString();
+    }
+
+    private static String unescape(String field) throws IOException {
+        if (field.indexOf('\\') < 0) {
+            return field;
+        }
+        StringBuilder unescaped = new StringBuilder(field.length());
+        for (int i = 0; i < field.length(); i++) {
+            char c = field.charAt(i);
+            if (c != '\\') {
+                unescaped.append(c);
+                continue;
+            }
+            if (++i == field.length()) {
+                throw new IOException("dangling escape in " + field);
+            }
+            switch (field.charAt(i)) {
+                case 't':
+                    unescaped.append('\t');
+                    break;
+                case 'n':
+                    unescaped.append('\n');
+                    break;
+                case 'r':
+                    unescaped.append('\r');
+                    break;
+                default:
+                    unescaped.append(field.charAt(i));
+            }
+        }
+        return unescaped.toString();
+    }
+}
@@ -1,7 +1,11 @@
 package at.tugraz.ist.qs2021.messageboard;
 
+import at.tugraz.ist.qs2021.actorsystem.BoundedMailbox;
 import at.tugraz.ist.qs2021.actorsystem.DeterministicChannel;
+import at.tugraz.ist.qs2021.actorsystem.IMailbox;
 import at.tugraz.ist.qs2021.actorsystem.Message;
+import at.tugraz.ist.qs2021.actorsystem.MpscArrayMailbox;
+import at.tugraz.ist.qs2021.actorsystem.OverflowPolicy;
 import at.tugraz.ist.qs2021.actorsystem.SimulatedActor;
 import at.tugraz.ist.qs2021.messageboard.clientmessages.*;
 import at.tugraz.ist.qs2021.messageboard.messagestoremessages.*;
@@ -33,18 +37,73 @@ public class MessageStore extends SimulatedActor {
 
     public final static int USER_BLOCKED_AT_COUNT = 6;
 
+    /**
+     * initial capacity of the mailbox of the store
+     */
+    private static final int STORE_MAILBOX_CAPACITY = 64;
+
+    /**
+     * capacity of the mailbox, {@link Dispatcher#UNBOUNDED} if it is not limited
+     */
+    private final int mailboxCapacity;
+
     /**
      * Constructs a new MessageStore object, the channel is set to a
      * deterministic channel with no delay to simulate a good connection to
      * the store.
      */
     public MessageStore() {
+        this(Dispatcher.UNBOUNDED);
+    }
+
+    /**
+     * Constructs a new MessageStore object like {@link #MessageStore()}, which rejects messages
+     * arriving while mailboxCapacity messages are waiting with an OperationFailed reply.
+     *
+     * @param mailboxCapacity the capacity of the mailbox, {@link Dispatcher#UNBOUNDED} for no limit
+     */
+    public MessageStore(int mailboxCapacity) {
+        this.mailboxCapacity = mailboxCapacity;
         this.messages = new HashMap<>();
         this.reports = new HashMap<>();
 
         this.currentId = 0;
         // good connection between WorkerHelper and MessageStore -> no delay
         this.channel = new DeterministicChannel(0);
+        registerHandler(RetrieveFromStore.class, this::processRetrieveFromStore);
+        registerHandler(AddLike.class, this::processAddLike);
+        registerHandler(AddDislike.class, this::processAddDislike);
+        registerHandler(UpdateMessageStore.class, this::processUpdateMessageStore);
+        registerHandler(AddReport.class, this::processAddReport);
+        registerHandler(SearchInStore.class, this::processSearchInStore);
+    }
+
+    /**
+     * Creates the mailbox when the first message arrives.
+     *
+     * @return A bounded mailbox rejecting messages if a capacity is set, otherwise a mailbox
+     * starting out larger than usual, as all worker helpers send to the store.
+     */
+    @Override
+    protected IMailbox newMailbox() {
+        if (mailboxCapacity == Dispatcher.UNBOUNDED) {
+            return new MpscArrayMailbox(STORE_MAILBOX_CAPACITY);
+        }
+        return new BoundedMailbox(mailboxCapacity, OverflowPolicy.REJECT);
+    }
+
+    /**
+     * Replies with an OperationFailed message to the store client of a rejected message.
+     *
+     * @param message the rejected message
+     * @param policy  the policy of the mailbox
+     */
+    @Override
+    protected void mailboxOverflow(Message message, OverflowPolicy policy) {
+        if (message instanceof MessageStoreMessage) {
+            MessageStoreMessage storeMessage = (MessageStoreMessage) message;
+            storeMessage.storeClient.tell(new OperationFailed(storeMessage.communicationId));
+        }
     }
 
     /**
@@ -74,56 +133,82 @@ public class MessageStore extends SimulatedActor {
      * In case of success a OperationAck message is sent to the client, otherwise
      * an UserBanned message or an OperationFailed message is sent, depending
      * on if the user was reported too often.
+     * <p>
+     * The message is passed to the handler registered for its type in the constructor.
      *
      * @param message Non-null message received
      */
     @Override
-    public void receive(Message message) {
-        if (message instanceof RetrieveFromStore) {
-            RetrieveFromStore retrieve = (RetrieveFromStore) message;
-            List<UserMessage> foundMessage = findByAuthor(retrieve.author);
-            retrieve.storeClient.tell(new FoundMessages(foundMessage, retrieve.communicationId));
-        } else if (message instanceof AddLike) {
-            AddLike addLikeMessage = (AddLike) message;
-            if (isBanned(addLikeMessage.clientName)) {
-                addLikeMessage.storeClient.tell(new UserBanned(addLikeMessage.communicationId));
-            } else if (addLike(addLikeMessage.clientName, addLikeMessage.messageId)) {
-                addLikeMessage.storeClient.tell(new OperationAck(addLikeMessage.communicationId));
-            } else {
-                addLikeMessage.storeClient.tell(new OperationFailed(addLikeMessage.communicationId));
-            }
-        } else if (message instanceof AddDislike) {
-            AddDislike addDislikeMessage = (AddDislike) message;
-            if (isBanned(addDislikeMessage.clientName)) {
-                addDislikeMessage.storeClient.tell(new UserBanned(addDislikeMessage.communicationId));
-            } else if (addDislike(addDislikeMessage.clientName, addDislikeMessage.messageId)) {
-                addDislikeMessage.storeClient.tell(new OperationAck(addDislikeMessage.communicationId));
-            } else {
-                addDislikeMessage.storeClient.tell(new OperationFailed(addDislikeMessage.communicationId));
-            }
-        } else if (message instanceof UpdateMessageStore) {
-            UpdateMessageStore updateMessage = (UpdateMessageStore) message;
-            if (isBanned(updateMessage.message.getAuthor())) {
-                updateMessage.storeClient.tell(new UserBanned(updateMessage.communicationId));
-            } else if (update(updateMessage.message)) {
-                updateMessage.storeClient.tell(new OperationAck(updateMessage.communicationId));
-            } else {
-                updateMessage.storeClient.tell(new OperationFailed(updateMessage.communicationId));
-            }
-        } else if (message instanceof AddReport) {
-            AddReport reportMessage = (AddReport) message;
-            if (isBanned(reportMessage.clientName)) {
-                reportMessage.storeClient.tell(new UserBanned(reportMessage.communicationId));
-            } else if (addReport(reportMessage.clientName, reportMessage.reportedClientName)) {
-                reportMessage.storeClient.tell(new OperationAck(reportMessage.communicationId));
-            } else {
-                reportMessage.storeClient.tell(new OperationFailed(reportMessage.communicationId));
-            }
-        } else if (message instanceof SearchInStore) {
-            SearchInStore searchMessage = (SearchInStore) message;
-            List<UserMessage> foundMessage = findByAuthorOrText(searchMessage.searchText);
-            searchMessage.storeClient.tell(new FoundMessages(foundMessage, searchMessage.communicationId));
+    public void receive(Message message) throws UnknownClientException {
+        dispatch(message);
+    }
+
+    private void processRetrieveFromStore(RetrieveFromStore retrieve) {
+        List<UserMessage> foundMessage = findByAuthor(retrieve.author);
+        retrieve.storeClient.tell(new FoundMessages(foundMessage, retrieve.communicationId));
+    }
+
+    private void processAddLike(AddLike addLikeMessage) {
+        if (isBanned(addLikeMessage.clientName)) {
+            addLikeMessage.storeClient.tell(new UserBanned(addLikeMessage.communicationId));
+        } else if (addLike(addLikeMessage.clientName, addLikeMessage.messageId)) {
+            addLikeMessage.storeClient.tell(new OperationAck(addLikeMessage.communicationId));
+        } else {
+            addLikeMessage.storeClient.tell(new OperationFailed(addLikeMessage.communicationId));
+        }
+    }
+
+    private void processAddDislike(AddDislike addDislikeMessage) {
+        if (isBanned(addDislikeMessage.clientName)) {
+            addDislikeMessage.storeClient.tell(new UserBanned(addDislikeMessage.communicationId));
+        } else if (addDislike(addDislikeMessage.clientName, addDislikeMessage.messageId)) {
+            addDislikeMessage.storeClient.tell(new OperationAck(addDislikeMessage.communicationId));
+        } else {
+            addDislikeMessage.storeClient.tell(new OperationFailed(addDislikeMessage.communicationId));
+        }
+    }
+
+    private void processUpdateMessageStore(UpdateMessageStore updateMessage) {
+        if (isBanned(updateMessage.message.getAuthor())) {
+            updateMessage.storeClient.tell(new UserBanned(updateMessage.communicationId));
+        } else if (update(updateMessage.message)) {
+            updateMessage.storeClient.tell(new OperationAck(updateMessage.communicationId));
+        } else {
+            updateMessage.storeClient.tell(new OperationFailed(updateMessage.communicationId));
+        }
+    }
+
+    private void processAddReport(AddReport reportMessage) {
+        if (isBanned(reportMessage.clientName)) {
+            reportMessage.storeClient.tell(new UserBanned(reportMessage.communicationId));
+        } else if (addReport(reportMessage.clientName, reportMessage.reportedClientName)) {
+            reportMessage.storeClient.tell(new OperationAck(reportMessage.communicationId));
+        } else {
+            reportMessage.storeClient.tell(new OperationFailed(reportMessage.communicationId));
+        }
+    }
+
+    private void processSearchInStore(SearchInStore searchMessage) {
+        List<UserMessage> foundMessage = findByAuthorOrText(searchMessage.searchText);
+        searchMessage.storeClient.tell(new FoundMessages(foundMessage, searchMessage.communicationId));
+    }
+
+    /**
+     * Describes the stored messages and reports in a canonical form, which does not depend
+     * on the iteration order of the underlying maps. Used to compare the state of stores.
+     *
+     * @return one line per message, ordered by id, followed by one line per reported user
+     */
+    List<String> describeState() {
+        List<String> state = new ArrayList<>();
+        for (UserMessage message : new TreeMap<>(messages).values()) {
+            state.add("message " + message.getMessageId() + " " + message.getAuthor() + ": " + message.getMessage()
+                    + " likes=" + message.getLikes() + " dislikes=" + message.getDislikes());
+        }
+        for (Map.Entry<String, HashSet<String>> report : new TreeMap<>(reports).entrySet()) {
+            state.add("reported " + report.getKey() + " by " + new TreeSet<>(report.getValue()));
         }
+        return state;
     }
 
     private boolean isBanned(String clientName) {
@@ -0,0 +1,196 @@
+package at.tugraz.ist.qs2021.messageboard;
+
+import at.tugraz.ist.qs2021.actorsystem.Message;
+import at.tugraz.ist.qs2021.actorsystem.SimulatedActor;
+import at.tugraz.ist.qs2021.actorsystem.SimulatedActorSystem;
+import at.tugraz.ist.qs2021.messageboard.clientmessages.InitAck;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Replays an {@link InputTrace} into a fresh {@link SimulatedActorSystem} with a {@link Dispatcher},
+ * as fast as the system allows, and checks that the message store ends up in the recorded state.
+ * <p>
+ * No client actors take part in a replay: every input is sent to its receiver right before the
+ * recorded tick, the dispatcher for InitCommunication and Stop messages and otherwise the worker,
+ * which acknowledged the communication. All replies to clients go to a single stand-in, which is
+ * not spawned and only remembers the workers of the communications and counts the replies.
+ * The system runs in discrete event mode, so ticks without any event are skipped.
+ * <p>
+ * Usage: {@code java at.tugraz.ist.qs2021.messageboard.TraceReplay <trace file> [repetitions]}
+ */
+public class TraceReplay {
+
+    /**
+     * Outcome of a replay.
+     */
+    public static final class Result {
+        private final int ticks;
+        private final long elapsedNanos;
+        private final long usedHeapBytes;
+        private final long replies;
+        private final List<String> state;
+        private final boolean matches;
+
+        private Result(int ticks, long elapsedNanos, long usedHeapBytes, long replies, List<String> state, boolean matches) {
+            this.ticks = ticks;
+            this.elapsedNanos = elapsedNanos;
+            this.usedHeapBytes = usedHeapBytes;
+            this.replies = replies;
+            this.state = state;
+            this.matches = matches;
+        }
+
+        /**
+         * @return Number of ticks simulated.
+         */
+        public int getTicks() {
+            return ticks;
+        }
+
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        /**
+         * @return Simulated ticks per second of wall-clock time.
+         */
+        public double getTicksPerSecond() {
+            return elapsedNanos == 0 ? 0 : ticks * 1e9 / elapsedNanos;
+        }
+
+        /**
+         * @return Heap in use at the end of the replay, including garbage not collected yet.
+         */
+        public long getUsedHeapBytes() {
+            return usedHeapBytes;
+        }
+
+        /**
+         * @return Number of replies sent to clients.
+         */
+        public long getReplies() {
+            return replies;
+        }
+
+        /**
+         * @return The state of the message store at the end of the replay.
+         */
+        public List<String> getState() {
+            return state;
+        }
+
+        /**
+         * @return True if the state equals the state recorded in the trace, false if it differs
+         * or the trace does not contain a state.
+         */
+        public boolean matches() {
+            return matches;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d ticks in %.1f ms (%.0f ticks/s), %d replies, %.1f MB heap used, store state %s",
+                    ticks, elapsedNanos / 1e6, getTicksPerSecond(), replies, usedHeapBytes / (1024.0 * 1024.0),
+                    matches ? "matches" : "differs");
+        }
+    }
+
+    /**
+     * Stands in for all clients. Messages told to it are handled right away instead of being
+     * sent via a channel, so it never needs to be ticked.
+     */
+    private static final class ReplayClient extends SimulatedActor {
+        private final Map<Long, SimulatedActor> workers = new HashMap<>();
+        private long replies = 0;
+
+        @Override
+        public void tell(Message message) {
+            replies++;
+            if (message instanceof InitAck) {
+                InitAck ack = (InitAck) message;
+                workers.put(ack.communicationId, ack.worker);
+            }
+        }
+
+        @Override
+        public void receive(Message message) {
+        }
+    }
+
+    /**
+     * Replays the trace until its end tick, respectively until the tick of the last input if it has none.
+     *
+     * @param trace the trace to replay
+     * @return the outcome
+     * @throws UnknownClientException if a worker does not know the communication of an input
+     * @throws IllegalStateException  if an input is sent for a communication no worker has acknowledged
+     */
+    public static Result replay(InputTrace trace) throws UnknownClientException {
+        List<InputTrace.Input> inputs = new ArrayList<>(trace.getInputs());
+        // stable, so inputs for the same tick keep the order they were sent in
+        inputs.sort((a, b) -> Integer.compare(a.getTick(), b.getTick()));
+        int endTick = trace.getEndTick();
+        if (endTick < 0) {
+            endTick = inputs.isEmpty() ? 0 : inputs.get(inputs.size() - 1).getTick();
+        }
+
+        long start = System.nanoTime();
+        SimulatedActorSystem system = new SimulatedActorSystem();
+        Dispatcher dispatcher = new Dispatcher(system, trace.getNumberOfWorkers());
+        system.spawn(dispatcher);
+        ReplayClient client = new ReplayClient();
+        for (InputTrace.Input input : inputs) {
+            system.runUntil(input.getTick() - 1);
+            Message message = input.toMessage(client);
+            String type = input.getType();
+            if (type.equals("InitCommunication") || type.equals("Stop")) {
+                dispatcher.tell(message);
+            } else {
+                SimulatedActor worker = client.workers.get(input.getCommunicationId());
+                if (worker == null) {
+                    throw new IllegalStateException("no worker for communication " + input.getCommunicationId()
+                            + " at tick " + input.getTick());
+                }
+                worker.tell(message);
+            }
+        }
+        system.runUntil(endTick - 1);
+        long elapsed = System.nanoTime() - start;
+
+        Runtime runtime = Runtime.getRuntime();
+        long usedHeap = runtime.totalMemory() - runtime.freeMemory();
+        List<String> state = dispatcher.messageStore.describeState();
+        boolean matches = trace.getExpectedState() != null && trace.getExpectedState().equals(state);
+        return new Result(system.getCurrentTime(), elapsed, usedHeap, client.replies, state, matches);
+    }
+
+    public static void main(String[] args) throws IOException, UnknownClientException {
+        if (args.length < 1 || args.length > 2) {
+            System.err.println("usage: TraceReplay <trace file> [repetitions]");
+            System.exit(1);
+        }
+        InputTrace trace;
+        try (Reader in = Files.newBufferedReader(Paths.get(args[0]), StandardCharsets.UTF_8)) {
+            trace = InputTrace.read(in);
+        }
+        int repetitions = args.length == 2 ? Integer.parseInt(args[1]) : 1;
+        boolean allMatch = true;
+        for (int i = 0; i < repetitions; i++) {
+            Result result = replay(trace);
+            System.out.println(result);
+            allMatch &= result.matches();
+        }
+        if (!allMatch) {
+            System.exit(2);
+        }
+    }
+}
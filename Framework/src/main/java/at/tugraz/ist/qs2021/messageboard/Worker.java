@@ -1,6 +1,10 @@
 package at.tugraz.ist.qs2021.messageboard;
 
+import at.tugraz.ist.qs2021.actorsystem.BoundedMailbox;
+import at.tugraz.ist.qs2021.actorsystem.IMailbox;
 import at.tugraz.ist.qs2021.actorsystem.Message;
+import at.tugraz.ist.qs2021.actorsystem.OverflowPolicy;
+import at.tugraz.ist.qs2021.actorsystem.PriorityMailbox;
 import at.tugraz.ist.qs2021.actorsystem.SimulatedActor;
 import at.tugraz.ist.qs2021.actorsystem.SimulatedActorSystem;
 import at.tugraz.ist.qs2021.messageboard.clientmessages.*;
@@ -38,6 +42,19 @@ public class Worker extends SimulatedActor {
      */
     private boolean stopping;
 
+    /**
+     * flag which is set if a Stop message was rejected because the mailbox was full,
+     * the worker then stops before it receives the next message
+     */
+    private boolean stopRequested;
+
+    /**
+     * number of client messages rejected because the mailbox was full, by communication ID,
+     * whose communication has not been initiated yet. Their client is sent an OperationFailed
+     * message for each of them once the InitCommunication message is processed.
+     */
+    private final Map<Long, Integer> rejectedBeforeInit;
+
     /**
      * the maximum allowed length of a message
      */
@@ -51,11 +68,52 @@ public class Worker extends SimulatedActor {
      * @param system       the actor system simulation
      */
     public Worker(SimulatedActor dispatcher, SimulatedActor messageStore, SimulatedActorSystem system) {
+        this(dispatcher, messageStore, system, Dispatcher.UNBOUNDED);
+    }
+
+    /**
+     * Constructs a new Worker object, which rejects messages arriving while
+     * mailboxCapacity messages are waiting, see {@link #mailboxOverflow(Message, OverflowPolicy)}.
+     *
+     * @param dispatcher      the dispatcher
+     * @param messageStore    the message store responsible for persistence
+     * @param system          the actor system simulation
+     * @param mailboxCapacity the capacity of the mailbox, {@link Dispatcher#UNBOUNDED} for no limit
+     */
+    public Worker(SimulatedActor dispatcher, SimulatedActor messageStore, SimulatedActorSystem system, int mailboxCapacity) {
+        this(dispatcher, messageStore, system,
+                mailboxCapacity == Dispatcher.UNBOUNDED ? null : new BoundedMailbox(mailboxCapacity, OverflowPolicy.REJECT));
+    }
+
+    /**
+     * Constructs a new Worker object using the given mailbox, e.g. a {@link PriorityMailbox},
+     * so Stop and session messages overtake waiting operations.
+     *
+     * @param dispatcher   the dispatcher
+     * @param messageStore the message store responsible for persistence
+     * @param system       the actor system simulation
+     * @param mailbox      the mailbox, null for the default one
+     */
+    public Worker(SimulatedActor dispatcher, SimulatedActor messageStore, SimulatedActorSystem system, IMailbox mailbox) {
         this.dispatcher = dispatcher;
         this.messageStore = messageStore;
         this.ongoingCommunications = new HashMap<>();
         this.system = system;
         this.stopping = false;
+        this.stopRequested = false;
+        this.rejectedBeforeInit = new HashMap<>();
+        if (mailbox != null) {
+            this.mailbox = mailbox;
+        }
+        registerHandler(InitCommunication.class, this::processInitCommunication);
+        registerHandler(FinishCommunication.class, this::processFinishCommunication);
+        registerHandler(Stop.class, stop -> processStop());
+        registerHandler(Publish.class, this::processPublish);
+        registerHandler(RetrieveMessages.class, this::processRetrieveMessages);
+        registerHandler(Like.class, this::processLike);
+        registerHandler(Dislike.class, this::processDislike);
+        registerHandler(Report.class, this::processReport);
+        registerHandler(SearchMessages.class, this::processSearchMessages);
     }
 
     /**
@@ -65,37 +123,55 @@ public class Worker extends SimulatedActor {
      * It does not accept any messages while stopping and responds with back
      * OperationFailed messages during stopping.
      * If an unknown communication ID is used for ClientMessage messages, an UnknownClientException-
-     * exception is thrown. Further documentation can be found above helper methods named processMessageType.
+     * exception is thrown. Further documentation can be found above helper methods named processMessageType,
+     * which are registered as handlers of their message type in the constructor.
      *
      * @param message Non-null message received
      * @throws UnknownClientException thrown if communication id of message is unknown
      */
     @Override
     public void receive(Message message) throws UnknownClientException {
+        if (stopRequested) {
+            stopRequested = false;
+            processStop();
+        }
         if (stopping && message instanceof ClientMessage) {
             // all operations while stopping fail
             ClientMessage clientMessage = (ClientMessage) message;
             if (!ongoingCommunications.containsKey(clientMessage.communicationId))
                 throw new UnknownClientException("Unknown communication ID");
             ongoingCommunications.get(clientMessage.communicationId).tell(new OperationFailed(clientMessage.communicationId));
+        } else {
+            dispatch(message);
+        }
+    }
+
+    /**
+     * Replies with an OperationFailed message to a client message rejected because the mailbox
+     * is full. If its communication has not been initiated yet, the reply is sent once it is.
+     * A rejected Stop message is not sent again, which would be rejected as well, but
+     * the worker stops before receiving the next message instead.
+     *
+     * @param message the rejected message
+     * @param policy  the policy of the mailbox
+     */
+    @Override
+    protected void mailboxOverflow(Message message, OverflowPolicy policy) {
+        if (message instanceof Stop) {
+            if (!stopping) {
+                stopRequested = true;
+            }
         } else if (message instanceof InitCommunication) {
-            processInitCommunication(message);
-        } else if (message instanceof FinishCommunication) {
-            processFinishCommunication(message);
-        } else if (message instanceof Stop) {
-            processStop();
-        } else if (message instanceof Publish)
-            processPublish(message);
-        else if (message instanceof RetrieveMessages) {
-            processRetrieveMessages(message);
-        } else if (message instanceof Like) {
-            processLike(message);
-        } else if (message instanceof Dislike) {
-            processDislike(message);
-        } else if (message instanceof Report) {
-            processReport(message);
-        } else if (message instanceof SearchMessages) {
-            processSearchMessages(message);
+            InitCommunication initC = (InitCommunication) message;
+            initC.client.tell(new OperationFailed(initC.communicationId));
+        } else if (message instanceof ClientMessage) {
+            Long communicationId = ((ClientMessage) message).communicationId;
+            SimulatedActor client = ongoingCommunications.get(communicationId);
+            if (client != null) {
+                client.tell(new OperationFailed(communicationId));
+            } else {
+                rejectedBeforeInit.merge(communicationId, 1, Integer::sum);
+            }
         }
     }
 
@@ -103,14 +179,18 @@ public class Worker extends SimulatedActor {
      * Initiates communication with a client and sends an InitAck message to it,
      * which contains a reference to <c>this</c>.
      * After that other ClientMessage messages can be sent to this worker
-     * using the communication ID given in the received message
+     * using the communication ID given in the received message.
+     * Messages of the communication rejected before are answered with OperationFailed messages.
      *
-     * @param message non-null message of type InitCommunication
+     * @param initC non-null message of type InitCommunication
      */
-    private void processInitCommunication(Message message) {
-        InitCommunication initC = (InitCommunication) message;
+    private void processInitCommunication(InitCommunication initC) {
         ongoingCommunications.put(initC.communicationId, initC.client);
         initC.client.tell(new InitAck(this, initC.communicationId));
+        Integer rejected = rejectedBeforeInit.remove(initC.communicationId);
+        for (int i = 0; rejected != null && i < rejected; i++) {
+            initC.client.tell(new OperationFailed(initC.communicationId));
+        }
     }
 
 
@@ -119,11 +199,10 @@ public class Worker extends SimulatedActor {
      * After that other ClientMessage messages, using the communication ID given
      * in the received message, cannot be sent to this worker anymore
      *
-     * @param message non-null message of type FinishCommunication
+     * @param finC non-null message of type FinishCommunication
      * @throws UnknownClientException thrown if communication id of message is unknown
      */
-    private void processFinishCommunication(Message message) throws UnknownClientException {
-        FinishCommunication finC = (FinishCommunication) message;
+    private void processFinishCommunication(FinishCommunication finC) throws UnknownClientException {
 
         if (!ongoingCommunications.containsKey(finC.communicationId))
             throw new UnknownClientException("Unknown communication ID");
@@ -144,11 +223,10 @@ public class Worker extends SimulatedActor {
      * Spawns a worker helper which communicates with the message store to retrieve
      * messages of the author given in the message passed as parameter.
      *
-     * @param message non-null message of type RetrieveMessages
+     * @param retrMessages non-null message of type RetrieveMessages
      * @throws UnknownClientException thrown if communication id of message is unknown
      */
-    private void processRetrieveMessages(Message message) throws UnknownClientException {
-        RetrieveMessages retrMessages = (RetrieveMessages) message;
+    private void processRetrieveMessages(RetrieveMessages retrMessages) throws UnknownClientException {
         if (!ongoingCommunications.containsKey(retrMessages.communicationId))
             throw new UnknownClientException("Unknown communication ID");
         SimulatedActor client = ongoingCommunications.get(retrMessages.communicationId);
@@ -162,11 +240,10 @@ public class Worker extends SimulatedActor {
      * Spawns a worker helper which communicates with the message store to add a like
      * to a user message given in the message passed as parameter.
      *
-     * @param message non-null message of type Like
+     * @param like non-null message of type Like
      * @throws UnknownClientException thrown if communication id of message is unknown
      */
-    private void processLike(Message message) throws UnknownClientException {
-        Like like = (Like) message;
+    private void processLike(Like like) throws UnknownClientException {
         if (!ongoingCommunications.containsKey(like.communicationId))
             throw new UnknownClientException("Unknown communication ID");
         SimulatedActor client = ongoingCommunications.get(like.communicationId);
@@ -180,11 +257,10 @@ public class Worker extends SimulatedActor {
      * Spawns a worker helper which communicates with the message store to add a dislike
      * to a user message given in the message passed as parameter.
      *
-     * @param message The dislike message
+     * @param dislike The dislike message
      * @throws UnknownClientException thrown if communication id of message is unknown
      */
-    private void processDislike(Message message) throws UnknownClientException {
-        Dislike dislike = (Dislike) message;
+    private void processDislike(Dislike dislike) throws UnknownClientException {
         if (!ongoingCommunications.containsKey(dislike.communicationId))
             throw new UnknownClientException("Unknown communication ID");
         SimulatedActor client = ongoingCommunications.get(dislike.communicationId);
@@ -201,11 +277,10 @@ public class Worker extends SimulatedActor {
      * New messages must have zero likes, must not have a message ID assigned
      * and must not be (strictly) longer than MAX_MESSAGE_LENGTH characters.
      *
-     * @param message non-null message of type Publish
+     * @param publish non-null message of type Publish
      * @throws UnknownClientException thrown if communication id of message is unknown
      */
-    private void processPublish(Message message) throws UnknownClientException {
-        Publish publish = (Publish) message;
+    private void processPublish(Publish publish) throws UnknownClientException {
         if (!ongoingCommunications.containsKey(publish.communicationId))
             throw new UnknownClientException("Unknown communication ID");
         SimulatedActor client = ongoingCommunications.get(publish.communicationId);
@@ -225,11 +300,10 @@ public class Worker extends SimulatedActor {
      * Spawns a worker helper which communicates with the message store to add a report
      * to a user passed as parameter.
      *
-     * @param message non-null message of type Report
+     * @param report non-null message of type Report
      * @throws UnknownClientException thrown if communication id of report is unknown
      */
-    private void processReport(Message message) throws UnknownClientException {
-        Report report = (Report) message;
+    private void processReport(Report report) throws UnknownClientException {
         if (!ongoingCommunications.containsKey(report.communicationId))
             throw new UnknownClientException("Unknown communication ID");
         SimulatedActor client = ongoingCommunications.get(report.communicationId);
@@ -242,11 +316,10 @@ public class Worker extends SimulatedActor {
      * Spawns a worker helper which communicates with the message store to search
      * messages of the given search querry for author or Text.
      *
-     * @param message non-null message of type SearchMessages
+     * @param searchMessage non-null message of type SearchMessages
      * @throws UnknownClientException thrown if communication id of message is unknown
      */
-    private void processSearchMessages(Message message) throws UnknownClientException {
-        SearchMessages searchMessage = (SearchMessages) message;
+    private void processSearchMessages(SearchMessages searchMessage) throws UnknownClientException {
         if (!ongoingCommunications.containsKey(searchMessage.communicationId))
             throw new UnknownClientException("Unknown communication ID");
         SimulatedActor client = ongoingCommunications.get(searchMessage.communicationId);
@@ -2,6 +2,7 @@ package at.tugraz.ist.qs2021.messageboard;
 
 import at.tugraz.ist.qs2021.actorsystem.DeterministicChannel;
 import at.tugraz.ist.qs2021.actorsystem.Message;
+import at.tugraz.ist.qs2021.actorsystem.ScheduledMessage;
 import at.tugraz.ist.qs2021.actorsystem.SimulatedActor;
 import at.tugraz.ist.qs2021.actorsystem.SimulatedActorSystem;
 import at.tugraz.ist.qs2021.messageboard.clientmessages.OperationFailed;
@@ -39,14 +40,9 @@ public class WorkerHelper extends SimulatedActor {
     private final SimulatedActorSystem system;
 
     /**
-     * counts the number of ticks since the message was sent to the message store
+     * the pending timeout, which is cancelled when the response arrives
      */
-    private int timeSinceLastSent;
-
-    /**
-     * Used to mark that the actor is stopping and should not try resending the message anymore
-     */
-    private boolean stopping;
+    private ScheduledMessage timeout;
 
     /**
      * count how often the message was resent
@@ -58,6 +54,11 @@ public class WorkerHelper extends SimulatedActor {
      */
     private final int MAX_RETRIES = 2;
 
+    /**
+     * number of ticks after which the message is resent if no response arrived
+     */
+    private final int TIMEOUT = 3;
+
     /**
      * Constructs a new WorkerHelper object.
      *
@@ -72,8 +73,6 @@ public class WorkerHelper extends SimulatedActor {
         this.messageStore = messageStore;
         this.client = client;
         this.system = system;
-        this.timeSinceLastSent = 0;
-        this.stopping = false;
         this.retries = 0;
 
         // good connection between WorkerHelper and MessageStore -> no delay
@@ -85,41 +84,55 @@ public class WorkerHelper extends SimulatedActor {
      */
     @Override
     public void atStartUp() {
-        messageStore.tell(message);
-        timeSinceLastSent = 0;
+        sendToMessageStore();
     }
 
     /**
-     * We assume that the helper only receives reply messages from the message store,
-     * which it must forward to clients.
+     * Apart from its own timeouts, we assume that the helper only receives reply messages
+     * from the message store, which it must forward to clients.
      *
      * @param message Non-null message received
      */
     @Override
     public void receive(Message message) {
+        if (message instanceof Timeout) {
+            onTimeout();
+            return;
+        }
+        timeout.cancel();
         client.tell(message);
         system.stop(this);
-        stopping = true; // mark as stopping,
     }
 
     /**
-     * Overridden tick()-method, which counts the time units passed since
-     * the message was sent the last time and the number of sending
-     * retries.
+     * Resends the message or gives up, if no response arrived in time.
      */
-    @Override
-    public void tick() throws UnknownClientException {
-        super.tick();
+    private void onTimeout() {
         // as all workers share one MessageStore instance, it might happen that messages are dropped
-        if (!stopping && timeSinceLastSent++ >= 3) {
-            if (retries == MAX_RETRIES) {
-                client.tell(new OperationFailed(message.communicationId));
-                system.stop(this);
-            } else {
-                messageStore.tell(message);
-                timeSinceLastSent = 0;
-                retries++;
-            }
+        if (retries == MAX_RETRIES) {
+            client.tell(new OperationFailed(message.communicationId));
+            system.stop(this);
+        } else {
+            sendToMessageStore();
+            retries++;
+        }
+    }
+
+    /**
+     * Sends the message to the message store and schedules the timeout for the response.
+     */
+    private void sendToMessageStore() {
+        messageStore.tell(message);
+        timeout = system.schedule(this, TIMEOUT, new Timeout());
+    }
+
+    /**
+     * Scheduled by the helper itself to notice that no response arrived.
+     */
+    private static class Timeout implements Message {
+        @Override
+        public int getDuration() {
+            return 0;
         }
     }
 }
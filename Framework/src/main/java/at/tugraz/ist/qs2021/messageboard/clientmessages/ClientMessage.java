@@ -1,6 +1,6 @@
 package at.tugraz.ist.qs2021.messageboard.clientmessages;
 
-import at.tugraz.ist.qs2021.actorsystem.Message;
+import at.tugraz.ist.qs2021.actorsystem.CorrelatedMessage;
 
 /**
  * The abstract base class for all messages sent between clients of
@@ -14,7 +14,7 @@ import at.tugraz.ist.qs2021.actorsystem.Message;
  * Client messages are generally requests from clients to which the workers
  * react with an appropriate response (e.g. operation acknowledge/failure).
  */
-public abstract class ClientMessage implements Message {
+public abstract class ClientMessage implements CorrelatedMessage {
     /**
      * some unique ID, identifies one communication/session
      */
@@ -31,5 +31,10 @@ public abstract class ClientMessage implements Message {
     public void setCommunicationId(Long communicationId) {
         this.communicationId = communicationId;
     }
+
+    @Override
+    public long getCorrelationId() {
+        return communicationId == null ? NO_CORRELATION : communicationId;
+    }
 }
 
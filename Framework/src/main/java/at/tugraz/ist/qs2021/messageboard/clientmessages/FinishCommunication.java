@@ -2,6 +2,8 @@ package at.tugraz.ist.qs2021.messageboard.clientmessages;
 
 /**
  * Message sent from client to worker to end the communication/session.
+ * It keeps the default priority, so it does not overtake operations of the same session,
+ * which would fail afterwards.
  */
 public class FinishCommunication extends ClientMessage {
 
@@ -1,5 +1,6 @@
 package at.tugraz.ist.qs2021.messageboard.clientmessages;
 
+import at.tugraz.ist.qs2021.actorsystem.MessagePriority;
 import at.tugraz.ist.qs2021.actorsystem.SimulatedActor;
 
 /**
@@ -22,6 +23,11 @@ public class InitCommunication extends ClientMessage {
         return 2;
     }
 
+    @Override
+    public MessagePriority getPriority() {
+        return MessagePriority.SESSION;
+    }
+
     @Override
     public String toString() {
         return "InitCommunication(" + client + ", " + communicationId + ')';
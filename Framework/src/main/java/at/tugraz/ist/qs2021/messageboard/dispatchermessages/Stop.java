@@ -1,6 +1,7 @@
 package at.tugraz.ist.qs2021.messageboard.dispatchermessages;
 
 import at.tugraz.ist.qs2021.actorsystem.Message;
+import at.tugraz.ist.qs2021.actorsystem.MessagePriority;
 
 /**
  * Message sent from client to dispatcher to stop the system.
@@ -14,4 +15,9 @@ public class Stop implements Message {
     public int getDuration() {
         return 2;
     }
+
+    @Override
+    public MessagePriority getPriority() {
+        return MessagePriority.CONTROL;
+    }
 }
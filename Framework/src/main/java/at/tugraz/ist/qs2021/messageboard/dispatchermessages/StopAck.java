@@ -1,6 +1,7 @@
 package at.tugraz.ist.qs2021.messageboard.dispatchermessages;
 
 import at.tugraz.ist.qs2021.actorsystem.Message;
+import at.tugraz.ist.qs2021.actorsystem.MessagePriority;
 import at.tugraz.ist.qs2021.actorsystem.SimulatedActor;
 
 /**
@@ -21,4 +22,9 @@ public class StopAck implements Message {
     public int getDuration() {
         return 2;
     }
+
+    @Override
+    public MessagePriority getPriority() {
+        return MessagePriority.CONTROL;
+    }
 }
@@ -1,12 +1,12 @@
 package at.tugraz.ist.qs2021.messageboard.messagestoremessages;
 
-import at.tugraz.ist.qs2021.actorsystem.Message;
+import at.tugraz.ist.qs2021.actorsystem.CorrelatedMessage;
 import at.tugraz.ist.qs2021.actorsystem.SimulatedActor;
 
 /**
  * Base class for all messages sent to the message store.
  */
-public abstract class MessageStoreMessage implements Message {
+public abstract class MessageStoreMessage implements CorrelatedMessage {
 
 
     /**
@@ -24,4 +24,9 @@ public abstract class MessageStoreMessage implements Message {
         return 1; // store is supposed to be fast
     }
 
+    @Override
+    public long getCorrelationId() {
+        return communicationId;
+    }
+
 }
@@ -0,0 +1,112 @@
+package at.tugraz.ist.qs2021;
+
+import at.tugraz.ist.qs2021.actorsystem.Message;
+import at.tugraz.ist.qs2021.actorsystem.SimulatedActor;
+import at.tugraz.ist.qs2021.actorsystem.SimulatedActorSystem;
+import at.tugraz.ist.qs2021.messageboard.UnknownClientException;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class ActorCapacityTest {
+
+    @Test
+    public void testDefaultCapacityProcessesOneMessageAtATime() throws UnknownClientException {
+        Recorder recorder = run(1, true, 5, 5, 5, 5);
+        Assert.assertEquals(1, recorder.getCapacity());
+        // every message takes its duration, one tick to start and one to be received
+        Assert.assertEquals(Arrays.asList(0, 1, 2, 3), recorder.received);
+        Assert.assertEquals(Arrays.asList(7, 14, 21, 28), recorder.ticks);
+    }
+
+    @Test
+    public void testSlotsProcessMessagesConcurrently() throws UnknownClientException {
+        Recorder recorder = run(2, true, 5, 5, 5, 5, 5);
+        Assert.assertEquals(Arrays.asList(0, 1, 2, 3, 4), recorder.received);
+        Assert.assertEquals(Arrays.asList(7, 7, 14, 14, 21), recorder.ticks);
+    }
+
+    @Test
+    public void testShortMessagesOvertakeLongOnes() throws UnknownClientException {
+        Recorder recorder = run(3, true, 6, 1, 6, 1);
+        // the fourth message is started in the slot freed by the second one
+        Assert.assertEquals(Arrays.asList(1, 3, 0, 2), recorder.received);
+        Assert.assertEquals(Arrays.asList(3, 6, 8, 8), recorder.ticks);
+    }
+
+    @Test
+    public void testSameResultWithoutDiscreteEventMode() throws UnknownClientException {
+        Recorder lazy = run(3, true, 4, 0, 7, 2, 2, 9, 1, 3);
+        Recorder eager = run(3, false, 4, 0, 7, 2, 2, 9, 1, 3);
+        Assert.assertEquals(eager.received, lazy.received);
+        Assert.assertEquals(eager.ticks, lazy.ticks);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testCapacityMustBePositive() {
+        new Recorder(new SimulatedActorSystem()).setCapacity(0);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testCapacityCannotChangeWhileProcessing() throws UnknownClientException {
+        SimulatedActorSystem system = new SimulatedActorSystem();
+        Recorder recorder = new Recorder(system);
+        recorder.setCapacity(2);
+        system.spawn(recorder);
+        recorder.tell(new Work(0, 10));
+        system.runFor(5);
+        recorder.setCapacity(4);
+    }
+
+    /**
+     * Sends messages with the given durations at once to a recorder with the given capacity
+     * and runs the system until all of them are received.
+     */
+    private static Recorder run(int capacity, boolean discreteEventMode, int... durations) throws UnknownClientException {
+        SimulatedActorSystem system = new SimulatedActorSystem();
+        system.setDiscreteEventMode(discreteEventMode);
+        Recorder recorder = new Recorder(system);
+        recorder.setCapacity(capacity);
+        system.spawn(recorder);
+        for (int i = 0; i < durations.length; i++) {
+            recorder.tell(new Work(i, durations[i]));
+        }
+        system.runFor(100);
+        Assert.assertEquals(durations.length, recorder.received.size());
+        return recorder;
+    }
+
+    private static class Work implements Message {
+        private final int number;
+        private final int duration;
+
+        Work(int number, int duration) {
+            this.number = number;
+            this.duration = duration;
+        }
+
+        @Override
+        public int getDuration() {
+            return duration;
+        }
+    }
+
+    private static class Recorder extends SimulatedActor {
+        private final SimulatedActorSystem system;
+        private final List<Integer> received = new ArrayList<>();
+        private final List<Integer> ticks = new ArrayList<>();
+
+        Recorder(SimulatedActorSystem system) {
+            this.system = system;
+        }
+
+        @Override
+        public void receive(Message message) {
+            received.add(((Work) message).number);
+            ticks.add(system.getCurrentTime());
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package at.tugraz.ist.qs2021;
+
+import at.tugraz.ist.qs2021.actorsystem.Message;
+import at.tugraz.ist.qs2021.actorsystem.SimulatedActor;
+import at.tugraz.ist.qs2021.actorsystem.SimulatedActorSystem;
+import at.tugraz.ist.qs2021.messageboard.UnknownClientException;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+
+public class ActorLookupTest {
+
+    @Test
+    public void testActorsStayInSpawnOrderAfterStops() {
+        SimulatedActorSystem system = new SimulatedActorSystem();
+        List<SimulatedActor> expected = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            SimulatedActor actor = new IdleActor();
+            system.spawn(actor);
+            if (i % 3 == 0) {
+                expected.add(actor);
+            }
+        }
+        for (SimulatedActor actor : new ArrayList<>(system.getActors())) {
+            if (!expected.contains(actor)) {
+                system.stop(actor);
+            }
+        }
+        SimulatedActor late = new IdleActor();
+        system.spawn(late);
+        expected.add(late);
+
+        Assert.assertEquals(expected, system.getActors());
+        Assert.assertEquals(expected.size(), system.getActors().size());
+        for (int i = 0; i < expected.size(); i++) {
+            Assert.assertSame(expected.get(i), system.getActors().get(i));
+        }
+    }
+
+    @Test(expected = ConcurrentModificationException.class)
+    public void testIteratorFailsIfAccessByIndexClosesGaps() {
+        SimulatedActorSystem system = new SimulatedActorSystem();
+        List<SimulatedActor> actors = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            SimulatedActor actor = new IdleActor();
+            system.spawn(actor);
+            actors.add(actor);
+        }
+        for (int i = 0; i < 20; i++) {
+            system.stop(actors.get(i * 2));
+        }
+        Iterator<SimulatedActor> iterator = system.getActors().iterator();
+        iterator.next();
+        system.getActors().get(5);
+        iterator.next();
+    }
+
+    @Test
+    public void testLookupById() {
+        SimulatedActorSystem system = new SimulatedActorSystem();
+        SimulatedActor first = new IdleActor();
+        SimulatedActor second = new IdleActor();
+        system.spawn(first);
+        system.spawn(second);
+        system.stop(first);
+
+        Assert.assertNull(system.lookup(first.getId()));
+        Assert.assertSame(second, system.lookup(second.getId()));
+        Assert.assertNull(system.lookup(42));
+    }
+
+    @Test
+    public void testLookupSkipsStoppedActors() {
+        SimulatedActorSystem system = new SimulatedActorSystem();
+        List<SimulatedActor> actors = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            SimulatedActor actor = new IdleActor();
+            system.spawn(actor);
+            actors.add(actor);
+        }
+        // leaves runs of stopped actors of different lengths
+        for (int i = 0; i < actors.size(); i++) {
+            if (i % 7 != 0 && i % 11 != 0) {
+                system.stop(actors.get(i));
+            }
+        }
+
+        for (int i = 0; i < actors.size(); i++) {
+            SimulatedActor actor = actors.get(i);
+            if (i % 7 != 0 && i % 11 != 0) {
+                Assert.assertNull(system.lookup(actor.getId()));
+            } else {
+                Assert.assertSame(actor, system.lookup(actor.getId()));
+            }
+        }
+    }
+
+    @Test
+    public void testIdleActorHasNoChannelMailboxOrLog() throws UnknownClientException {
+        SimulatedActorSystem system = new SimulatedActorSystem();
+        IdleActor idle = new IdleActor();
+        system.spawn(idle);
+        system.runFor(10);
+        Assert.assertFalse(idle.hasChannelMailboxOrLog());
+        idle.tell(new Tock());
+        system.runFor(10);
+        Assert.assertTrue(idle.hasChannelMailboxOrLog());
+        Assert.assertEquals(1, idle.getMessageLog().size());
+    }
+
+    private static class IdleActor extends SimulatedActor {
+        @Override
+        public void receive(Message message) {
+        }
+
+        boolean hasChannelMailboxOrLog() {
+            return channel != null || mailbox != null || messageLog != null;
+        }
+    }
+
+    private static class Tock implements Message {
+        @Override
+        public int getDuration() {
+            return 1;
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package at.tugraz.ist.qs2021;
+
+import at.tugraz.ist.qs2021.actorsystem.ActorMetrics;
+import at.tugraz.ist.qs2021.actorsystem.Message;
+import at.tugraz.ist.qs2021.actorsystem.MetricsSnapshot;
+import at.tugraz.ist.qs2021.actorsystem.SimulatedActor;
+import at.tugraz.ist.qs2021.actorsystem.SimulatedActorSystem;
+import at.tugraz.ist.qs2021.messageboard.UnknownClientException;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ActorMetricsTest {
+
+    @Test
+    public void testBusyAndIdleTicks() throws UnknownClientException {
+        SimulatedActorSystem system = new SimulatedActorSystem();
+        system.setMetricsEnabled(true);
+        RecordingActor actor = new RecordingActor();
+        system.spawn(actor);
+        actor.tell(new SlowMessage(2));
+        actor.tell(new SlowMessage(2));
+        actor.tell(new FastMessage());
+        system.runFor(20);
+
+        ActorMetrics metrics = system.getMetrics().getActors().get(actor.getId());
+        // each message occupies the actor for (duration + 2) ticks, taking it from the mailbox,
+        // processing it and receiving it
+        Assert.assertEquals(4 + 4 + 2, metrics.getBusyTicks());
+        Assert.assertEquals(20 - 10, metrics.getIdleTicks());
+        Assert.assertEquals(3, metrics.getReceived());
+        Assert.assertEquals(Long.valueOf(2), metrics.getReceivedByType().get(SlowMessage.class));
+        Assert.assertEquals(3, metrics.getMailboxHighWater());
+        Assert.assertEquals(0, metrics.getMailboxDepth());
+        Assert.assertEquals(0, metrics.getMessagesInTransit());
+    }
+
+    @Test
+    public void testMetricsDoNotDependOnSkippedTicks() throws UnknownClientException {
+        Assert.assertEquals(runPingPong(true), runPingPong(false));
+    }
+
+    @Test
+    public void testListenerReceivesPeriodicSnapshots() throws UnknownClientException {
+        SimulatedActorSystem system = new SimulatedActorSystem();
+        system.setMetricsEnabled(true);
+        system.spawn(new RecordingActor());
+        system.spawn(new RecordingActor());
+        List<MetricsSnapshot> snapshots = new ArrayList<>();
+        system.setMetricsListener(10, snapshots::add);
+        system.runFor(35);
+
+        Assert.assertEquals(3, snapshots.size());
+        Assert.assertEquals(30, snapshots.get(2).getTime());
+        ActorMetrics byClass = snapshots.get(2).getActorClasses().get(RecordingActor.class);
+        Assert.assertEquals(2, byClass.getActors());
+        Assert.assertEquals(60, byClass.getIdleTicks());
+    }
+
+    @Test
+    public void testMetricsOfStoppedActorsAreRetainedByClass() throws UnknownClientException {
+        for (boolean discreteEventMode : new boolean[]{true, false}) {
+            SimulatedActorSystem system = new SimulatedActorSystem();
+            system.setDiscreteEventMode(discreteEventMode);
+            system.setMetricsEnabled(true);
+            RecordingActor stopped = new RecordingActor();
+            RecordingActor live = new RecordingActor();
+            system.spawn(stopped);
+            system.spawn(live);
+            stopped.tell(new FastMessage());
+            stopped.tell(new FastMessage());
+            system.runFor(10);
+            system.stop(stopped);
+            system.runFor(10);
+
+            MetricsSnapshot snapshot = system.getMetrics();
+            Assert.assertFalse(snapshot.getActors().containsKey(stopped.getId()));
+            ActorMetrics byClass = snapshot.getActorClasses().get(RecordingActor.class);
+            Assert.assertEquals(2, byClass.getActors());
+            Assert.assertEquals(2, byClass.getReceived());
+            Assert.assertEquals(4, byClass.getBusyTicks());
+            // the stopped actor is idle for 6 of its 10 ticks, the live one for all 20
+            Assert.assertEquals(6 + 20, byClass.getIdleTicks());
+        }
+    }
+
+    private static List<String> runPingPong(boolean discreteEventMode) throws UnknownClientException {
+        SimulatedActorSystem system = new SimulatedActorSystem();
+        system.setDiscreteEventMode(discreteEventMode);
+        system.setMetricsEnabled(true);
+        PingActor first = new PingActor();
+        PingActor second = new PingActor();
+        first.peer = second;
+        second.peer = first;
+        system.spawn(first);
+        system.spawn(second);
+        first.tell(new SlowMessage(3));
+        system.runFor(100);
+
+        List<String> result = new ArrayList<>();
+        for (ActorMetrics metrics : system.getMetrics().getActors().values()) {
+            result.add(metrics.getBusyTicks() + " " + metrics.getIdleTicks() + " " + metrics.getReceived());
+        }
+        return result;
+    }
+
+    private static class RecordingActor extends SimulatedActor {
+        @Override
+        public void receive(Message message) {
+        }
+    }
+
+    private static class PingActor extends SimulatedActor {
+        private SimulatedActor peer;
+
+        @Override
+        public void receive(Message message) {
+            peer.tell(message);
+        }
+    }
+
+    private static class SlowMessage implements Message {
+        private final int duration;
+
+        SlowMessage(int duration) {
+            this.duration = duration;
+        }
+
+        @Override
+        public int getDuration() {
+            return duration;
+        }
+    }
+
+    private static class FastMessage implements Message {
+        @Override
+        public int getDuration() {
+            return 0;
+        }
+    }
+}
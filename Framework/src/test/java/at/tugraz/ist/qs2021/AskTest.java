@@ -0,0 +1,96 @@
+package at.tugraz.ist.qs2021;
+
+import at.tugraz.ist.qs2021.actorsystem.ConcurrentActorSystem;
+import at.tugraz.ist.qs2021.actorsystem.Message;
+import at.tugraz.ist.qs2021.actorsystem.ParallelSimulatedActorSystem;
+import at.tugraz.ist.qs2021.actorsystem.Responder;
+import at.tugraz.ist.qs2021.actorsystem.SimulatedActor;
+import at.tugraz.ist.qs2021.actorsystem.SimulatedActorSystem;
+import at.tugraz.ist.qs2021.messageboard.Dispatcher;
+import at.tugraz.ist.qs2021.messageboard.UnknownClientException;
+import at.tugraz.ist.qs2021.messageboard.UserMessage;
+import at.tugraz.ist.qs2021.messageboard.clientmessages.*;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+public class AskTest {
+
+    @Test
+    public void testSessionWithoutClientActor() throws UnknownClientException {
+        Assert.assertEquals(session(new SimulatedActorSystem()), session(new ParallelSimulatedActorSystem()));
+    }
+
+    @Test
+    public void testSessionOnConcurrentSystem() throws UnknownClientException {
+        ConcurrentActorSystem system = new ConcurrentActorSystem(1, false);
+        try {
+            Assert.assertEquals(4, session(system).size());
+        } finally {
+            system.shutdown();
+        }
+    }
+
+    private static List<String> session(SimulatedActorSystem system) throws UnknownClientException {
+        Dispatcher dispatcher = new Dispatcher(system, 2);
+        system.spawn(dispatcher);
+        int actors = system.getActors().size();
+        Responder client = new Responder();
+        List<String> replies = new ArrayList<>();
+
+        InitAck initAck = (InitAck) system.runUntilComplete(client.ask(dispatcher, new InitCommunication(client, 7)));
+        SimulatedActor worker = initAck.worker;
+        replies.add("init@" + system.getCurrentTime());
+
+        Message published = system.runUntilComplete(client.ask(worker, new Publish(new UserMessage("Alice", "hello"), 7)));
+        Assert.assertTrue(published instanceof OperationAck);
+        replies.add("publish@" + system.getCurrentTime());
+
+        FoundMessages found = (FoundMessages) system.runUntilComplete(client.ask(worker, new RetrieveMessages("Alice", 7)));
+        Assert.assertEquals(1, found.messages.size());
+        Assert.assertEquals("hello", found.messages.get(0).getMessage());
+        replies.add("retrieve@" + system.getCurrentTime());
+
+        Message finished = system.runUntilComplete(client.ask(worker, new FinishCommunication(7)));
+        Assert.assertTrue(finished instanceof FinishAck);
+        replies.add("finish@" + system.getCurrentTime());
+
+        Assert.assertEquals(0, client.getPendingRequests());
+        Assert.assertTrue(client.getUnmatchedReplies().isEmpty());
+        // the client itself is not spawned, the helpers of the requests have stopped,
+        // which happens right after they reply, so they may still be running in a concurrent system
+        Assert.assertTrue(system.runUntil(s -> s.getActors().size() == actors, 100));
+        return replies;
+    }
+
+    @Test
+    public void testRepliesAreMatchedByCorrelationId() {
+        Responder client = new Responder();
+        CompletableFuture<Message> first = client.ask(new Silent(), new RetrieveMessages("Alice", 1));
+        CompletableFuture<Message> second = client.ask(new Silent(), new RetrieveMessages("Bob", 2));
+
+        client.tell(new OperationAck(2));
+        Assert.assertFalse(first.isDone());
+        Assert.assertTrue(second.join() instanceof OperationAck);
+        client.tell(new OperationAck(3));
+        Assert.assertEquals(1, client.getUnmatchedReplies().size());
+        Assert.assertEquals(1, client.getPendingRequests());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testFailsIfNoReplyCanArrive() throws UnknownClientException {
+        SimulatedActorSystem system = new SimulatedActorSystem();
+        Silent silent = new Silent();
+        system.spawn(silent);
+        system.runUntilComplete(new Responder().ask(silent, new RetrieveMessages("Alice", 1)));
+    }
+
+    private static class Silent extends SimulatedActor {
+        @Override
+        public void receive(Message message) {
+        }
+    }
+}
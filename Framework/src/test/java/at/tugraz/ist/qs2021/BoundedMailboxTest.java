@@ -0,0 +1,237 @@
+package at.tugraz.ist.qs2021;
+
+import at.tugraz.ist.qs2021.actorsystem.ActorMetrics;
+import at.tugraz.ist.qs2021.actorsystem.BoundedMailbox;
+import at.tugraz.ist.qs2021.actorsystem.LeastMailboxRouting;
+import at.tugraz.ist.qs2021.actorsystem.Message;
+import at.tugraz.ist.qs2021.actorsystem.OverflowPolicy;
+import at.tugraz.ist.qs2021.actorsystem.SimulatedActor;
+import at.tugraz.ist.qs2021.actorsystem.SimulatedActorSystem;
+import at.tugraz.ist.qs2021.messageboard.Dispatcher;
+import at.tugraz.ist.qs2021.messageboard.DispatcherOptions;
+import at.tugraz.ist.qs2021.messageboard.UnknownClientException;
+import at.tugraz.ist.qs2021.messageboard.UserMessage;
+import at.tugraz.ist.qs2021.messageboard.Worker;
+import at.tugraz.ist.qs2021.messageboard.clientmessages.*;
+import at.tugraz.ist.qs2021.messageboard.dispatchermessages.Stop;
+import at.tugraz.ist.qs2021.messageboard.dispatchermessages.StopAck;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class BoundedMailboxTest {
+
+    @Test
+    public void testOfferFailsWhenFull() {
+        BoundedMailbox mailbox = new BoundedMailbox(2, OverflowPolicy.DROP_NEWEST);
+        Assert.assertTrue(mailbox.offer(new Numbered(0)));
+        Assert.assertTrue(mailbox.offer(new Numbered(1)));
+        Assert.assertFalse(mailbox.offer(new Numbered(2)));
+        Assert.assertEquals(2, mailbox.size());
+        Assert.assertEquals(0, ((Numbered) mailbox.poll()).number);
+        Assert.assertTrue(mailbox.offer(new Numbered(3)));
+        Assert.assertEquals(1, ((Numbered) mailbox.poll()).number);
+        Assert.assertEquals(3, ((Numbered) mailbox.poll()).number);
+        Assert.assertNull(mailbox.poll());
+        Assert.assertEquals(1, mailbox.getOverflows());
+        Assert.assertEquals(1, mailbox.getDropped());
+    }
+
+    @Test
+    public void testDropNewest() throws UnknownClientException {
+        NumberActor actor = floodActor(OverflowPolicy.DROP_NEWEST, 2, 5);
+        Assert.assertEquals(Arrays.asList(0, 1), actor.received);
+        Assert.assertEquals(Arrays.asList(2, 3, 4), actor.overflows);
+    }
+
+    @Test
+    public void testDropOldest() throws UnknownClientException {
+        NumberActor actor = floodActor(OverflowPolicy.DROP_OLDEST, 2, 5);
+        Assert.assertEquals(Arrays.asList(3, 4), actor.received);
+        Assert.assertEquals(Arrays.asList(0, 1, 2), actor.overflows);
+    }
+
+    @Test
+    public void testBackpressureKeepsMessages() throws UnknownClientException {
+        NumberActor actor = floodActor(OverflowPolicy.BACKPRESSURE, 2, 5);
+        Assert.assertEquals(Arrays.asList(0, 1, 2, 3, 4), actor.received);
+        Assert.assertEquals(Arrays.asList(2, 3, 4), actor.overflows);
+    }
+
+    @Test
+    public void testOverflowsAreCountedInMetrics() throws UnknownClientException {
+        SimulatedActorSystem system = new SimulatedActorSystem();
+        system.setMetricsEnabled(true);
+        NumberActor rejecting = new NumberActor(OverflowPolicy.REJECT, 1);
+        NumberActor backpressured = new NumberActor(OverflowPolicy.BACKPRESSURE, 1);
+        system.spawn(rejecting);
+        system.spawn(backpressured);
+        for (int i = 0; i < 4; i++) {
+            rejecting.tell(new Numbered(i));
+            backpressured.tell(new Numbered(i));
+        }
+        system.runFor(30);
+
+        ActorMetrics rejectingMetrics = system.getMetrics().getActors().get(rejecting.getId());
+        Assert.assertEquals(3, rejectingMetrics.getMailboxOverflows());
+        Assert.assertEquals(3, rejectingMetrics.getDroppedMessages());
+        ActorMetrics combined = system.getMetrics().getActorClasses().get(NumberActor.class);
+        Assert.assertEquals(6, combined.getMailboxOverflows());
+        Assert.assertEquals(3, combined.getDroppedMessages());
+    }
+
+    @Test
+    public void testWorkerRejectsWithOperationFailed() throws UnknownClientException {
+        assertWorkerRejectsFloodedSearches(new DispatcherOptions().mailboxCapacity(2));
+    }
+
+    @Test
+    public void testCapacityCombinedWithRouting() throws UnknownClientException {
+        assertWorkerRejectsFloodedSearches(new DispatcherOptions().mailboxCapacity(2).routing(new LeastMailboxRouting()));
+    }
+
+    @Test
+    public void testWorkerStopsOnceIfStopIsRejected() throws UnknownClientException {
+        SimulatedActorSystem system = new SimulatedActorSystem();
+        Recorder dispatcher = new Recorder();
+        system.spawn(dispatcher);
+        Worker worker = new Worker(dispatcher, dispatcher, system, 2);
+        system.spawn(worker);
+        Recorder client = new Recorder();
+        system.spawn(client);
+        worker.tell(new InitCommunication(client, 1));
+        system.runFor(10);
+
+        // the mailbox is full when the Stop arrives
+        worker.tell(new SearchMessages("text", 1));
+        worker.tell(new SearchMessages("text", 1));
+        worker.tell(new Stop());
+        system.runFor(50);
+
+        Assert.assertEquals(1, dispatcher.received.size());
+        Assert.assertTrue(dispatcher.received.get(0) instanceof StopAck);
+        Assert.assertEquals(1, worker.getMessageLog().stream().filter(m -> m instanceof Stop).count());
+        // the worker is stopping when it receives the searches
+        Assert.assertEquals(3, client.received.size());
+        Assert.assertTrue(client.received.get(1) instanceof OperationFailed);
+        Assert.assertTrue(client.received.get(2) instanceof OperationFailed);
+    }
+
+    @Test
+    public void testWorkerRejectsMessagesOfCommunicationNotInitiatedYet() throws UnknownClientException {
+        SimulatedActorSystem system = new SimulatedActorSystem();
+        Recorder dispatcher = new Recorder();
+        system.spawn(dispatcher);
+        Worker worker = new Worker(dispatcher, dispatcher, system, 1);
+        system.spawn(worker);
+        Recorder client = new Recorder();
+        system.spawn(client);
+        // only the InitCommunication fits into the mailbox
+        worker.tell(new InitCommunication(client, 5));
+        worker.tell(new Publish(new UserMessage("author", "text"), 5));
+        worker.tell(new Publish(new UserMessage("author", "text"), 5));
+        system.runFor(50);
+
+        Assert.assertEquals(3, client.received.size());
+        Assert.assertTrue(client.received.get(0) instanceof InitAck);
+        Assert.assertTrue(client.received.get(1) instanceof OperationFailed);
+        Assert.assertTrue(client.received.get(2) instanceof OperationFailed);
+    }
+
+    private static void assertWorkerRejectsFloodedSearches(DispatcherOptions options) throws UnknownClientException {
+        SimulatedActorSystem system = new SimulatedActorSystem();
+        Dispatcher dispatcher = new Dispatcher(system, 1, options);
+        system.spawn(dispatcher);
+        FloodingClient client = new FloodingClient(dispatcher);
+        system.spawn(client);
+        system.runFor(200);
+
+        Assert.assertEquals(6, client.replies.size());
+        long failed = client.replies.stream().filter(r -> r instanceof OperationFailed).count();
+        Assert.assertEquals(4, failed);
+    }
+
+    private static NumberActor floodActor(OverflowPolicy policy, int capacity, int messages) throws UnknownClientException {
+        SimulatedActorSystem system = new SimulatedActorSystem();
+        NumberActor actor = new NumberActor(policy, capacity);
+        system.spawn(actor);
+        for (int i = 0; i < messages; i++) {
+            actor.tell(new Numbered(i));
+        }
+        system.runFor(30);
+        return actor;
+    }
+
+    private static class Numbered implements Message {
+        private final int number;
+
+        Numbered(int number) {
+            this.number = number;
+        }
+
+        @Override
+        public int getDuration() {
+            return 1;
+        }
+    }
+
+    private static class NumberActor extends SimulatedActor {
+        private final List<Integer> received = new ArrayList<>();
+        private final List<Integer> overflows = new ArrayList<>();
+
+        NumberActor(OverflowPolicy policy, int capacity) {
+            this.mailbox = new BoundedMailbox(capacity, policy);
+        }
+
+        @Override
+        public void receive(Message message) {
+            received.add(((Numbered) message).number);
+        }
+
+        @Override
+        protected void mailboxOverflow(Message message, OverflowPolicy policy) {
+            overflows.add(((Numbered) message).number);
+        }
+    }
+
+    /**
+     * Sends six searches at once after the communication is initialized.
+     */
+    private static class FloodingClient extends SimulatedActor {
+        private final Dispatcher dispatcher;
+        private final List<Message> replies = new ArrayList<>();
+
+        FloodingClient(Dispatcher dispatcher) {
+            this.dispatcher = dispatcher;
+        }
+
+        @Override
+        public void atStartUp() {
+            dispatcher.tell(new InitCommunication(this, 1));
+        }
+
+        @Override
+        public void receive(Message message) {
+            if (message instanceof InitAck) {
+                SimulatedActor worker = ((InitAck) message).worker;
+                for (int i = 0; i < 6; i++) {
+                    worker.tell(new SearchMessages("text", 1));
+                }
+            } else {
+                replies.add(message);
+            }
+        }
+    }
+
+    private static class Recorder extends SimulatedActor {
+        private final List<Message> received = new ArrayList<>();
+
+        @Override
+        public void receive(Message message) {
+            received.add(message);
+        }
+    }
+}
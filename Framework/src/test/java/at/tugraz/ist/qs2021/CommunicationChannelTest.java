@@ -0,0 +1,106 @@
+package at.tugraz.ist.qs2021;
+
+import at.tugraz.ist.qs2021.actorsystem.CommunicationChannel;
+import at.tugraz.ist.qs2021.actorsystem.DeterministicChannel;
+import at.tugraz.ist.qs2021.actorsystem.ICommunicationChannel;
+import at.tugraz.ist.qs2021.actorsystem.Message;
+import at.tugraz.ist.qs2021.actorsystem.MessageInDelivery;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class CommunicationChannelTest {
+
+    @Test
+    public void testDeterministicChannelDeliversAfterDelayPlusOneTicks() {
+        DeterministicChannel channel = new DeterministicChannel(2);
+        TestMessage m = new TestMessage(1);
+        channel.send(m);
+        Assert.assertEquals(Collections.emptyList(), channel.tick());
+        Assert.assertEquals(Collections.emptyList(), channel.tick());
+        Assert.assertEquals(Collections.singletonList(m), channel.tick());
+        Assert.assertEquals(Collections.emptyList(), channel.tick());
+    }
+
+    @Test
+    public void testMessagesArrivingAtSameTickKeepSendOrder() {
+        VariableDelayChannel channel = new VariableDelayChannel();
+        TestMessage late = new TestMessage(1);
+        TestMessage early = new TestMessage(2);
+        TestMessage sameTick = new TestMessage(3);
+        channel.send(late, 3);
+        channel.send(early, 0);
+        channel.tick();
+        channel.send(sameTick, 2);
+
+        Assert.assertEquals(Collections.emptyList(), channel.tick());
+        Assert.assertEquals(Collections.emptyList(), channel.tick());
+        Assert.assertEquals(Arrays.asList(late, sameTick), channel.tick());
+    }
+
+    @Test
+    public void testLongDelaysGrowTheWheel() {
+        VariableDelayChannel channel = new VariableDelayChannel();
+        TestMessage soon = new TestMessage(1);
+        TestMessage far = new TestMessage(2);
+        channel.send(soon, 1);
+        channel.send(far, 100);
+        for (int i = 0; i < 100; i++) {
+            List<Message> delivered = channel.tick();
+            if (i == 1) {
+                Assert.assertEquals(Collections.singletonList(soon), delivered);
+            } else {
+                Assert.assertEquals(Collections.emptyList(), delivered);
+            }
+        }
+        Assert.assertEquals(Collections.singletonList(far), channel.tick());
+    }
+
+    @Test
+    public void testChannelWithoutSkippingSupportNeverSkipsTicks() {
+        ICommunicationChannel channel = new ICommunicationChannel() {
+            @Override
+            public void send(Message message) {
+            }
+
+            @Override
+            public List<Message> tick() {
+                return Collections.emptyList();
+            }
+        };
+        Assert.assertEquals(1, channel.ticksUntilNextDelivery());
+        channel.skipTicks(0);
+    }
+
+    private static class VariableDelayChannel extends CommunicationChannel {
+        @Override
+        public void send(Message message) {
+            send(message, 0);
+        }
+
+        void send(Message message, int delay) {
+            addMessageInDelivery(new MessageInDelivery(delay, message));
+        }
+    }
+
+    private static class TestMessage implements Message {
+        private final int number;
+
+        TestMessage(int number) {
+            this.number = number;
+        }
+
+        @Override
+        public int getDuration() {
+            return 0;
+        }
+
+        @Override
+        public String toString() {
+            return "TestMessage(" + number + ')';
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package at.tugraz.ist.qs2021;
+
+import at.tugraz.ist.qs2021.actorsystem.ConcurrentActorSystem;
+import at.tugraz.ist.qs2021.actorsystem.Message;
+import at.tugraz.ist.qs2021.actorsystem.SimulatedActor;
+import at.tugraz.ist.qs2021.messageboard.Dispatcher;
+import at.tugraz.ist.qs2021.messageboard.UnknownClientException;
+import at.tugraz.ist.qs2021.messageboard.UserMessage;
+import at.tugraz.ist.qs2021.messageboard.clientmessages.FinishAck;
+import at.tugraz.ist.qs2021.messageboard.clientmessages.FinishCommunication;
+import at.tugraz.ist.qs2021.messageboard.clientmessages.FoundMessages;
+import at.tugraz.ist.qs2021.messageboard.clientmessages.InitAck;
+import at.tugraz.ist.qs2021.messageboard.clientmessages.InitCommunication;
+import at.tugraz.ist.qs2021.messageboard.clientmessages.OperationAck;
+import at.tugraz.ist.qs2021.messageboard.clientmessages.Publish;
+import at.tugraz.ist.qs2021.messageboard.clientmessages.RetrieveMessages;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+public class ConcurrentActorSystemTest {
+
+    @Test
+    public void testMessageBoardOnThreadPool() throws InterruptedException {
+        ConcurrentActorSystem system = new ConcurrentActorSystem();
+        try {
+            runMessageBoard(system);
+        } finally {
+            system.shutdown();
+        }
+    }
+
+    @Test
+    public void testMessageBoardOnVirtualThreads() throws InterruptedException {
+        Assume.assumeTrue(ConcurrentActorSystem.isVirtualThreadSupported());
+        ConcurrentActorSystem system = new ConcurrentActorSystem(ConcurrentActorSystem.DEFAULT_TICK_MILLIS, true);
+        try {
+            runMessageBoard(system);
+        } finally {
+            system.shutdown();
+        }
+    }
+
+    @Test
+    public void testActorOverridingTickOnlyReceivesItsMessages() throws UnknownClientException {
+        ConcurrentActorSystem system = new ConcurrentActorSystem(1, false);
+        try {
+            TickingActor actor = new TickingActor();
+            system.spawn(actor);
+            system.schedule(actor, 2, new Ping());
+            actor.tell(new Ping());
+            system.runFor(30);
+
+            Assert.assertTrue(actor.ticks > 0);
+            Assert.assertEquals(2, actor.received.size());
+            for (Message message : actor.received) {
+                Assert.assertTrue(message instanceof Ping);
+            }
+        } finally {
+            system.shutdown();
+        }
+    }
+
+    @Test
+    public void testMessagesFromConcurrentSendersAreLogged() throws Exception {
+        ConcurrentActorSystem system = new ConcurrentActorSystem(1, false);
+        try {
+            TickingActor actor = new TickingActor();
+            system.spawn(actor);
+            Thread[] senders = new Thread[4];
+            for (int i = 0; i < senders.length; i++) {
+                senders[i] = new Thread(() -> {
+                    for (int j = 0; j < 250; j++) {
+                        actor.tell(new Ping());
+                    }
+                });
+                senders[i].start();
+            }
+            for (Thread sender : senders) {
+                sender.join();
+            }
+            Assert.assertTrue(system.runUntil(s -> actor.received.size() == 1000, 5000));
+            Assert.assertEquals(1000, actor.getMessageLog().size());
+        } finally {
+            system.shutdown();
+        }
+    }
+
+    private static void runMessageBoard(ConcurrentActorSystem system) throws InterruptedException {
+        Dispatcher dispatcher = new Dispatcher(system, 2);
+        system.spawn(dispatcher);
+        QueueClient client = new QueueClient();
+        system.spawn(client);
+        long commId = 7;
+
+        dispatcher.tell(new InitCommunication(client, commId));
+        InitAck initAck = (InitAck) client.next();
+        Assert.assertEquals(commId, (long) initAck.communicationId);
+
+        initAck.worker.tell(new Publish(new UserMessage("author", "hello"), commId));
+        Assert.assertTrue(client.next() instanceof OperationAck);
+
+        initAck.worker.tell(new RetrieveMessages("author", commId));
+        FoundMessages found = (FoundMessages) client.next();
+        Assert.assertEquals(1, found.messages.size());
+        Assert.assertEquals("hello", found.messages.get(0).getMessage());
+
+        initAck.worker.tell(new FinishCommunication(commId));
+        Assert.assertTrue(client.next() instanceof FinishAck);
+    }
+
+    private static class Ping implements Message {
+        @Override
+        public int getDuration() {
+            return 0;
+        }
+    }
+
+    /**
+     * Calls the tick() of SimulatedActor, which must not receive the ticks or scheduled messages of the system.
+     */
+    private static class TickingActor extends SimulatedActor {
+        private final List<Message> received = new CopyOnWriteArrayList<>();
+        private volatile int ticks = 0;
+
+        @Override
+        public void tick() throws UnknownClientException {
+            super.tick();
+            ticks++;
+        }
+
+        @Override
+        public void receive(Message message) {
+            received.add(message);
+        }
+    }
+
+    /**
+     * Client handing received messages over to the test thread.
+     */
+    private static class QueueClient extends SimulatedActor {
+        private final BlockingQueue<Message> received = new LinkedBlockingQueue<>();
+
+        @Override
+        public void receive(Message message) {
+            received.add(message);
+        }
+
+        Message next() throws InterruptedException {
+            Message message = received.poll(5, TimeUnit.SECONDS);
+            Assert.assertNotNull("no response received", message);
+            return message;
+        }
+    }
+}
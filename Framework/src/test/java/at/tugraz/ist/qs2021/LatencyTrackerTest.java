@@ -0,0 +1,80 @@
+package at.tugraz.ist.qs2021;
+
+import at.tugraz.ist.qs2021.actorsystem.LatencyHistogram;
+import at.tugraz.ist.qs2021.actorsystem.LatencyStage;
+import at.tugraz.ist.qs2021.actorsystem.LatencyTracker;
+import at.tugraz.ist.qs2021.actorsystem.Message;
+import at.tugraz.ist.qs2021.actorsystem.MessageLatencies;
+import at.tugraz.ist.qs2021.actorsystem.SimulatedActor;
+import at.tugraz.ist.qs2021.actorsystem.SimulatedActorSystem;
+import at.tugraz.ist.qs2021.messageboard.UnknownClientException;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class LatencyTrackerTest {
+
+    @Test
+    public void testHistogramPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int value = 1; value <= 1000; value++) {
+            histogram.record(value);
+        }
+        Assert.assertEquals(1000, histogram.getCount());
+        Assert.assertEquals(1000, histogram.getMax());
+        Assert.assertEquals(500.5, histogram.getMean(), 1e-9);
+        assertWithin(500, histogram.getPercentile(50));
+        assertWithin(990, histogram.getPercentile(99));
+        Assert.assertEquals(1000, histogram.getPercentile(100));
+        Assert.assertEquals(1, histogram.getPercentile(0));
+    }
+
+    @Test
+    public void testHistogramIsExactForSmallValues() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(3);
+        histogram.record(7);
+        Assert.assertEquals(3, histogram.getPercentile(50));
+        Assert.assertEquals(7, histogram.getPercentile(99.9));
+    }
+
+    @Test
+    public void testStagesInTicks() throws UnknownClientException {
+        SimulatedActorSystem system = new SimulatedActorSystem();
+        LatencyTracker tracker = new LatencyTracker();
+        system.setLatencyTracker(tracker);
+        IdleActor actor = new IdleActor();
+        system.spawn(actor);
+        actor.tell(new SlowMessage());
+        actor.tell(new SlowMessage());
+        system.runFor(20);
+
+        MessageLatencies latencies = tracker.get(IdleActor.class, SlowMessage.class);
+        // the default channel has a delay of one tick
+        Assert.assertEquals(2, latencies.getTicks(LatencyStage.CHANNEL).getMax());
+        // the second message waits while the first one is processed
+        Assert.assertEquals(0, latencies.getTicks(LatencyStage.MAILBOX).getPercentile(50));
+        Assert.assertEquals(6, latencies.getTicks(LatencyStage.MAILBOX).getMax());
+        // processing takes the duration plus the tick of the receive
+        Assert.assertEquals(5, latencies.getTicks(LatencyStage.PROCESSING).getMax());
+        Assert.assertEquals(2 + 6 + 5, latencies.getTicks(LatencyStage.TOTAL).getMax());
+        Assert.assertEquals(2, latencies.getNanos(LatencyStage.TOTAL).getCount());
+    }
+
+    private static void assertWithin(long expected, long actual) {
+        Assert.assertTrue(actual + " not within 1/" + LatencyHistogram.SUB_BUCKETS + " of " + expected,
+                Math.abs(actual - expected) <= expected / LatencyHistogram.SUB_BUCKETS);
+    }
+
+    private static class IdleActor extends SimulatedActor {
+        @Override
+        public void receive(Message message) {
+        }
+    }
+
+    private static class SlowMessage implements Message {
+        @Override
+        public int getDuration() {
+            return 4;
+        }
+    }
+}
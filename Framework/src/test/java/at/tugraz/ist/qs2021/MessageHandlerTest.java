@@ -0,0 +1,94 @@
+package at.tugraz.ist.qs2021;
+
+import at.tugraz.ist.qs2021.actorsystem.Message;
+import at.tugraz.ist.qs2021.actorsystem.SimulatedActor;
+import at.tugraz.ist.qs2021.actorsystem.SimulatedActorSystem;
+import at.tugraz.ist.qs2021.messageboard.UnknownClientException;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class MessageHandlerTest {
+
+    @Test
+    public void testDispatchByClass() throws UnknownClientException {
+        HandlingActor actor = new HandlingActor();
+        SimulatedActorSystem system = new SimulatedActorSystem();
+        system.spawn(actor);
+        actor.tell(new Base());
+        actor.tell(new Other());
+        actor.tell(new Derived());
+        actor.tell(new Unknown());
+        actor.tell(new DerivedFromDerived());
+        system.runFor(20);
+
+        Assert.assertEquals(Arrays.asList("base", "other", "derived", "unhandled Unknown", "derived"), actor.handled);
+    }
+
+    @Test
+    public void testSubclassUsesHandlerOfSuperclass() throws UnknownClientException {
+        HandlingActor actor = new HandlingActor();
+        actor.receive(new InheritingFromBase());
+        Assert.assertEquals(Arrays.asList("base"), actor.handled);
+    }
+
+    @Test
+    public void testRegisteringReplacesHandler() throws UnknownClientException {
+        HandlingActor actor = new HandlingActor();
+        actor.receive(new InheritingFromBase());
+        actor.replaceBaseHandler();
+        actor.receive(new Base());
+        actor.receive(new InheritingFromBase());
+        Assert.assertEquals(Arrays.asList("base", "replaced", "replaced"), actor.handled);
+    }
+
+    private static class Base implements Message {
+        @Override
+        public int getDuration() {
+            return 1;
+        }
+    }
+
+    private static class InheritingFromBase extends Base {
+    }
+
+    private static class Derived extends Base {
+    }
+
+    private static class DerivedFromDerived extends Derived {
+    }
+
+    private static class Other extends Base {
+    }
+
+    private static class Unknown implements Message {
+        @Override
+        public int getDuration() {
+            return 1;
+        }
+    }
+
+    private static class HandlingActor extends SimulatedActor {
+        private final List<String> handled = new ArrayList<>();
+
+        HandlingActor() {
+            registerHandler(Base.class, message -> handled.add("base"));
+            registerHandler(Derived.class, message -> handled.add("derived"));
+            registerHandler(Other.class, message -> handled.add("other"));
+        }
+
+        void replaceBaseHandler() {
+            registerHandler(Base.class, message -> handled.add("replaced"));
+        }
+
+        @Override
+        public void receive(Message message) throws UnknownClientException {
+            if (!dispatch(message)) {
+                handled.add("unhandled " + message.getClass().getSimpleName());
+            }
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package at.tugraz.ist.qs2021;
+
+import at.tugraz.ist.qs2021.actorsystem.DisabledMessageLog;
+import at.tugraz.ist.qs2021.actorsystem.Message;
+import at.tugraz.ist.qs2021.actorsystem.RingBufferMessageLog;
+import at.tugraz.ist.qs2021.actorsystem.SampledMessageLog;
+import at.tugraz.ist.qs2021.actorsystem.SimulatedActor;
+import at.tugraz.ist.qs2021.actorsystem.SimulatedActorSystem;
+import at.tugraz.ist.qs2021.actorsystem.StreamingMessageLog;
+import at.tugraz.ist.qs2021.actorsystem.UnboundedMessageLog;
+import at.tugraz.ist.qs2021.messageboard.UnknownClientException;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.Collections;
+
+public class MessageLogTest {
+
+    @Test
+    public void testDefaultLogKeepsAllMessages() {
+        SimulatedActorSystem system = new SimulatedActorSystem();
+        RecordingActor actor = new RecordingActor();
+        system.spawn(actor);
+        Message m1 = new NamedMessage("m1");
+        Message m2 = new NamedMessage("m2");
+        actor.tell(m1);
+        actor.tell(m2);
+        Assert.assertEquals(Arrays.asList(m1, m2), actor.getMessageLog());
+    }
+
+    @Test
+    public void testRingBufferKeepsMostRecentMessages() {
+        SimulatedActorSystem system = new SimulatedActorSystem();
+        system.setMessageLogFactory(() -> new RingBufferMessageLog(2));
+        RecordingActor actor = new RecordingActor();
+        system.spawn(actor);
+        Message m1 = new NamedMessage("m1");
+        Message m2 = new NamedMessage("m2");
+        Message m3 = new NamedMessage("m3");
+        actor.tell(m1);
+        Assert.assertEquals(Collections.singletonList(m1), actor.getMessageLog());
+        actor.tell(m2);
+        actor.tell(m3);
+        Assert.assertEquals(Arrays.asList(m2, m3), actor.getMessageLog());
+    }
+
+    @Test
+    public void testSampledLogKeepsEveryNthMessage() {
+        RecordingActor actor = new RecordingActor();
+        actor.setMessageLog(new SampledMessageLog(2, new UnboundedMessageLog()));
+        new SimulatedActorSystem().spawn(actor);
+        Message m1 = new NamedMessage("m1");
+        Message m2 = new NamedMessage("m2");
+        Message m3 = new NamedMessage("m3");
+        actor.tell(m1);
+        actor.tell(m2);
+        actor.tell(m3);
+        Assert.assertEquals(Arrays.asList(m1, m3), actor.getMessageLog());
+    }
+
+    @Test
+    public void testDisabledLogDoesNotAffectProcessing() throws UnknownClientException {
+        SimulatedActorSystem system = new SimulatedActorSystem();
+        system.setMessageLogFactory(() -> DisabledMessageLog.INSTANCE);
+        RecordingActor actor = new RecordingActor();
+        system.spawn(actor);
+        actor.tell(new NamedMessage("m1"));
+        system.runFor(5);
+        Assert.assertTrue(actor.getMessageLog().isEmpty());
+        Assert.assertEquals("m1", actor.received.toString());
+    }
+
+    @Test
+    public void testStreamingLogWritesLines() throws UnknownClientException {
+        SimulatedActorSystem system = new SimulatedActorSystem();
+        StringWriter sink = new StringWriter();
+        system.setMessageLogFactory(() -> new StreamingMessageLog(sink, new RingBufferMessageLog(1)));
+        RecordingActor first = new RecordingActor();
+        RecordingActor second = new RecordingActor();
+        system.spawn(first);
+        system.spawn(second);
+        first.tell(new NamedMessage("m1"));
+        system.runFor(3);
+        Message m2 = new NamedMessage("m2");
+        second.tell(m2);
+
+        String separator = System.lineSeparator();
+        Assert.assertEquals("0\t0\tm1" + separator + "1\t3\tm2" + separator, sink.toString());
+        Assert.assertEquals(1, first.getMessageLog().size());
+        Assert.assertEquals(Collections.singletonList(m2), second.getMessageLog());
+    }
+
+    private static class RecordingActor extends SimulatedActor {
+        private final StringBuilder received = new StringBuilder();
+
+        @Override
+        public void receive(Message message) {
+            received.append(message);
+        }
+    }
+
+    private static class NamedMessage implements Message {
+        private final String name;
+
+        NamedMessage(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public int getDuration() {
+            return 0;
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+}
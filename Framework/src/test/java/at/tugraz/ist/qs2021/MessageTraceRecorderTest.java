@@ -0,0 +1,83 @@
+package at.tugraz.ist.qs2021;
+
+import at.tugraz.ist.qs2021.actorsystem.Message;
+import at.tugraz.ist.qs2021.actorsystem.MessageTraceReader;
+import at.tugraz.ist.qs2021.actorsystem.MessageTraceRecorder;
+import at.tugraz.ist.qs2021.actorsystem.SimulatedActor;
+import at.tugraz.ist.qs2021.actorsystem.SimulatedActorSystem;
+import at.tugraz.ist.qs2021.actorsystem.TraceRecord;
+import at.tugraz.ist.qs2021.messageboard.UnknownClientException;
+import at.tugraz.ist.qs2021.messageboard.clientmessages.OperationAck;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class MessageTraceRecorderTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testTellAndReceiveEventsAreRecorded() throws IOException, UnknownClientException {
+        Path path = folder.newFile("trace.bin").toPath();
+        SimulatedActorSystem system = new SimulatedActorSystem();
+        try (MessageTraceRecorder recorder = new MessageTraceRecorder(path)) {
+            system.setTraceRecorder(recorder);
+            EchoActor echo = new EchoActor();
+            EchoActor other = new EchoActor();
+            system.spawn(echo);
+            system.spawn(other);
+            echo.peer = other;
+            echo.tell(new OperationAck(7L));
+            system.runFor(10);
+            Assert.assertEquals(4, recorder.getRecords());
+        }
+
+        List<String> events = new ArrayList<>();
+        for (TraceRecord record : new MessageTraceReader(path).getRecords()) {
+            events.add(record.getTick() + " " + record.getKind() + " " + record.getSenderId() + " " + record.getReceiverId()
+                    + " " + record.getMessageType().substring(record.getMessageType().lastIndexOf('.') + 1) + " " + record.getCorrelationId());
+        }
+        Assert.assertEquals(Arrays.asList(
+                "0 TELL -1 0 OperationAck 7",
+                "3 RECEIVE -1 0 OperationAck 7",
+                "3 TELL 0 1 OperationAck 7",
+                "6 RECEIVE -1 1 OperationAck 7"), events);
+    }
+
+    @Test
+    public void testCsvExport() throws IOException {
+        Path path = folder.newFile("trace.bin").toPath();
+        SimulatedActorSystem system = new SimulatedActorSystem();
+        try (MessageTraceRecorder recorder = new MessageTraceRecorder(path)) {
+            system.setTraceRecorder(recorder);
+            EchoActor echo = new EchoActor();
+            system.spawn(echo);
+            echo.tell(new OperationAck(3L));
+        }
+        StringWriter csv = new StringWriter();
+        new MessageTraceReader(path).writeCsv(csv);
+        String separator = System.lineSeparator();
+        Assert.assertEquals("tick,kind,sender,receiver,message,correlation" + separator
+                + "0,TELL,-1,0," + OperationAck.class.getName() + ",3" + separator, csv.toString());
+    }
+
+    private static class EchoActor extends SimulatedActor {
+        private SimulatedActor peer;
+
+        @Override
+        public void receive(Message message) {
+            if (peer != null) {
+                peer.tell(message);
+            }
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package at.tugraz.ist.qs2021;
+
+import at.tugraz.ist.qs2021.actorsystem.Message;
+import at.tugraz.ist.qs2021.actorsystem.MpscArrayMailbox;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class MpscArrayMailboxTest {
+
+    @Test
+    public void testFifoOrderAcrossChunks() {
+        MpscArrayMailbox mailbox = new MpscArrayMailbox(2);
+        Assert.assertTrue(mailbox.isEmpty());
+        Assert.assertNull(mailbox.poll());
+        for (int i = 0; i < 100; i++) {
+            mailbox.offer(new NumberMessage(0, i));
+        }
+        Assert.assertEquals(100, mailbox.size());
+        for (int i = 0; i < 100; i++) {
+            Assert.assertEquals(i, ((NumberMessage) mailbox.poll()).number);
+        }
+        Assert.assertTrue(mailbox.isEmpty());
+        Assert.assertNull(mailbox.poll());
+    }
+
+    @Test
+    public void testInterleavedOfferAndPoll() {
+        MpscArrayMailbox mailbox = new MpscArrayMailbox(4);
+        int next = 0;
+        int expected = 0;
+        for (int round = 0; round < 50; round++) {
+            for (int i = 0; i < round % 7; i++) {
+                mailbox.offer(new NumberMessage(0, next++));
+            }
+            for (int i = 0; i < round % 5 && !mailbox.isEmpty(); i++) {
+                Assert.assertEquals(expected++, ((NumberMessage) mailbox.poll()).number);
+            }
+            Assert.assertEquals(next - expected, mailbox.size());
+        }
+    }
+
+    @Test
+    public void testConcurrentProducersKeepTheirOrder() throws InterruptedException {
+        MpscArrayMailbox mailbox = new MpscArrayMailbox();
+        int producers = 4;
+        int messagesPerProducer = 100000;
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            int producer = p;
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < messagesPerProducer; i++) {
+                    mailbox.offer(new NumberMessage(producer, i));
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+
+        int[] expected = new int[producers];
+        int received = 0;
+        while (received < producers * messagesPerProducer) {
+            NumberMessage message = (NumberMessage) mailbox.poll();
+            if (message == null) {
+                Thread.yield();
+                continue;
+            }
+            Assert.assertEquals(expected[message.producer]++, message.number);
+            received++;
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        Assert.assertTrue(mailbox.isEmpty());
+    }
+
+    private static class NumberMessage implements Message {
+        private final int producer;
+        private final int number;
+
+        NumberMessage(int producer, int number) {
+            this.producer = producer;
+            this.number = number;
+        }
+
+        @Override
+        public int getDuration() {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package at.tugraz.ist.qs2021;
+
+import at.tugraz.ist.qs2021.actorsystem.Message;
+import at.tugraz.ist.qs2021.actorsystem.ParallelSimulatedActorSystem;
+import at.tugraz.ist.qs2021.actorsystem.SimulatedActor;
+import at.tugraz.ist.qs2021.actorsystem.SimulatedActorSystem;
+import at.tugraz.ist.qs2021.messageboard.Dispatcher;
+import at.tugraz.ist.qs2021.messageboard.UnknownClientException;
+import at.tugraz.ist.qs2021.messageboard.UserMessage;
+import at.tugraz.ist.qs2021.messageboard.clientmessages.FinishCommunication;
+import at.tugraz.ist.qs2021.messageboard.clientmessages.InitAck;
+import at.tugraz.ist.qs2021.messageboard.clientmessages.InitCommunication;
+import at.tugraz.ist.qs2021.messageboard.clientmessages.Like;
+import at.tugraz.ist.qs2021.messageboard.clientmessages.Publish;
+import at.tugraz.ist.qs2021.messageboard.clientmessages.RetrieveMessages;
+import at.tugraz.ist.qs2021.messageboard.dispatchermessages.Stop;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+public class ParallelSimulatedActorSystemTest {
+
+    @Test
+    public void testMessageBoardRunsLikeInSequentialSystem() throws UnknownClientException {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            Assert.assertEquals(runMessageBoard(new SimulatedActorSystem()), runMessageBoard(new ParallelSimulatedActorSystem(pool)));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static List<String> runMessageBoard(SimulatedActorSystem system) throws UnknownClientException {
+        Dispatcher dispatcher = new Dispatcher(system, 4);
+        system.spawn(dispatcher);
+        List<ScriptedClient> clients = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            ScriptedClient client = new ScriptedClient(dispatcher, i);
+            clients.add(client);
+            system.spawn(client);
+        }
+        system.runFor(200);
+        dispatcher.tell(new Stop());
+        system.runFor(50);
+
+        List<String> received = new ArrayList<>();
+        for (ScriptedClient client : clients) {
+            received.addAll(client.received);
+        }
+        received.add("time " + system.getCurrentTime() + ", actors " + system.getActors().size());
+        return received;
+    }
+
+    /**
+     * Client publishing and liking a message, retrieving its own messages and finishing the communication.
+     */
+    private static class ScriptedClient extends SimulatedActor {
+        private final Dispatcher dispatcher;
+        private final long communicationId;
+        private final List<String> received = new ArrayList<>();
+        private SimulatedActor worker;
+        private int step = 0;
+
+        ScriptedClient(Dispatcher dispatcher, long communicationId) {
+            this.dispatcher = dispatcher;
+            this.communicationId = communicationId;
+        }
+
+        @Override
+        public void atStartUp() {
+            dispatcher.tell(new InitCommunication(this, communicationId));
+        }
+
+        @Override
+        public void receive(Message message) {
+            String name = "user" + communicationId % 3;
+            if (message instanceof InitAck) {
+                worker = ((InitAck) message).worker;
+                received.add(getTimeSinceSystemStart() + " InitAck from worker " + worker.getId());
+            } else {
+                received.add(getTimeSinceSystemStart() + " " + message);
+            }
+            if (worker == null) {
+                return;
+            }
+            switch (step++) {
+                case 0:
+                    worker.tell(new Publish(new UserMessage(name, "message " + communicationId), communicationId));
+                    break;
+                case 1:
+                    worker.tell(new Like(name, communicationId, communicationId % 4));
+                    break;
+                case 2:
+                    worker.tell(new RetrieveMessages(name, communicationId));
+                    break;
+                case 3:
+                    worker.tell(new FinishCommunication(communicationId));
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+}
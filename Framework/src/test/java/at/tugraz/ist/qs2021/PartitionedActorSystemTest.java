@@ -0,0 +1,193 @@
+package at.tugraz.ist.qs2021;
+
+import at.tugraz.ist.qs2021.actorsystem.DeterministicChannel;
+import at.tugraz.ist.qs2021.actorsystem.Message;
+import at.tugraz.ist.qs2021.actorsystem.PartitionedActorSystem;
+import at.tugraz.ist.qs2021.actorsystem.SimulatedActor;
+import at.tugraz.ist.qs2021.actorsystem.SimulatedActorSystem;
+import at.tugraz.ist.qs2021.messageboard.Dispatcher;
+import at.tugraz.ist.qs2021.messageboard.UnknownClientException;
+import at.tugraz.ist.qs2021.messageboard.UserMessage;
+import at.tugraz.ist.qs2021.messageboard.clientmessages.*;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.IntFunction;
+
+public class PartitionedActorSystemTest {
+
+    private static final int ACTORS = 12;
+
+    @Test
+    public void testCrossPartitionMessagesMatchSingleSystem() throws UnknownClientException {
+        SimulatedActorSystem single = new SimulatedActorSystem();
+        List<String> expected = runGossip(i -> single, () -> single.runFor(300));
+
+        for (int partitions = 1; partitions <= 4; partitions++) {
+            try (PartitionedActorSystem system = new PartitionedActorSystem(partitions, 2)) {
+                int n = partitions;
+                List<String> actual = runGossip(i -> system.getPartition(i % n), () -> system.runFor(300));
+                Assert.assertEquals("partitions: " + partitions, expected, actual);
+                Assert.assertEquals(300, system.getCurrentTime());
+            }
+        }
+    }
+
+    @Test
+    public void testIndependentMessageBoardsMatchSingleSystem() throws UnknownClientException {
+        SimulatedActorSystem single = new SimulatedActorSystem();
+        List<String> expected = runMessageBoards(i -> single, () -> single.runFor(400));
+
+        try (PartitionedActorSystem system = new PartitionedActorSystem(3, 1)) {
+            List<String> actual = runMessageBoards(system::getPartition, () -> system.runFor(400));
+            Assert.assertEquals(expected, actual);
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testLookaheadLargerThanDelayFails() throws UnknownClientException {
+        try (PartitionedActorSystem system = new PartitionedActorSystem(2, 3)) {
+            GossipActor a = new GossipActor(0);
+            GossipActor b = new GossipActor(1);
+            system.getPartition(0).spawn(a);
+            system.getPartition(1).spawn(b);
+            a.peers = new GossipActor[]{b};
+            b.peers = new GossipActor[]{a};
+            a.tell(new Token(0, 3));
+            system.runFor(20);
+        }
+    }
+
+    private interface Run {
+        void run() throws UnknownClientException;
+    }
+
+    /**
+     * Spawns actors forwarding tokens to each other, with channels of different delays.
+     *
+     * @return per actor the tokens received together with the time
+     */
+    private static List<String> runGossip(IntFunction<SimulatedActorSystem> systems, Run run) throws UnknownClientException {
+        GossipActor[] actors = new GossipActor[ACTORS];
+        for (int i = 0; i < ACTORS; i++) {
+            actors[i] = new GossipActor(2 + i % 3);
+            systems.apply(i).spawn(actors[i]);
+        }
+        for (GossipActor actor : actors) {
+            actor.peers = actors;
+        }
+        for (int i = 0; i < 6; i++) {
+            actors[i * 2].tell(new Token(i, 25));
+            actors[i * 2 + 1].tell(new Token(i + 6, 25));
+        }
+        run.run();
+        List<String> received = new ArrayList<>();
+        for (GossipActor actor : actors) {
+            received.add(actor.getId() + ": " + actor.received);
+        }
+        return received;
+    }
+
+    /**
+     * Spawns one message board with clients per partition index.
+     *
+     * @return the replies received by every client
+     */
+    private static List<String> runMessageBoards(IntFunction<SimulatedActorSystem> systems, Run run) throws UnknownClientException {
+        List<Client> clients = new ArrayList<>();
+        for (int board = 0; board < 3; board++) {
+            SimulatedActorSystem system = systems.apply(board);
+            Dispatcher dispatcher = new Dispatcher(system, 2);
+            system.spawn(dispatcher);
+            for (int i = 0; i < 5; i++) {
+                Client client = new Client(dispatcher, board * 10 + i);
+                clients.add(client);
+                system.spawn(client);
+            }
+        }
+        run.run();
+        List<String> replies = new ArrayList<>();
+        for (Client client : clients) {
+            replies.add(client.getId() + ": " + client.replies);
+        }
+        return replies;
+    }
+
+    private static class Token implements Message {
+        private final int id;
+        private final int hops;
+
+        Token(int id, int hops) {
+            this.id = id;
+            this.hops = hops;
+        }
+
+        @Override
+        public int getDuration() {
+            return id % 3;
+        }
+    }
+
+    private static class GossipActor extends SimulatedActor {
+        private GossipActor[] peers;
+        private final List<String> received = new ArrayList<>();
+
+        GossipActor(int delay) {
+            this.channel = new DeterministicChannel(delay);
+        }
+
+        @Override
+        public void receive(Message message) {
+            Token token = (Token) message;
+            received.add(token.id + "@" + getTimeSinceSystemStart());
+            if (token.hops > 0) {
+                Random random = new Random(getId() * 31 + token.id * 7 + token.hops);
+                peers[random.nextInt(peers.length)].tell(new Token(token.id, token.hops - 1));
+                if (token.hops % 4 == 0) {
+                    peers[random.nextInt(peers.length)].tell(new Token(token.id, token.hops - 2));
+                }
+            }
+        }
+    }
+
+    private static class Client extends SimulatedActor {
+        private final Dispatcher dispatcher;
+        private final long communicationId;
+        private final Random random;
+        private final List<String> replies = new ArrayList<>();
+        private SimulatedActor worker;
+        private int operations = 6;
+
+        Client(Dispatcher dispatcher, long communicationId) {
+            this.dispatcher = dispatcher;
+            this.communicationId = communicationId;
+            this.random = new Random(communicationId);
+        }
+
+        @Override
+        public void atStartUp() {
+            dispatcher.tell(new InitCommunication(this, communicationId));
+        }
+
+        @Override
+        public void receive(Message message) {
+            replies.add(message.getClass().getSimpleName() + "@" + getTimeSinceSystemStart());
+            if (message instanceof InitAck) {
+                worker = ((InitAck) message).worker;
+            }
+            if (message instanceof FinishAck || worker == null) {
+                return;
+            }
+            if (operations-- == 0) {
+                worker.tell(new FinishCommunication(communicationId));
+            } else if (random.nextBoolean()) {
+                worker.tell(new Publish(new UserMessage("user" + communicationId % 3, "text" + random.nextInt(3)), communicationId));
+            } else {
+                worker.tell(new Like("user" + random.nextInt(3), communicationId, random.nextInt(3)));
+            }
+        }
+    }
+}
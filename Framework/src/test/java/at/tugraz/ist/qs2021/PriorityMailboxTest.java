@@ -0,0 +1,140 @@
+package at.tugraz.ist.qs2021;
+
+import at.tugraz.ist.qs2021.actorsystem.LatencyTracker;
+import at.tugraz.ist.qs2021.actorsystem.Message;
+import at.tugraz.ist.qs2021.actorsystem.MessagePriority;
+import at.tugraz.ist.qs2021.actorsystem.PriorityMailbox;
+import at.tugraz.ist.qs2021.actorsystem.SimulatedActor;
+import at.tugraz.ist.qs2021.actorsystem.SimulatedActorSystem;
+import at.tugraz.ist.qs2021.messageboard.Dispatcher;
+import at.tugraz.ist.qs2021.messageboard.DispatcherOptions;
+import at.tugraz.ist.qs2021.messageboard.UnknownClientException;
+import at.tugraz.ist.qs2021.messageboard.UserMessage;
+import at.tugraz.ist.qs2021.messageboard.clientmessages.FinishAck;
+import at.tugraz.ist.qs2021.messageboard.clientmessages.FinishCommunication;
+import at.tugraz.ist.qs2021.messageboard.clientmessages.InitAck;
+import at.tugraz.ist.qs2021.messageboard.clientmessages.InitCommunication;
+import at.tugraz.ist.qs2021.messageboard.clientmessages.OperationAck;
+import at.tugraz.ist.qs2021.messageboard.clientmessages.Publish;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class PriorityMailboxTest {
+
+    @Test
+    public void testHigherClassesFirstAndFifoWithinClass() {
+        PriorityMailbox mailbox = new PriorityMailbox();
+        mailbox.offer(new Named("d1", MessagePriority.DATA));
+        mailbox.offer(new Named("s1", MessagePriority.SESSION));
+        mailbox.offer(new Named("d2", MessagePriority.DATA));
+        mailbox.offer(new Named("c1", MessagePriority.CONTROL));
+        mailbox.offer(new Named("s2", MessagePriority.SESSION));
+        mailbox.offer(new Named("c2", MessagePriority.CONTROL));
+        Assert.assertEquals(6, mailbox.size());
+
+        List<String> order = new ArrayList<>();
+        while (!mailbox.isEmpty()) {
+            order.add(((Named) mailbox.poll()).name);
+        }
+        Assert.assertEquals(Arrays.asList("c1", "c2", "s1", "s2", "d1", "d2"), order);
+        Assert.assertNull(mailbox.poll());
+        Assert.assertEquals(0, mailbox.size());
+    }
+
+    @Test
+    public void testControlMessageOvertakesBacklog() throws UnknownClientException {
+        Assert.assertEquals(Arrays.asList("d0", "c", "d1", "d2", "d3"), receiveOrder(false));
+    }
+
+    @Test
+    public void testPriorityIsKeptWhenLatenciesAreTracked() throws UnknownClientException {
+        Assert.assertEquals(Arrays.asList("d0", "c", "d1", "d2", "d3"), receiveOrder(true));
+    }
+
+    @Test
+    public void testFinishCommunicationWaitsForOperationsOfItsSession() throws UnknownClientException {
+        SimulatedActorSystem system = new SimulatedActorSystem();
+        Dispatcher dispatcher = new Dispatcher(system, 1, new DispatcherOptions().workerMailboxes(PriorityMailbox::new));
+        system.spawn(dispatcher);
+        ReplyRecorder client = new ReplyRecorder();
+        system.spawn(client);
+        dispatcher.tell(new InitCommunication(client, 7));
+        Assert.assertTrue(system.runUntil(s -> !client.replies.isEmpty(), 100));
+
+        // sent at once, so the worker finds all of them in its mailbox
+        SimulatedActor worker = ((InitAck) client.replies.get(0)).worker;
+        worker.tell(new Publish(new UserMessage("author", "first"), 7));
+        worker.tell(new Publish(new UserMessage("author", "second"), 7));
+        worker.tell(new FinishCommunication(7));
+        system.runFor(100);
+
+        List<Class<?>> replies = new ArrayList<>();
+        for (Message reply : client.replies) {
+            replies.add(reply.getClass());
+        }
+        Assert.assertEquals(Arrays.asList(InitAck.class, OperationAck.class, OperationAck.class, FinishAck.class), replies);
+    }
+
+    private static List<String> receiveOrder(boolean trackLatencies) throws UnknownClientException {
+        SimulatedActorSystem system = new SimulatedActorSystem();
+        if (trackLatencies) {
+            system.setLatencyTracker(new LatencyTracker());
+        }
+        RecordingActor actor = new RecordingActor();
+        system.spawn(actor);
+        for (int i = 0; i < 4; i++) {
+            actor.tell(new Named("d" + i, MessagePriority.DATA));
+        }
+        system.runFor(3);
+        // d0 is being processed, the others are waiting
+        actor.tell(new Named("c", MessagePriority.CONTROL));
+        system.runFor(30);
+        return actor.received;
+    }
+
+    private static class Named implements Message {
+        private final String name;
+        private final MessagePriority priority;
+
+        Named(String name, MessagePriority priority) {
+            this.name = name;
+            this.priority = priority;
+        }
+
+        @Override
+        public int getDuration() {
+            return 2;
+        }
+
+        @Override
+        public MessagePriority getPriority() {
+            return priority;
+        }
+    }
+
+    private static class RecordingActor extends SimulatedActor {
+        private final List<String> received = new ArrayList<>();
+
+        RecordingActor() {
+            this.mailbox = new PriorityMailbox();
+        }
+
+        @Override
+        public void receive(Message message) {
+            received.add(((Named) message).name);
+        }
+    }
+
+    private static class ReplyRecorder extends SimulatedActor {
+        private final List<Message> replies = new ArrayList<>();
+
+        @Override
+        public void receive(Message message) {
+            replies.add(message);
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package at.tugraz.ist.qs2021;
+
+import at.tugraz.ist.qs2021.actorsystem.ConsistentHashRouting;
+import at.tugraz.ist.qs2021.actorsystem.IRoutingStrategy;
+import at.tugraz.ist.qs2021.actorsystem.LeastMailboxRouting;
+import at.tugraz.ist.qs2021.actorsystem.Message;
+import at.tugraz.ist.qs2021.actorsystem.PowerOfTwoChoicesRouting;
+import at.tugraz.ist.qs2021.actorsystem.RoundRobinRouting;
+import at.tugraz.ist.qs2021.actorsystem.Router;
+import at.tugraz.ist.qs2021.actorsystem.SimulatedActor;
+import at.tugraz.ist.qs2021.actorsystem.SimulatedActorSystem;
+import at.tugraz.ist.qs2021.messageboard.Dispatcher;
+import at.tugraz.ist.qs2021.messageboard.DispatcherOptions;
+import at.tugraz.ist.qs2021.messageboard.UnknownClientException;
+import at.tugraz.ist.qs2021.messageboard.clientmessages.InitAck;
+import at.tugraz.ist.qs2021.messageboard.clientmessages.InitCommunication;
+import at.tugraz.ist.qs2021.messageboard.clientmessages.SearchMessages;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class RouterTest {
+
+    @Test
+    public void testRoundRobin() throws UnknownClientException {
+        SimulatedActorSystem system = new SimulatedActorSystem();
+        List<Recorder> routees = spawnRecorders(system, 3);
+        Router router = new Router(new RoundRobinRouting(), routees);
+        system.spawn(router);
+        for (int i = 0; i < 7; i++) {
+            router.tell(new Keyed(i, 0));
+        }
+        system.runFor(40);
+
+        Assert.assertEquals(Arrays.asList(0L, 3L, 6L), routees.get(0).keys);
+        Assert.assertEquals(Arrays.asList(1L, 4L), routees.get(1).keys);
+        Assert.assertEquals(Arrays.asList(2L, 5L), routees.get(2).keys);
+    }
+
+    @Test
+    public void testLeastMailboxAvoidsBusyRoutee() throws UnknownClientException {
+        SimulatedActorSystem system = new SimulatedActorSystem();
+        List<Recorder> routees = spawnRecorders(system, 2);
+        Router router = new Router(new LeastMailboxRouting(), routees);
+        system.spawn(router);
+        // keeps the first routee busy
+        for (int i = 0; i < 3; i++) {
+            routees.get(0).tell(new Keyed(-1, 30));
+        }
+        system.runFor(3);
+        for (int i = 0; i < 3; i++) {
+            router.tell(new Keyed(i, 1));
+        }
+        system.runFor(20);
+
+        Assert.assertTrue(routees.get(0).keys.isEmpty());
+        Assert.assertEquals(Arrays.asList(0L, 1L, 2L), routees.get(1).keys);
+    }
+
+    @Test
+    public void testPowerOfTwoChoicesUsesAllRoutees() throws UnknownClientException {
+        SimulatedActorSystem system = new SimulatedActorSystem();
+        List<Recorder> routees = spawnRecorders(system, 4);
+        Router router = new Router(new PowerOfTwoChoicesRouting(42), routees);
+        system.spawn(router);
+        for (int i = 0; i < 40; i++) {
+            router.tell(new Keyed(i, 4));
+        }
+        system.runFor(400);
+
+        int received = 0;
+        for (Recorder routee : routees) {
+            Assert.assertFalse(routee.keys.isEmpty());
+            received += routee.keys.size();
+        }
+        Assert.assertEquals(40, received);
+    }
+
+    @Test
+    public void testConsistentHashingKeepsKeysOnRoutee() {
+        SimulatedActorSystem system = new SimulatedActorSystem();
+        List<Recorder> routees = spawnRecorders(system, 5);
+        IRoutingStrategy strategy = new ConsistentHashRouting(message -> ((Keyed) message).key);
+        strategy.routeesChanged(routees);
+
+        int[] before = new int[1000];
+        for (int key = 0; key < before.length; key++) {
+            before[key] = strategy.select(new Keyed(key, 0), routees);
+            Assert.assertEquals(before[key], strategy.select(new Keyed(key, 0), routees));
+        }
+
+        Recorder added = new Recorder();
+        system.spawn(added);
+        routees.add(added);
+        strategy.routeesChanged(routees);
+        int moved = 0;
+        for (int key = 0; key < before.length; key++) {
+            int after = strategy.select(new Keyed(key, 0), routees);
+            if (after != before[key]) {
+                // keys only move to the new routee
+                Assert.assertEquals(5, after);
+                moved++;
+            }
+        }
+        Assert.assertTrue(moved > 0);
+        Assert.assertTrue(moved < 400);
+    }
+
+    @Test
+    public void testDispatcherAvoidsBusyWorkerWithLeastMailbox() throws UnknownClientException {
+        SimulatedActorSystem system = new SimulatedActorSystem();
+        Dispatcher dispatcher = new Dispatcher(system, 3, new DispatcherOptions().routing(new LeastMailboxRouting()));
+        system.spawn(dispatcher);
+        Client busy = new Client(dispatcher, 0, 20);
+        system.spawn(busy);
+        system.runFor(10);
+        List<Client> clients = new ArrayList<>();
+        for (int i = 1; i <= 4; i++) {
+            Client client = new Client(dispatcher, i, 0);
+            clients.add(client);
+            system.spawn(client);
+            system.runFor(4);
+        }
+        system.runFor(20);
+
+        Assert.assertNotNull(busy.worker);
+        for (Client client : clients) {
+            Assert.assertNotNull(client.worker);
+            Assert.assertNotSame(busy.worker, client.worker);
+        }
+    }
+
+    private static List<Recorder> spawnRecorders(SimulatedActorSystem system, int n) {
+        List<Recorder> recorders = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            Recorder recorder = new Recorder();
+            system.spawn(recorder);
+            recorders.add(recorder);
+        }
+        return recorders;
+    }
+
+    private static class Keyed implements Message {
+        private final long key;
+        private final int duration;
+
+        Keyed(long key, int duration) {
+            this.key = key;
+            this.duration = duration;
+        }
+
+        @Override
+        public int getDuration() {
+            return duration;
+        }
+    }
+
+    private static class Recorder extends SimulatedActor {
+        private final List<Long> keys = new ArrayList<>();
+
+        @Override
+        public void receive(Message message) {
+            keys.add(((Keyed) message).key);
+        }
+    }
+
+    private static class Client extends SimulatedActor {
+        private final Dispatcher dispatcher;
+        private final long communicationId;
+        private final int searches;
+        private SimulatedActor worker;
+
+        /**
+         * @param searches number of searches sent at once after the communication is initialized
+         */
+        Client(Dispatcher dispatcher, long communicationId, int searches) {
+            this.dispatcher = dispatcher;
+            this.communicationId = communicationId;
+            this.searches = searches;
+        }
+
+        @Override
+        public void atStartUp() {
+            dispatcher.tell(new InitCommunication(this, communicationId));
+        }
+
+        @Override
+        public void receive(Message message) {
+            if (message instanceof InitAck) {
+                worker = ((InitAck) message).worker;
+                for (int i = 0; i < searches; i++) {
+                    worker.tell(new SearchMessages("text", communicationId));
+                }
+            }
+        }
+    }
+}
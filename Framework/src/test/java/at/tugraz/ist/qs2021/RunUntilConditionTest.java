@@ -0,0 +1,135 @@
+package at.tugraz.ist.qs2021;
+
+import at.tugraz.ist.qs2021.actorsystem.ConcurrentActorSystem;
+import at.tugraz.ist.qs2021.actorsystem.Message;
+import at.tugraz.ist.qs2021.actorsystem.SimulatedActor;
+import at.tugraz.ist.qs2021.actorsystem.SimulatedActorSystem;
+import at.tugraz.ist.qs2021.messageboard.UnknownClientException;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class RunUntilConditionTest {
+
+    @Test
+    public void testRunUntilQuiescent() throws UnknownClientException {
+        for (boolean discreteEventMode : new boolean[]{true, false}) {
+            SimulatedActorSystem system = new SimulatedActorSystem();
+            system.setDiscreteEventMode(discreteEventMode);
+            Countdown actor = new Countdown();
+            system.spawn(actor);
+            Assert.assertTrue(system.isQuiescent());
+
+            actor.tell(new Count(5));
+            Assert.assertFalse(system.isQuiescent());
+            Assert.assertTrue(system.runUntilQuiescent());
+            Assert.assertTrue(system.isQuiescent());
+            Assert.assertEquals(0, actor.last);
+            // six counts, each one tick in transit, one to take it from the mailbox, three to process and one to receive it
+            Assert.assertEquals(6 * 6, system.getCurrentTime());
+        }
+    }
+
+    @Test
+    public void testRunUntilConditionStopsAtFirstTickItHolds() throws UnknownClientException {
+        SimulatedActorSystem system = new SimulatedActorSystem();
+        Countdown actor = new Countdown();
+        system.spawn(actor);
+        actor.tell(new Count(5));
+
+        Assert.assertTrue(system.runUntil(s -> actor.last == 3));
+        Assert.assertEquals(3, actor.last);
+        Assert.assertEquals(3 * 6, system.getCurrentTime());
+        // holds already, so no tick is run
+        Assert.assertTrue(system.runUntil(s -> actor.last == 3, 0));
+        Assert.assertEquals(3 * 6, system.getCurrentTime());
+    }
+
+    @Test
+    public void testMaxTicksGuard() throws UnknownClientException {
+        SimulatedActorSystem system = new SimulatedActorSystem();
+        Countdown actor = new Countdown();
+        system.spawn(actor);
+        actor.tell(new Count(5));
+
+        Assert.assertFalse(system.runUntilQuiescent(12));
+        Assert.assertEquals(12, system.getCurrentTime());
+        Assert.assertFalse(system.runUntil(s -> false, 100));
+        Assert.assertEquals(112, system.getCurrentTime());
+        Assert.assertTrue(system.isQuiescent());
+    }
+
+    @Test
+    public void testActorOverridingTickIsNeverQuiescent() throws UnknownClientException {
+        SimulatedActorSystem system = new SimulatedActorSystem();
+        system.spawn(new Ticking());
+        Assert.assertFalse(system.isQuiescent());
+        Assert.assertFalse(system.runUntilQuiescent(20));
+        Assert.assertEquals(20, system.getCurrentTime());
+    }
+
+    @Test
+    public void testRunUntilQuiescentInConcurrentSystem() throws UnknownClientException {
+        ConcurrentActorSystem system = new ConcurrentActorSystem(1, false);
+        try {
+            Countdown actor = new Countdown();
+            system.spawn(actor);
+            Assert.assertTrue(system.isQuiescent());
+            actor.tell(new Count(1000));
+            system.schedule(actor, 20, new Count(0));
+
+            Assert.assertTrue(system.runUntilQuiescent(10_000));
+            Assert.assertEquals(0, actor.last);
+            Assert.assertEquals(1002, actor.received);
+            Assert.assertTrue(system.runUntil(s -> actor.received == 1002, 0));
+
+            system.spawn(new Ticking());
+            Assert.assertFalse(system.runUntilQuiescent(3));
+        } finally {
+            system.shutdown();
+        }
+    }
+
+    private static class Count implements Message {
+        private final int remaining;
+
+        Count(int remaining) {
+            this.remaining = remaining;
+        }
+
+        @Override
+        public int getDuration() {
+            return 3;
+        }
+    }
+
+    /**
+     * Sends itself the next lower count until it reaches zero.
+     */
+    private static class Countdown extends SimulatedActor {
+        private int last = -1;
+        private int received = 0;
+
+        @Override
+        public void receive(Message message) {
+            received++;
+            last = ((Count) message).remaining;
+            if (last > 0) {
+                tell(new Count(last - 1));
+            }
+        }
+    }
+
+    /**
+     * Overrides tick() without telling the system when it has something to do.
+     */
+    private static class Ticking extends SimulatedActor {
+        @Override
+        public void tick() throws UnknownClientException {
+            super.tick();
+        }
+
+        @Override
+        public void receive(Message message) {
+        }
+    }
+}
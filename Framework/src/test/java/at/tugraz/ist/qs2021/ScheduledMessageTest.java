@@ -0,0 +1,70 @@
+package at.tugraz.ist.qs2021;
+
+import at.tugraz.ist.qs2021.actorsystem.Message;
+import at.tugraz.ist.qs2021.actorsystem.ScheduledMessage;
+import at.tugraz.ist.qs2021.actorsystem.SimulatedActor;
+import at.tugraz.ist.qs2021.actorsystem.SimulatedActorSystem;
+import at.tugraz.ist.qs2021.messageboard.UnknownClientException;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class ScheduledMessageTest {
+
+    @Test
+    public void testScheduledMessageIsReceivedAfterDelay() throws UnknownClientException {
+        SimulatedActorSystem system = new SimulatedActorSystem();
+        RecordingActor actor = new RecordingActor();
+        system.spawn(actor);
+        system.runFor(2);
+        system.schedule(actor, 5, new NamedMessage("first"));
+        system.schedule(actor, 0, new NamedMessage("second"));
+        system.runFor(20);
+        Assert.assertEquals(Arrays.asList("3 second", "8 first"), actor.received);
+        Assert.assertTrue(actor.getMessageLog().isEmpty());
+    }
+
+    @Test
+    public void testCancelledMessageIsNotReceived() throws UnknownClientException {
+        SimulatedActorSystem system = new SimulatedActorSystem();
+        RecordingActor actor = new RecordingActor();
+        system.spawn(actor);
+        ScheduledMessage cancelled = system.schedule(actor, 3, new NamedMessage("cancelled"));
+        system.schedule(actor, 4, new NamedMessage("kept"));
+        system.runFor(2);
+        cancelled.cancel();
+        system.runFor(10);
+        Assert.assertEquals(Collections.singletonList("5 kept"), actor.received);
+    }
+
+    private static class RecordingActor extends SimulatedActor {
+        private final List<String> received = new ArrayList<>();
+
+        @Override
+        public void receive(Message message) {
+            received.add(getTimeSinceSystemStart() + " " + message);
+        }
+    }
+
+    private static class NamedMessage implements Message {
+        private final String name;
+
+        NamedMessage(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public int getDuration() {
+            return 0;
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package at.tugraz.ist.qs2021;
+
+import at.tugraz.ist.qs2021.actorsystem.Message;
+import at.tugraz.ist.qs2021.actorsystem.SimulatedActor;
+import at.tugraz.ist.qs2021.actorsystem.SimulatedActorSystem;
+import at.tugraz.ist.qs2021.messageboard.UnknownClientException;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class TellAllTest {
+
+    @Test
+    public void testBatchIsReceivedLikeSeparateMessages() throws UnknownClientException {
+        List<Message> messages = Arrays.asList(new NamedMessage("m1", 2), new NamedMessage("m2", 0), new NamedMessage("m3", 1));
+
+        SimulatedActorSystem system = new SimulatedActorSystem();
+        RecordingActor separate = new RecordingActor();
+        RecordingActor batched = new RecordingActor();
+        system.spawn(separate);
+        system.spawn(batched);
+        for (Message message : messages) {
+            separate.tell(message);
+        }
+        batched.tellAll(messages);
+        system.runFor(10);
+
+        Assert.assertEquals(Arrays.asList("5 m1", "7 m2", "10 m3"), separate.received);
+        Assert.assertEquals(separate.received, batched.received);
+        Assert.assertEquals(messages, batched.getMessageLog());
+    }
+
+    @Test
+    public void testEmptyBatchIsIgnored() throws UnknownClientException {
+        SimulatedActorSystem system = new SimulatedActorSystem();
+        RecordingActor actor = new RecordingActor();
+        system.spawn(actor);
+        actor.tellAll(new ArrayList<Message>());
+        system.runFor(5);
+        Assert.assertTrue(actor.received.isEmpty());
+        Assert.assertTrue(actor.getMessageLog().isEmpty());
+    }
+
+    private static class RecordingActor extends SimulatedActor {
+        private final List<String> received = new ArrayList<>();
+
+        @Override
+        public void receive(Message message) {
+            received.add(getTimeSinceSystemStart() + " " + message);
+        }
+    }
+
+    private static class NamedMessage implements Message {
+        private final String name;
+        private final int duration;
+
+        NamedMessage(String name, int duration) {
+            this.name = name;
+            this.duration = duration;
+        }
+
+        @Override
+        public int getDuration() {
+            return duration;
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+}
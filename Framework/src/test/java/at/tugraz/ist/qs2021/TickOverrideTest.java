@@ -0,0 +1,63 @@
+package at.tugraz.ist.qs2021;
+
+import at.tugraz.ist.qs2021.actorsystem.Message;
+import at.tugraz.ist.qs2021.actorsystem.ParallelSimulatedActorSystem;
+import at.tugraz.ist.qs2021.actorsystem.SimulatedActor;
+import at.tugraz.ist.qs2021.actorsystem.SimulatedActorSystem;
+import at.tugraz.ist.qs2021.messageboard.UnknownClientException;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TickOverrideTest {
+
+    @Test
+    public void testActorOverridingTickIsTickedEveryTick() throws UnknownClientException {
+        for (boolean discreteEventMode : new boolean[]{true, false}) {
+            SimulatedActorSystem system = new SimulatedActorSystem();
+            system.setDiscreteEventMode(discreteEventMode);
+            Counter counter = new Counter();
+            system.spawn(counter);
+            system.runFor(50);
+            counter.tell(new Ping());
+            system.runFor(100);
+
+            Assert.assertEquals(150, counter.ticks);
+            Assert.assertEquals(1, counter.received);
+        }
+    }
+
+    @Test
+    public void testActorOverridingTickIsTickedEveryTickInParallelSystem() throws UnknownClientException {
+        SimulatedActorSystem system = new ParallelSimulatedActorSystem();
+        Counter counter = new Counter();
+        system.spawn(counter);
+        system.runFor(150);
+        Assert.assertEquals(150, counter.ticks);
+    }
+
+    private static class Ping implements Message {
+        @Override
+        public int getDuration() {
+            return 2;
+        }
+    }
+
+    /**
+     * Counts its ticks without telling the system when it has something to do.
+     */
+    private static class Counter extends SimulatedActor {
+        private int ticks = 0;
+        private int received = 0;
+
+        @Override
+        public void tick() throws UnknownClientException {
+            super.tick();
+            ticks++;
+        }
+
+        @Override
+        public void receive(Message message) {
+            received++;
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package at.tugraz.ist.qs2021;
+
+import at.tugraz.ist.qs2021.actorsystem.Message;
+import at.tugraz.ist.qs2021.actorsystem.SimulatedActor;
+import at.tugraz.ist.qs2021.actorsystem.SimulatedActorSystem;
+import at.tugraz.ist.qs2021.messageboard.Dispatcher;
+import at.tugraz.ist.qs2021.messageboard.InputTrace;
+import at.tugraz.ist.qs2021.messageboard.TraceReplay;
+import at.tugraz.ist.qs2021.messageboard.UnknownClientException;
+import at.tugraz.ist.qs2021.messageboard.UserMessage;
+import at.tugraz.ist.qs2021.messageboard.clientmessages.*;
+import at.tugraz.ist.qs2021.messageboard.dispatchermessages.Stop;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Random;
+
+public class TraceReplayTest {
+
+    /**
+     * Client performing random operations, which sends all messages via the trace.
+     */
+    private static class RecordedClient extends SimulatedActor {
+        private final InputTrace trace;
+        private final Dispatcher dispatcher;
+        private final long communicationId;
+        private final Random random;
+        private final String name;
+        private int operations;
+        private SimulatedActor worker;
+
+        RecordedClient(InputTrace trace, Dispatcher dispatcher, long communicationId) {
+            this.trace = trace;
+            this.dispatcher = dispatcher;
+            this.communicationId = communicationId;
+            this.random = new Random(communicationId);
+            this.name = "user" + (communicationId % 9);
+            this.operations = 3 + random.nextInt(6);
+        }
+
+        @Override
+        public void atStartUp() {
+            trace.tell(dispatcher, new InitCommunication(this, communicationId));
+        }
+
+        @Override
+        public void receive(Message message) {
+            if (message instanceof InitAck) {
+                worker = ((InitAck) message).worker;
+                next();
+            } else if (worker != null && !(message instanceof FinishAck)) {
+                next();
+            }
+        }
+
+        private void next() {
+            if (operations-- <= 0) {
+                trace.tell(worker, new FinishCommunication(communicationId));
+                return;
+            }
+            switch (random.nextInt(6)) {
+                case 0:
+                    trace.tell(worker, new Publish(new UserMessage(name, "text\t" + random.nextInt(5)), communicationId));
+                    break;
+                case 1:
+                    trace.tell(worker, new Like(name, communicationId, random.nextInt(8)));
+                    break;
+                case 2:
+                    trace.tell(worker, new Dislike(name, communicationId, random.nextInt(8)));
+                    break;
+                case 3:
+                    trace.tell(worker, new Report(name, communicationId, "user" + random.nextInt(9)));
+                    break;
+                case 4:
+                    trace.tell(worker, new SearchMessages("text", communicationId));
+                    break;
+                default:
+                    trace.tell(worker, new RetrieveMessages("user" + random.nextInt(9), communicationId));
+                    break;
+            }
+        }
+    }
+
+    private static InputTrace record() throws UnknownClientException {
+        InputTrace trace = new InputTrace(3);
+        SimulatedActorSystem system = new SimulatedActorSystem();
+        Dispatcher dispatcher = new Dispatcher(system, 3);
+        system.spawn(dispatcher);
+        for (int i = 0; i < 40; i++) {
+            system.spawn(new RecordedClient(trace, dispatcher, i));
+            system.runFor(1 + i % 4);
+        }
+        system.runFor(200);
+        trace.tell(dispatcher, new Stop());
+        system.runFor(50);
+        trace.finish(system, dispatcher);
+        return trace;
+    }
+
+    @Test
+    public void testReplayReachesRecordedState() throws UnknownClientException {
+        InputTrace trace = record();
+        Assert.assertTrue(trace.getExpectedState().size() > 0);
+
+        TraceReplay.Result result = TraceReplay.replay(trace);
+        Assert.assertTrue(result.toString(), result.matches());
+        Assert.assertEquals(trace.getEndTick(), result.getTicks());
+        Assert.assertTrue(result.getReplies() > 0);
+
+        Assert.assertTrue(TraceReplay.replay(trace).matches());
+    }
+
+    @Test
+    public void testTraceSurvivesWriteAndRead() throws IOException, UnknownClientException {
+        InputTrace trace = record();
+        StringWriter out = new StringWriter();
+        trace.write(out);
+
+        InputTrace read = InputTrace.read(new StringReader(out.toString()));
+        Assert.assertEquals(trace.getInputs().size(), read.getInputs().size());
+        Assert.assertEquals(trace.getEndTick(), read.getEndTick());
+        Assert.assertEquals(trace.getExpectedState(), read.getExpectedState());
+        Assert.assertTrue(TraceReplay.replay(read).matches());
+    }
+
+    @Test
+    public void testReplayDetectsDifferentState() throws IOException, UnknownClientException {
+        InputTrace trace = record();
+        StringWriter out = new StringWriter();
+        trace.write(out);
+
+        InputTrace modified = InputTrace.read(new StringReader(out.toString() + "state\tmessage 99 nobody\n"));
+        Assert.assertFalse(TraceReplay.replay(modified).matches());
+    }
+
+    @Test(expected = IOException.class)
+    public void testReadRejectsOtherFiles() throws IOException {
+        InputTrace.read(new StringReader("tick,kind,sender\n"));
+    }
+}